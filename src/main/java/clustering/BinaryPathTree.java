@@ -1,12 +1,30 @@
 package clustering;
 
-import unionfind.UnionFind;
-
-import java.io.FileReader;
-import java.util.*;
-
-
+import unionfind.ConcurrentUnionFind;
+import util.FastLoader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+
+/**
+ * Map from paths, strings of '0' (left) and '1' (right), to values.
+ * <p>
+ * Paths are stored in a {@link BinaryTrie} of 64 bits keys: the key of a path is a 1 bit
+ * followed by the bits of the path, so paths of different lengths have different keys.
+ * Values are kept in a list, the trie maps a key to the index of its value.
+ * Paths longer than {@link #MAX_PATH_LENGTH}, which do not fit a key, fall back to a hash map
+ * of their bits, so paths of any length are accepted.
+ */
 public class BinaryPathTree<T> {
+    /** Longest path kept in the trie, whose key takes the 64 bits */
+    public static final int MAX_PATH_LENGTH = 63;
+
+    /** Node of a binary path tree, no longer used by the trie backed map, kept for source compatibility */
     public interface Tree<T> {
         boolean isLeaf();
 
@@ -48,155 +66,87 @@ public class BinaryPathTree<T> {
         }
     }
 
-    private static class Node<T> implements Tree<T> {
-        private final Tree<T> left;
-        private final Tree<T> right;
-
-        public Node(Tree<T> left, Tree<T> right) {
-            this.left = left;
-            this.right = right;
-        }
-
-        @Override
-        public boolean isLeaf() {
-            return false;
-        }
-
-        @Override
-        public boolean isNode() {
-            return true;
-        }
-
-        @Override
-        public T getSymbol() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Tree<T> left() {
-            return left;
-        }
-
-        @Override
-        public Tree<T> right() {
-            return right;
-        }
-
-        @Override
-        public String toString() {
-            final StringBuffer sb = new StringBuffer("{");
-            sb.append(left);
-            sb.append(",").append(right);
-            sb.append('}');
-            return sb.toString();
-        }
-    }
-
-    private static class Leaf<T> implements Tree<T> {
-
-        private final T value;
-
-        public Leaf(T value) {
-            Objects.requireNonNull(value);
-            this.value = value;
-        }
-
-        @Override
-        public boolean isLeaf() {
-            return true;
-        }
-
-        @Override
-        public boolean isNode() {
-            return false;
-        }
-
-        @Override
-        public T getSymbol() {
-            return value;
-        }
-
-        @Override
-        public Tree<T> left() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Tree<T> right() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public String toString() {
-            return value.toString();
-        }
-    }
-
-    private Tree<T> root = new Node<>(null, null);
+    private final BinaryTrie trie = new BinaryTrie(64);
+    private final List<T> values = new ArrayList<>();
+    private final Map<String, T> longPaths = new HashMap<>();
 
     public void buildSearchTree(List<Package<T>> nodes) {
-        for (Package<T> node : nodes) {
-            root = buildSearchTree(root, node.path.getBytes(), 0, node.value);
-        }
+        for (Package<T> node : nodes) buildSearchTree(node);
     }
 
     public void buildSearchTree(Package<T> node) {
-        root = buildSearchTree(root, node.path.getBytes(), 0, node.value);
-    }
-
-    private Tree<T> buildSearchTree(Tree<T> curr, byte[] route, int currentIndex, T value) {
-        if (currentIndex == route.length - 1) {
-            if (route[currentIndex] == '1')
-                return new Node<>(curr == null ? null : curr.left(), new Leaf<>(value));
-            else
-                return new Node<>(new Leaf<>(value), curr == null ? null : curr.right());
+        Objects.requireNonNull(node.value);
+        final String path = node.path;
+        if (path.isEmpty()) throw new IllegalArgumentException("Empty path");
+        if (path.length() > MAX_PATH_LENGTH) {
+            longPaths.put(bits(path), node.value);
+            return;
+        }
+        long key = 1;
+        for (int i = 0; i < path.length(); i++) key = key << 1 | (path.charAt(i) == '1' ? 1 : 0);
+        final int index = trie.get(key);
+        if (index == BinaryTrie.MISSING) {
+            trie.put(key, values.size());
+            values.add(node.value);
         } else {
-            if (route[currentIndex] == '1')
-                return new Node<>(
-                        curr == null ? null : curr.left(),
-                        buildSearchTree(curr == null ? null : curr.right(), route, currentIndex + 1, value));
-            else
-                return new Node<>(
-                        buildSearchTree(curr == null ? null : curr.left(), route, currentIndex + 1, value),
-                        curr == null ? null : curr.right());
+            values.set(index, node.value);
         }
     }
 
     public T findValue(String direction) {
         if (direction.isEmpty()) return null;
-        return findValue(root, direction.getBytes(), 0);
+        if (direction.length() > MAX_PATH_LENGTH) return longPaths.get(bits(direction));
+        long key = 1;
+        for (int i = 0; i < direction.length(); i++) key = key << 1 | (direction.charAt(i) == '1' ? 1 : 0);
+        return valueOf(key);
     }
 
     public T findValue(byte[] direction) {
         if (direction.length == 0) return null;
-        return findValue(root, direction, 0);
+        if (direction.length > MAX_PATH_LENGTH) {
+            final StringBuilder sb = new StringBuilder(direction.length);
+            for (byte bit : direction) sb.append(bit == '1' ? '1' : '0');
+            return longPaths.get(sb.toString());
+        }
+        long key = 1;
+        for (byte bit : direction) key = key << 1 | (bit == '1' ? 1 : 0);
+        return valueOf(key);
     }
 
-    private T findValue(Tree<T> current, byte[] direction, int index) {
-        if (index < direction.length - 1) {
-            if (current == null) return null;
-            else if (direction[index] == '1') return findValue(current.right(), direction, index + 1);
-            else return findValue(current.left(), direction, index + 1);
-        } else {
-            // index = direction.length - 1
-            if (current == null) return null;
-            if (current.isLeaf()) return null;
-            if (direction[index] == '1') {
-                if (current.right() != null && current.right().isLeaf()) return current.right().getSymbol();
-                else return null;
-            } else {
-                if (current.left() != null && current.left().isLeaf()) return current.left().getSymbol();
-                else return null;
-            }
-        }
+    /** Path of '0' and '1' only, every character but '1' read as 0 as in the keys */
+    private static String bits(String path) {
+        final StringBuilder sb = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) sb.append(path.charAt(i) == '1' ? '1' : '0');
+        return sb.toString();
+    }
+
+    private T valueOf(long key) {
+        final int index = trie.get(key);
+        return index == BinaryTrie.MISSING ? null : values.get(index);
+    }
+
+    /** Number of paths */
+    public int size() {
+        return values.size() + longPaths.size();
     }
 
     @Override
     public String toString() {
-        return root.toString();
+        final StringBuilder sb = new StringBuilder("{");
+        trie.forEach((key, index) -> {
+            if (sb.length() > 1) sb.append(", ");
+            // drop the leading 1 bit
+            final int length = 63 - Long.numberOfLeadingZeros(key);
+            for (int i = length - 1; i >= 0; i--) sb.append(key >>> i & 1);
+            sb.append('=').append(values.get(index));
+        });
+        longPaths.forEach((path, value) -> {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(path).append('=').append(value);
+        });
+        return sb.append('}').toString();
     }
 
-
     public static int getHammingDistance(byte[] a, byte[] b) {
         int count = 0;
         for (int i = 0; i < a.length; i++) {
@@ -205,35 +155,6 @@ public class BinaryPathTree<T> {
         return count;
     }
 
-    private static class Edge {
-        final int a;
-        final int b;
-
-        public Edge(int a, int b) {
-            if (a == b) throw new RuntimeException();
-            this.a = Math.min(a, b);
-            this.b = Math.max(a, b);
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-
-            Edge edge = (Edge) o;
-
-            if (a != edge.a) return false;
-            return b == edge.b;
-        }
-
-        @Override
-        public int hashCode() {
-            int result = a;
-            result = 31 * result + b;
-            return result;
-        }
-    }
-
     /**
      * The format is:
      * <p>
@@ -260,88 +181,41 @@ public class BinaryPathTree<T> {
      * @param filePath
      * @return largest value of k such that there is a k-clustering with spacing at least 3
      * @throws Exception
+     * @see HammingClustering the same clustering without trie, and for any spacing
      */
     public static int solveProblem(String filePath) throws Exception {
-        BinaryPathTree<Integer> binaryPathTree = new BinaryPathTree<>();
-        Scanner in = new Scanner(new FileReader(filePath));
-        Map<Integer, Package<Integer>> packages = new HashMap<>();
-
-        String[] info = in.nextLine().trim().split("\\s+");
-        final int nodeNum = Integer.valueOf(info[0]);
-        System.out.println("#node: " + info[0] + ", #bits/path: " + info[1]);
-
-        List<Edge> length0Edges = new ArrayList<>();
-
-        int i = 0;
-        while (in.hasNextLine()) {
-            String path = in.nextLine().trim().replace(" ", "");
-            assert path.length() == Integer.valueOf(info[1]);
-            Integer val = binaryPathTree.findValue(path);
-            if (val != null) {
-                length0Edges.add(new Edge(val, i));
+        FastLoader.Table in = FastLoader.readTable(filePath);
+        final int nodeNum = in.get(0, 0);
+        final int bits = in.get(0, 1);
+        System.out.println("#node: " + nodeNum + ", #bits/path: " + bits);
+        final long[] labels = in.bitRows(1, bits);
+        if (labels.length != nodeNum) throw new IllegalArgumentException("Expected " + nodeNum + " nodes, read " + labels.length);
+
+        // labels packed in a trie, nodes of equal label are united right away
+        BinaryTrie trie = new BinaryTrie(bits, nodeNum);
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(nodeNum);
+        final int[] distinct = new int[nodeNum];
+        int labelNum = 0;
+        for (int i = 0; i < nodeNum; i++) {
+            int val = trie.get(labels[i]);
+            if (val != BinaryTrie.MISSING) {
+                uf.union(val, i);
             } else {
-                Package<Integer> pack = new Package<>(path, i);
-                packages.put(i, pack);
-                binaryPathTree.buildSearchTree(pack);
+                trie.put(labels[i], i);
+                distinct[labelNum++] = i;
             }
-            i++;
         }
 
-//        for(Package<Integer> p : packages.values() )
-//            assert binaryPathTree.findValue(p.getPath()) == p.getValue();
-
-        Set<Edge> length1Edges = new HashSet<>();
-        for (Package<Integer> p : packages.values()) {
-            final byte[] path = p.getPath().getBytes();
-            for (int x = 0; x < path.length; x++) {
-                final byte[] copy = Arrays.copyOf(path, path.length);
-                assert Arrays.equals(path, copy);
-                if (copy[x] == '0') copy[x] = '1';
-                else copy[x] = '0';
-
-                Integer friend = binaryPathTree.findValue(copy);
-                if (friend != null) length1Edges.add(new Edge(p.getValue(), friend));
+        // the trie is only read from here on, so the lookups run in parallel
+        // and every pair found is united right away in a lock free union find
+        final long[] masks = HammingClustering.masks(bits, 2);
+        IntStream.range(0, labelNum).parallel().forEach(k -> {
+            final int node = distinct[k];
+            for (long mask : masks) {
+                int friend = trie.get(labels[node] ^ mask);
+                if (friend != BinaryTrie.MISSING) uf.union(node, friend);
             }
-        }
-
-        Set<Edge> length2Edges = new HashSet<Edge>();
-        for (Package<Integer> p : packages.values()) {
-            final byte[] path = p.getPath().getBytes();
-            for (int x = 0; x < path.length; x++) {
-                for (int y = x + 1; y < path.length; y++) {
-                    final byte[] copy = Arrays.copyOf(path, path.length);
-
-                    if (copy[x] == '0') copy[x] = '1';
-                    else copy[x] = '0';
-
-                    if (copy[y] == '0') copy[y] = '1';
-                    else copy[y] = '0';
-
-                    Integer friend = binaryPathTree.findValue(copy);
-                    if (friend != null) length2Edges.add(new Edge(p.getValue(), friend));
-                }
-            }
-        }
-
-//        for(Edge e : length0Edges) {
-//            assert getHammingDistance(packages.get(e.a).getPath().getBytes(), packages.get(e.b).getPath().getBytes()) == 0;
-//        }
-//
-//        for(Edge e : length1Edges) {
-//            assert getHammingDistance(packages.get(e.a).getPath().getBytes(), packages.get(e.b).getPath().getBytes()) == 1;
-//        }
-//
-//        for(Edge e : length2Edges) {
-//            assert getHammingDistance(packages.get(e.a).getPath().getBytes(), packages.get(e.b).getPath().getBytes()) == 2;
-//        }
-
-        UnionFind uf = new UnionFind(nodeNum);
-        for (Edge e : length0Edges)
-            uf.union(e.a, e.b);
-        for (Edge e : length1Edges)
-            uf.union(e.a, e.b);
-        for (Edge e : length2Edges)
-            uf.union(e.a, e.b);
+        });
 
         System.out.println("Result: " + uf.getComponentCount());
         return uf.getComponentCount();
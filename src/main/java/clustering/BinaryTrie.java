@@ -0,0 +1,263 @@
+package clustering;
+
+import java.util.Arrays;
+
+import util.ResizePolicy;
+
+/**
+ * Map from fixed width bit strings (keys of 1 ... 64 bits, most significant bit first)
+ * to non negative ints, as a path compressed binary trie (crit-bit tree, PATRICIA) in parallel arrays.
+ * <p>
+ * Only the nodes where two keys part are kept: n keys take n leaves and n-1 internal nodes,
+ * whatever the width of the keys. An internal node holds the index of its branching bit,
+ * its two children and the number of keys below it; a child {@code >= 0} is an internal node,
+ * a child {@code < 0} is the leaf {@code ~child}, which holds the key and its value.
+ * Lookup is a loop on the branching bits from the root down to a leaf, then a single comparison of the key.
+ * <p>
+ * Keys sorted in advance build the trie in O(n) by {@link #fromSorted(long[], int)}, whose nodes then
+ * lie in key order.
+ */
+public class BinaryTrie {
+    /** Value of a key not in the trie */
+    public static final int MISSING = -1;
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final ResizePolicy POLICY = ResizePolicy.neverShrink(2);
+
+    private final int bits;
+    private int root = EMPTY;
+    // internal nodes
+    private int[] children;     // children[2 * node + bit]
+    private byte[] branchBits;  // index of the branching bit, 0 is the most significant
+    private int[] counts;       // number of keys below
+    private int nodeNum;
+    // leaves
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    // RI:  the leaves below an internal node share their bits before its branching bit, and part on it
+    //      branching bits increase from a node to its internal children
+    //      counts[node] is the number of leaves below node, nodeNum == max(0, size - 1)
+
+    public BinaryTrie(int bits) {
+        this(bits, 16);
+    }
+
+    /**
+     * @param expectedSize number of keys held without resizing
+     */
+    public BinaryTrie(int bits, int expectedSize) {
+        if(bits < 1 || bits > 64) throw new IllegalArgumentException("Invalid number of bits");
+        if(expectedSize < 0) throw new IllegalArgumentException("Invalid size");
+        this.bits = bits;
+        final int capacity = Math.max(expectedSize, 2);
+        this.children = new int[2 * capacity];
+        this.branchBits = new byte[capacity];
+        this.counts = new int[capacity];
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+    }
+
+    /**
+     * Trie of given keys sorted by increasing unsigned value, whose values are their indices
+     * (the first index of a repeated key), in O(n)
+     */
+    public static BinaryTrie fromSorted(long[] sortedKeys, int bits) {
+        BinaryTrie trie = new BinaryTrie(bits, sortedKeys.length);
+        // the trie is the cartesian tree of the branching bits of consecutive keys,
+        // the stack holds the internal nodes whose right child is not known yet
+        int[] stack = new int[bits + 1];
+        int top = 0;
+        for(int i = 0; i < sortedKeys.length; i++) {
+            trie.validateKey(sortedKeys[i]);
+            if(i == 0) {
+                trie.root = ~trie.newLeaf(sortedKeys[0], 0);
+                continue;
+            }
+            final int cmp = Long.compareUnsigned(sortedKeys[i - 1], sortedKeys[i]);
+            if(cmp > 0) throw new IllegalArgumentException("Keys not sorted at " + i);
+            if(cmp == 0) continue;
+
+            final int branch = trie.branchBit(sortedKeys[i - 1], sortedKeys[i]);
+            int last = ~(trie.size - 1);
+            while(top > 0 && trie.branchBits[stack[top - 1]] > branch) last = trie.closeRight(stack[--top], last);
+            final int node = trie.newNode(branch);
+            trie.children[2 * node] = last;
+            trie.counts[node] = trie.count(last);
+            stack[top++] = node;
+            trie.newLeaf(sortedKeys[i], i);
+        }
+        if(trie.size > 1) {
+            int last = ~(trie.size - 1);
+            while(top > 0) last = trie.closeRight(stack[--top], last);
+            trie.root = last;
+        }
+        assert trie.checkRep();
+        return trie;
+    }
+
+    /** Set the right child of node, now known, and return node */
+    private int closeRight(int node, int right) {
+        children[2 * node + 1] = right;
+        counts[node] += count(right);
+        return node;
+    }
+
+    private void validateKey(long key) {
+        if(bits < 64 && key >>> bits != 0) throw new IllegalArgumentException("Key wider than " + bits + " bits");
+    }
+
+    /** Bit of the key at given index, 0 is the most significant */
+    private int bit(long key, int index) {
+        return (int) (key >>> (bits - 1 - index)) & 1;
+    }
+
+    /** Index of the first bit where the distinct keys differ */
+    private int branchBit(long a, long b) {
+        return Long.numberOfLeadingZeros(a ^ b) - (64 - bits);
+    }
+
+    private int count(int ref) {
+        return ref >= 0 ? counts[ref] : 1;
+    }
+
+    private int newNode(int branch) {
+        if(nodeNum == branchBits.length) {
+            int capacity = POLICY.grownCapacity(branchBits.length, nodeNum + 1);
+            children = Arrays.copyOf(children, 2 * capacity);
+            branchBits = Arrays.copyOf(branchBits, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        branchBits[nodeNum] = (byte) branch;
+        return nodeNum++;
+    }
+
+    private int newLeaf(long key, int value) {
+        if(size == keys.length) {
+            int capacity = POLICY.grownCapacity(keys.length, size + 1);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        return size++;
+    }
+
+    /** Leaf reached by following the bits of the key, the only leaf that may hold it */
+    private int leafOf(long key) {
+        int ref = root;
+        while(ref >= 0) ref = children[2 * ref + bit(key, branchBits[ref])];
+        return ~ref;
+    }
+
+    /**
+     * @return value of the key, or MISSING if the key is not in the trie
+     */
+    public int get(long key) {
+        if(root == EMPTY) return MISSING;
+        final int leaf = leafOf(key);
+        return keys[leaf] == key ? values[leaf] : MISSING;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Map the key to given value
+     * Running time O(bits)
+     *
+     * @return previous value of the key, or MISSING if the key was not in the trie
+     */
+    public int put(long key, int value) {
+        validateKey(key);
+        if(value < 0) throw new IllegalArgumentException("Negative value");
+        if(root == EMPTY) {
+            root = ~newLeaf(key, value);
+            return MISSING;
+        }
+        final int closest = leafOf(key);
+        if(keys[closest] == key) {
+            int previous = values[closest];
+            values[closest] = value;
+            return previous;
+        }
+
+        // the new node goes above the first node branching after the new key parts from the closest key
+        final int branch = branchBit(keys[closest], key);
+        int parent = -1, ref = root;
+        while(ref >= 0 && branchBits[ref] < branch) {
+            counts[ref]++;
+            parent = ref;
+            ref = children[2 * ref + bit(key, branchBits[ref])];
+        }
+        final int node = newNode(branch);
+        final int leaf = newLeaf(key, value);
+        final int side = bit(key, branch);
+        children[2 * node + side] = ~leaf;
+        children[2 * node + 1 - side] = ref;
+        counts[node] = count(ref) + 1;
+        if(parent < 0) root = node;
+        else children[2 * parent + bit(key, branchBits[parent])] = node;
+        assert checkRep();
+        return MISSING;
+    }
+
+    /**
+     * Number of keys whose first length bits are the given prefix
+     * Running time O(length)
+     */
+    public int countWithPrefix(long prefix, int length) {
+        if(length < 0 || length > bits) throw new IllegalArgumentException("Invalid prefix length");
+        if(length == 0) return size;
+        if(length < 64 && prefix >>> length != 0) throw new IllegalArgumentException("Prefix wider than " + length + " bits");
+        if(root == EMPTY) return 0;
+        final long key = length == bits ? prefix : prefix << (bits - length);
+        int ref = root;
+        while(ref >= 0 && branchBits[ref] < length) ref = children[2 * ref + bit(key, branchBits[ref])];
+        // every leaf below shares the bits before length, check one
+        int leaf = ref;
+        while(leaf >= 0) leaf = children[2 * leaf];
+        return branchBit(keys[~leaf], key) >= length ? count(ref) : 0;
+    }
+
+    /** Visitor of the entries of the trie */
+    public interface EntryVisitor {
+        void visit(long key, int value);
+    }
+
+    /**
+     * Visit every entry by increasing unsigned key
+     */
+    public void forEach(EntryVisitor visitor) {
+        if(root == EMPTY) return;
+        int[] stack = new int[bits + 1];
+        int top = 0;
+        stack[top++] = root;
+        while(top > 0) {
+            final int ref = stack[--top];
+            if(ref < 0) {
+                visitor.visit(keys[~ref], values[~ref]);
+                continue;
+            }
+            stack[top++] = children[2 * ref + 1];
+            stack[top++] = children[2 * ref];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    private boolean checkRep() {
+        return nodeNum == Math.max(0, size - 1) && (root == EMPTY) == (size == 0) && (size == 0 || count(root) == size);
+    }
+}
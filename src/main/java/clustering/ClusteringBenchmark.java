@@ -0,0 +1,253 @@
+package clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+
+import unionfind.UnionFind;
+
+/**
+ * Benchmarks of the Hamming distance clusterings, run with {@code main}.
+ * <ul>
+ *     <li>file: BinaryPathTree.solveProblem against HammingClustering, reading the same file
+ *     of random labels in the format of solveProblem and computing the number of clusters of spacing 3.
+ *     Reports time, bytes allocated by all threads and garbage collections.</li>
+ *     <li>parallel: HammingClustering on random labels generated in memory (1M - 10M),
+ *     sequential against fork join pools of 1, 2, 4 ... threads, for a given spacing</li>
+ *     <li>radius: HammingClustering of 64 bits fingerprints at radius 1 ... 8, searched in a
+ *     MultiIndexHashing, against the number of masks a search by enumeration would probe</li>
+ *     <li>kruskal: max spacing 4-clustering of a random graph, Kruskal over boxed edges sorted by a comparator
+ *     (as KMaxSpacingClustering.Graph used to) against KruskalClustering with radix sort and parallel sort,
+ *     and the dendrogram. Every round sorts the edges again.</li>
+ * </ul>
+ */
+public class ClusteringBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Clustering {
+        int clusterNum(String filePath) throws Exception;
+    }
+
+    /** Bytes allocated by the live threads, solveProblem also runs in the common pool */
+    private static long allocatedBytes() {
+        long bytes = 0;
+        for (long allocated : THREAD_BEAN.getThreadAllocatedBytes(THREAD_BEAN.getAllThreadIds()))
+            bytes += Math.max(0, allocated);
+        return bytes;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    private static void run(String name, Clustering clustering, String filePath, int rounds) throws Exception {
+        int check = clustering.clusterNum(filePath);  // warm up
+        long bytes = allocatedBytes();
+        long count = gcCount();
+        long time = System.nanoTime();
+        for (int r = 0; r < rounds; r++) check = clustering.clusterNum(filePath);
+        time = System.nanoTime() - time;
+        System.out.printf("  %-28s %9.1f ms %10.1f MB allocated %5d GCs  [%d]%n",
+                name, time / 1e6 / rounds, (allocatedBytes() - bytes) / 1048576.0 / rounds, gcCount() - count, check);
+    }
+
+    /** solveProblem, without its report on the standard output */
+    private static int solveQuietly(String filePath) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+        try {
+            return BinaryPathTree.solveProblem(filePath);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /** Write n random labels of given bits in the format of solveProblem */
+    private static File randomLabels(int n, int bits) throws IOException {
+        File file = File.createTempFile("hamming", ".txt");
+        file.deleteOnExit();
+        Random ran = new Random(n);
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println(n + " " + bits);
+            StringBuilder line = new StringBuilder(2 * bits);
+            for (int i = 0; i < n; i++) {
+                line.setLength(0);
+                for (int b = 0; b < bits; b++) line.append(ran.nextBoolean() ? '1' : '0').append(' ');
+                out.println(line);
+            }
+        }
+        return file;
+    }
+
+    public static void compareFile(int n, int bits, int rounds) throws Exception {
+        final String filePath = randomLabels(n, bits).getPath();
+        System.out.printf("%,d random labels of %d bits, spacing 3%n", n, bits);
+        run("BinaryPathTree.solveProblem", ClusteringBenchmark::solveQuietly, filePath, rounds);
+        run("HammingClustering", path -> HammingClustering.read(path).clusterNum(3), filePath, rounds);
+    }
+
+    public static void parallel(int n, int bits, int spacing, int maxThreads) {
+        Random ran = new Random(n);
+        long[] labels = new long[n];
+        final long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        for (int i = 0; i < n; i++) labels[i] = ran.nextLong() & mask;
+        long time = System.nanoTime();
+        HammingClustering clustering = new HammingClustering(labels, bits);
+        System.out.printf("%,d random labels of %d bits (%,d distinct, indexed in %.1f ms), spacing %d, %d cores%n",
+                n, bits, clustering.distinctLabelNum(), (System.nanoTime() - time) / 1e6, spacing,
+                Runtime.getRuntime().availableProcessors());
+
+        for (int threads = 0; threads <= maxThreads; threads = Math.max(1, 2 * threads)) {
+            ForkJoinPool pool = threads == 0 ? null : new ForkJoinPool(threads);
+            int check = 0;
+            long best = Long.MAX_VALUE;
+            for (int r = -1; r < 3; r++) {
+                time = System.nanoTime();
+                check = pool == null ? clustering.clusterNum(spacing) : clustering.clusterNum(spacing, pool);
+                // first round is warm up
+                if (r >= 0) best = Math.min(best, System.nanoTime() - time);
+            }
+            if (pool != null) pool.shutdown();
+            System.out.printf("  %-24s %9.1f ms  [%d]%n",
+                    pool == null ? "sequential" : "fork join " + threads + " threads", best / 1e6, check);
+        }
+    }
+
+    /**
+     * n fingerprints of n / 10 random documents, each one with up to 4 random bits flipped,
+     * clustered at every radius up to maxRadius
+     */
+    public static void radius(int n, int maxRadius) {
+        Random ran = new Random(n);
+        long[] documents = ran.longs(Math.max(1, n / 10)).toArray();
+        long[] labels = new long[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = documents[ran.nextInt(documents.length)];
+            for (int flips = ran.nextInt(5); flips > 0; flips--) labels[i] ^= 1L << ran.nextInt(64);
+        }
+        HammingClustering clustering = new HammingClustering(labels, 64);
+        System.out.printf("%,d fingerprints of 64 bits, %,d documents%n", n, documents.length);
+        for (int r = 1; r <= maxRadius; r++) {
+            long time = System.nanoTime();
+            int clusters = clustering.clusterNum(r + 1);
+            System.out.printf("  radius %d %9.1f ms  (%,d masks)  [%d]%n", r, (System.nanoTime() - time) / 1e6,
+                    HammingClustering.maskCount(64, r), clusters);
+        }
+    }
+
+    private static final class BoxedEdge {
+        final int a, b, cost;
+
+        BoxedEdge(int a, int b, int cost) {
+            this.a = a;
+            this.b = b;
+            this.cost = cost;
+        }
+    }
+
+    /** Kruskal as KMaxSpacingClustering.Graph ran it before KruskalClustering */
+    private static int boxedKruskal(int n, List<BoxedEdge> edges, int k) {
+        List<BoxedEdge> sorted = new ArrayList<>(edges);
+        sorted.sort(Comparator.comparingInt(edge -> edge.cost));
+        UnionFind uf = new UnionFind(n);
+        int num = n, i = 0;
+        for (; i < sorted.size() && num > k; i++) {
+            BoxedEdge edge = sorted.get(i);
+            if (!uf.isConnected(edge.a, edge.b)) {
+                uf.union(edge.a, edge.b);
+                num--;
+            }
+        }
+        for (; i < sorted.size(); i++) {
+            BoxedEdge edge = sorted.get(i);
+            if (!uf.isConnected(edge.a, edge.b)) return edge.cost;
+        }
+        return -1;
+    }
+
+    private static void best(String name, IntSupplier run, int rounds) {
+        int check = run.getAsInt();  // warm up
+        long bytes = allocatedBytes();
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < rounds; r++) {
+            long time = System.nanoTime();
+            check = run.getAsInt();
+            best = Math.min(best, System.nanoTime() - time);
+        }
+        System.out.printf("  %-28s %9.1f ms %10.1f MB allocated  [%d]%n",
+                name, best / 1e6, (allocatedBytes() - bytes) / 1048576.0 / rounds, check);
+    }
+
+    public static void kruskal(int n, int m, int rounds) {
+        Random ran = new Random(m);
+        int[] src = new int[m], dst = new int[m], cost = new int[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = ran.nextInt(n);
+            dst[e] = ran.nextInt(n);
+            cost[e] = ran.nextInt(1 << 20);
+        }
+        System.out.printf("%,d nodes, %,d random edges, k = 4, %d cores%n", n, m, Runtime.getRuntime().availableProcessors());
+        List<BoxedEdge> edges = new ArrayList<>(m);
+        for (int e = 0; e < m; e++) edges.add(new BoxedEdge(src[e], dst[e], cost[e]));
+        best("boxed edges + comparator", () -> boxedKruskal(n, edges, 4), rounds);
+        edges.clear();
+        best("KruskalClustering radix", () -> new KruskalClustering(n, src, dst, cost).maxSpacing(4), rounds);
+        best("KruskalClustering parallel", () -> {
+            KruskalClustering kruskal = new KruskalClustering(n, src, dst, cost);
+            kruskal.sortEdges(true);
+            return kruskal.maxSpacing(4);
+        }, rounds);
+        best("dendrogram", () -> new KruskalClustering(n, src, dst, cost).dendrogram().spacing(4), rounds);
+    }
+
+    /**
+     * Usage: ClusteringBenchmark [file [labels [bits [rounds]]] | parallel [labels [bits [spacing [threads]]]]
+     *                            | radius [labels [radius]] | kruskal [nodes [edges [rounds]]]]
+     */
+    public static void main(String[] args) throws Exception {
+        String benchmark = args.length > 0 ? args[0] : "file";
+        switch (benchmark) {
+            case "file":
+                compareFile(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 200_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 24,
+                        args.length > 3 ? Integer.parseInt(args[3]) : 3);
+                break;
+            case "parallel":
+                parallel(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 1_000_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 32,
+                        args.length > 3 ? Integer.parseInt(args[3]) : 3,
+                        args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors());
+                break;
+            case "radius":
+                radius(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 1_000_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 8);
+                break;
+            case "kruskal":
+                kruskal(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 1_000_000,
+                        args.length > 2 ? Integer.parseInt(args[2].replace("_", "")) : 10_000_000,
+                        args.length > 3 ? Integer.parseInt(args[3]) : 3);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark " + benchmark);
+        }
+    }
+}
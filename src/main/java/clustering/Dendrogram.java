@@ -0,0 +1,114 @@
+package clustering;
+
+import unionfind.PackedUnionFind;
+
+import java.util.Arrays;
+
+/**
+ * Single linkage dendrogram: the merges of a Kruskal run, in the layout of SciPy's linkage matrix.
+ * <p>
+ * Leaves are the clusters 0 ... n-1, merge i joins the clusters left(i) and right(i) at height(i)
+ * into the cluster n + i of size(i) leaves. Heights never decrease. A disconnected graph has fewer
+ * than n - 1 merges, its dendrogram is a forest.
+ */
+public class Dendrogram {
+    private final int leafNum;
+    private final int[] left;
+    private final int[] right;
+    private final int[] heights;
+    private final int[] sizes;
+
+    // RI:  left[i], right[i] < leafNum + i, every cluster is merged at most once
+    //      heights[i] <= heights[i+1], sizes[i] is the sum of the sizes of left[i] and right[i]
+
+    Dendrogram(int leafNum, int[] left, int[] right, int[] heights, int[] sizes) {
+        this.leafNum = leafNum;
+        this.left = left;
+        this.right = right;
+        this.heights = heights;
+        this.sizes = sizes;
+        assert checkRep();
+    }
+
+    public int leafNum() {
+        return leafNum;
+    }
+
+    public int mergeCount() {
+        return left.length;
+    }
+
+    /** Number of clusters once every merge is done, 1 for a connected graph */
+    public int rootCount() {
+        return leafNum - left.length;
+    }
+
+    public int left(int merge) {
+        return left[merge];
+    }
+
+    public int right(int merge) {
+        return right[merge];
+    }
+
+    public int height(int merge) {
+        return heights[merge];
+    }
+
+    public int size(int merge) {
+        return sizes[merge];
+    }
+
+    private void validateClusterNum(int clusterNum) {
+        if(clusterNum < rootCount() || clusterNum > leafNum || clusterNum < 1)
+            throw new IllegalArgumentException("Invalid number of clusters");
+    }
+
+    /**
+     * Spacing of the max spacing k-clustering: the height of the merge that would leave k - 1 clusters
+     *
+     * @throws UnsupportedOperationException if no merge leaves k - 1 clusters
+     */
+    public int spacing(int clusterNum) {
+        validateClusterNum(clusterNum);
+        final int merge = leafNum - clusterNum;
+        if(merge >= left.length) throw new UnsupportedOperationException("Disconnected graph");
+        return heights[merge];
+    }
+
+    /**
+     * Cluster of every leaf in the max spacing k-clustering, the clusters numbered 0 ... k-1
+     * in the order of their smallest leaf
+     */
+    public int[] cut(int clusterNum) {
+        validateClusterNum(clusterNum);
+        final int mergeNum = leafNum - clusterNum;
+        // a leaf of every cluster formed, to replay the merges on leaves
+        int[] leafOf = new int[mergeNum];
+        PackedUnionFind uf = new PackedUnionFind(leafNum);
+        for(int i = 0; i < mergeNum; i++) {
+            int a = left[i] < leafNum ? left[i] : leafOf[left[i] - leafNum];
+            int b = right[i] < leafNum ? right[i] : leafOf[right[i] - leafNum];
+            uf.union(a, b);
+            leafOf[i] = a;
+        }
+        int[] labels = new int[leafNum];
+        int[] labelOfRoot = new int[leafNum];
+        Arrays.fill(labelOfRoot, -1);
+        int labelNum = 0;
+        for(int leaf = 0; leaf < leafNum; leaf++) {
+            int root = uf.find(leaf);
+            if(labelOfRoot[root] < 0) labelOfRoot[root] = labelNum++;
+            labels[leaf] = labelOfRoot[root];
+        }
+        return labels;
+    }
+
+    private boolean checkRep() {
+        for(int i = 0; i < left.length; i++) {
+            if(left[i] >= leafNum + i || right[i] >= leafNum + i || left[i] == right[i]) return false;
+            if(i > 0 && heights[i - 1] > heights[i]) return false;
+        }
+        return left.length < leafNum || leafNum == 0;
+    }
+}
@@ -0,0 +1,273 @@
+package clustering;
+
+import unionfind.ConcurrentUnionFind;
+import unionfind.DisjointSet;
+import unionfind.PackedUnionFind;
+import util.FastLoader;
+import util.LongIntHashMap;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Clustering of nodes labelled by bit strings, at Hamming distance, as in
+ * {@link BinaryPathTree#solveProblem(String)} without trie.
+ * <p>
+ * Labels are packed in a {@code long} (up to 64 bits) and the distinct labels are indexed
+ * in a {@link LongIntHashMap}. The labels at distance at most r of a label are the label
+ * XOR each of the precomputed masks of 1 ... r set bits, every one is a single lookup,
+ * and every pair found is united in a {@link PackedUnionFind} over the distinct labels.
+ * Most lookups miss, so when bits is at most {@link #DIRECT_ADDRESS_BITS} a direct addressed
+ * bitmap of the labels present (2^bits bits) rejects them before the hash map.
+ * The lookups of different labels are independent, so they also run over a fork join pool.
+ * Wide labels, sparse in their space, and large radii (beyond radius 2 of 64 bits the masks explode)
+ * search the labels within the radius in a {@link MultiIndexHashing} instead.
+ */
+public class HammingClustering {
+    /** Largest label width with a direct addressed bitmap, of 2^27 bits (16 MB) */
+    public static final int DIRECT_ADDRESS_BITS = 27;
+    /** Largest number of masks enumerated, larger radii always search a {@link MultiIndexHashing} */
+    public static final int MAX_MASKS = 4096;
+    private static final int MISSING = -1;
+
+    private final int bits;
+    private final int nodeNum;
+    private final long[] distinct;          // distinct labels, in order of first appearance
+    private final LongIntHashMap indices;   // label -> index in distinct
+    private final long[] present;           // bitmap of the labels, null if too wide
+
+    /**
+     * @param labels label of every node, only the lower given number of bits are used
+     */
+    public HammingClustering(long[] labels, int bits) {
+        if(bits < 1 || bits > 64) throw new IllegalArgumentException("Invalid number of bits");
+        this.bits = bits;
+        this.nodeNum = labels.length;
+        final long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        long[] distinct = new long[labels.length];
+        int distinctNum = 0;
+        this.indices = new LongIntHashMap(labels.length, MISSING);
+        this.present = bits <= DIRECT_ADDRESS_BITS ? new long[((1 << bits) + 63) >>> 6] : null;
+        for(long label : labels) {
+            label &= mask;
+            if(indices.putIfAbsent(label, distinctNum) == distinctNum) {
+                distinct[distinctNum++] = label;
+                if(present != null) present[(int) (label >>> 6)] |= 1L << label;
+            }
+        }
+        this.distinct = Arrays.copyOf(distinct, distinctNum);
+    }
+
+    /**
+     * Read the format of {@link BinaryPathTree#solveProblem(String)}: a line "[# of nodes] [# of bits]",
+     * then a line of space separated bits per node, most significant first
+     */
+    public static HammingClustering read(String filePath) throws IOException {
+        FastLoader.Table in = FastLoader.readTable(filePath);
+        final int nodeNum = in.get(0, 0);
+        final int bits = in.get(0, 1);
+        final long[] labels = in.bitRows(1, bits);
+        if(labels.length != nodeNum) throw new IllegalArgumentException("Expected " + nodeNum + " nodes, read " + labels.length);
+        return new HammingClustering(labels, bits);
+    }
+
+    public int nodeNum() {
+        return nodeNum;
+    }
+
+    public int distinctLabelNum() {
+        return distinct.length;
+    }
+
+    /** Index of the label in distinct, or MISSING */
+    private int indexOf(long label) {
+        if(present != null && (present[(int) (label >>> 6)] & 1L << label) == 0) return MISSING;
+        return indices.get(label);
+    }
+
+    /** Number of masks of the given number of bits with 1 ... maxWeight bits set, saturated at Long.MAX_VALUE */
+    static long maskCount(int bits, int maxWeight) {
+        long total = 0, binomial = 1;
+        for(int w = 1; w <= maxWeight; w++) {
+            // C(bits, w) = C(bits, w-1) * (bits-w+1) / w, exact, by at most 64 bits
+            if(binomial > Long.MAX_VALUE / 64) return Long.MAX_VALUE;
+            binomial = binomial * (bits - w + 1) / w;
+            if(total > Long.MAX_VALUE - binomial) return Long.MAX_VALUE;
+            total += binomial;
+        }
+        return total;
+    }
+
+    /**
+     * Every mask of the given number of bits with 1 ... maxWeight bits set,
+     * by increasing weight
+     */
+    static long[] masks(int bits, int maxWeight) {
+        final long total = maskCount(bits, maxWeight);
+        if(total > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many masks");
+        long[] res = new long[(int) total];
+        int[] count = {0};
+        for(int w = 1; w <= maxWeight; w++) addMasks(res, count, 0L, 0, bits, w);
+        return res;
+    }
+
+    /** Masks of given weight using bits [from, bits) on top of prefix */
+    private static void addMasks(long[] res, int[] count, long prefix, int from, int bits, int weight) {
+        if(weight == 0) {
+            res[count[0]++] = prefix;
+            return;
+        }
+        for(int b = from; b <= bits - weight; b++) addMasks(res, count, prefix | 1L << b, b + 1, bits, weight - 1);
+    }
+
+    /**
+     * Search of the labels within a radius: the XOR of every mask, or a {@link MultiIndexHashing}
+     * of the distinct labels, whichever probes fewer labels for labels spread uniformly
+     */
+    private Search search(int radius) {
+        final long maskNum = maskCount(bits, radius);
+        // a mask is a probe of the bitmap, or of the hash map without bitmap
+        final double maskCost = maskNum * (present != null ? 0.25 : 1.0);
+        // a multi-index query probes radius + 1 tables, whose groups have a few labels each
+        final double multiIndexCost = (radius + 1) * (1 + distinct.length / Math.pow(2, bits / (radius + 1)));
+        return maskNum <= MAX_MASKS && maskCost <= multiIndexCost ? new Search(masks(bits, radius), null, radius)
+                : new Search(null, new MultiIndexHashing(distinct, bits, radius), radius);
+    }
+
+    private static class Search {
+        final long[] masks;
+        final MultiIndexHashing index;
+        final int radius;
+
+        Search(long[] masks, MultiIndexHashing index, int radius) {
+            this.masks = masks;
+            this.index = index;
+            this.radius = radius;
+        }
+    }
+
+    /**
+     * Largest k such that there is a k-clustering with spacing at least given spacing,
+     * that is the number of clusters when every pair of nodes at distance below the spacing is united.
+     * Running time O(n * C(bits, 1 ... spacing-1)) lookups, or a multi-index search for large radii.
+     */
+    public int clusterNum(int spacing) {
+        final int radius = radius(spacing);
+        // every pair of labels is within a radius of all the bits
+        if(radius >= bits) return Math.min(1, distinct.length);
+        // nodes of equal label are at distance 0, they start in the cluster of their label
+        PackedUnionFind uf = new PackedUnionFind(distinct.length);
+        unite(uf, search(radius), 0, distinct.length);
+        return uf.getComponentCount();
+    }
+
+    /**
+     * clusterNum with the labels split in ranges over the threads of given pool,
+     * every range unites the pairs it finds right away in a shared {@link ConcurrentUnionFind}
+     */
+    public int clusterNum(int spacing, ForkJoinPool pool) {
+        final int radius = radius(spacing);
+        if(radius >= bits) return Math.min(1, distinct.length);
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(distinct.length);
+        // a few ranges per thread to balance the load, large enough to amortize the tasks
+        final int grain = Math.max(1024, distinct.length / (8 * pool.getParallelism()));
+        pool.invoke(new UniteTask(uf, search(radius), 0, distinct.length, grain));
+        return uf.getComponentCount();
+    }
+
+    private static int radius(int spacing) {
+        if(spacing < 1) throw new IllegalArgumentException("Invalid spacing");
+        return spacing - 1;
+    }
+
+    /** Unite the labels [from, to) with the labels within the radius of the search */
+    private void unite(DisjointSet uf, Search search, int from, int to) {
+        for(int i = from; i < to; i++) {
+            final long label = distinct[i];
+            final int node = i;
+            if(search.masks == null) {
+                search.index.forEachWithin(label, search.radius, friend -> {
+                    if(friend > node) uf.union(node, friend);
+                });
+                continue;
+            }
+            for(long mask : search.masks) {
+                int friend = indexOf(label ^ mask);
+                // every pair is seen from both ends, once is enough
+                if(friend > i) uf.union(i, friend);
+            }
+        }
+    }
+
+    private class UniteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DisjointSet uf;
+        private final Search search;
+        private final int from, to, grain;
+
+        UniteTask(DisjointSet uf, Search search, int from, int to, int grain) {
+            this.uf = uf;
+            this.search = search;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain) {
+                unite(uf, search, from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new UniteTask(uf, search, from, mid, grain), new UniteTask(uf, search, mid, to, grain));
+        }
+    }
+
+    /**
+     * Spacing of a max spacing k-clustering: Kruskal over the pairs of labels by increasing distance,
+     * the pairs within maxRadius are found by a single search per label and bucketed by distance.
+     *
+     * @return the smallest distance d such that uniting every pair at distance at most d
+     * leaves fewer than k clusters, or maxRadius + 1 if the spacing is larger than maxRadius
+     */
+    public int maxSpacing(int clusterNum, int maxRadius) {
+        if(clusterNum < 2 || clusterNum > nodeNum) throw new IllegalArgumentException("Invalid number of clusters");
+        if(maxRadius < 0) throw new IllegalArgumentException("Invalid radius");
+        // nodes of equal label split in different clusters
+        if(distinct.length < clusterNum) return 0;
+        final int radius = Math.min(maxRadius, bits - 1);
+
+        // pairs i < j packed as i << 32 | j, by distance
+        final long[][] pairs = new long[radius + 1][16];
+        final int[] pairNum = new int[radius + 1];
+        final Search search = search(radius);
+        for(int i = 0; i < distinct.length; i++) {
+            final long label = distinct[i];
+            final int node = i;
+            IntConsumer collect = friend -> {
+                if(friend <= node) return;
+                int d = Long.bitCount(label ^ distinct[friend]);
+                if(pairNum[d] == pairs[d].length) pairs[d] = Arrays.copyOf(pairs[d], 2 * pairNum[d]);
+                pairs[d][pairNum[d]++] = (long) node << 32 | friend;
+            };
+            if(search.masks == null) search.index.forEachWithin(label, radius, collect);
+            else for(long mask : search.masks) {
+                int friend = indexOf(label ^ mask);
+                if(friend >= 0) collect.accept(friend);
+            }
+        }
+
+        PackedUnionFind uf = new PackedUnionFind(distinct.length);
+        for(int d = 1; d <= radius; d++) {
+            for(int p = 0; p < pairNum[d]; p++) uf.union((int) (pairs[d][p] >>> 32), (int) pairs[d][p]);
+            if(uf.getComponentCount() < clusterNum) return d;
+        }
+        // uniting the pairs at distance bits, every pair of labels, leaves a single cluster
+        return maxRadius >= bits ? bits : maxRadius + 1;
+    }
+}
@@ -1,8 +1,14 @@
 package clustering;
 
-import unionfind.UnionFind;
+import unionfind.ComponentUnionFind;
+import unionfind.ConcurrentUnionFind;
+import unionfind.KeyedUnionFind;
+import unionfind.OfflineDynamicConnectivity;
+import util.FastLoader;
 
+import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.*;
 
 public class KMaxSpacingClustering<T> {
@@ -77,48 +83,159 @@ public class KMaxSpacingClustering<T> {
             if(! nodes.containsKey(node)) nodes.put(node, new Node<>(node, currentId++));
         }
 
-        public void addEdge(T a, T b, int cost) {
+        public Edge<T> addEdge(T a, T b, int cost) {
             if(!nodes.containsKey(a) || !nodes.containsKey(b))
                 throw new IllegalArgumentException();
-            edges.add(new Edge<>(nodes.get(a), nodes.get(b), cost));
+            Edge<T> edge = new Edge<>(nodes.get(a), nodes.get(b), cost);
+            edges.add(edge);
+            return edge;
+        }
+
+        /** Kruskal engine over the edges, nodes by id */
+        private KruskalClustering kruskal() {
+            final int m = edges.size();
+            int[] src = new int[m], dst = new int[m], cost = new int[m];
+            for(int e = 0; e < m; e++) {
+                Edge<T> edge = edges.get(e);
+                src[e] = edge.a.id;
+                dst[e] = edge.b.id;
+                cost[e] = edge.cost;
+            }
+            return new KruskalClustering(nodes.size(), src, dst, cost);
         }
 
         public int maxSpacingKCluster(final int clusterNum) {
-            UnionFind uf = new UnionFind(nodes.size());
-            int num = nodes.size();
-            Collections.sort(edges, Comparator.comparingInt(i -> i.cost));
-            Iterator<Edge<T>> iterator = edges.iterator();
-            while(iterator.hasNext()) {
-                Edge<T> edge = iterator.next();
-                if(!uf.isConnected(edge.a.id, edge.b.id)) {
-                    uf.union(edge.a.id, edge.b.id);
-                    if(--num == clusterNum) break;
-                }
+            return kruskal().maxSpacing(clusterNum);
+        }
+
+        /**
+         * Single linkage dendrogram of the graph, whose leaves are the node ids (in order of addNode)
+         */
+        public Dendrogram dendrogram() {
+            return kruskal().dendrogram();
+        }
+
+        /**
+         * Members of the clusters of a max spacing k-clustering, one list per cluster.
+         * The clusters are read from a {@link ComponentUnionFind}, in O(n) overall
+         * instead of a find per node.
+         */
+        public List<List<T>> clusters(final int clusterNum) {
+            if(clusterNum < 1 || clusterNum > nodes.size()) throw new IllegalArgumentException("Invalid number of clusters");
+            ComponentUnionFind<Void> uf = new ComponentUnionFind<>(nodes.size());
+            // the edge order of maxSpacingKCluster and dendrogram, the edge list is left as is
+            for(int e : kruskal().order()) {
+                if(uf.getComponentCount() == clusterNum) break;
+                Edge<T> edge = edges.get(e);
+                uf.union(edge.a.id, edge.b.id);
             }
 
-            while(iterator.hasNext()) {
-                Edge<T> edge = iterator.next();
-                if(!uf.isConnected(edge.a.id, edge.b.id)) {
-                    return edge.cost;
-                }
+            List<T> values = new ArrayList<>(Collections.nCopies(nodes.size(), null));
+            for(Node<T> node : nodes.values()) values.set(node.id, node.val);
+            List<List<T>> res = new ArrayList<>(uf.getComponentCount());
+            uf.forEachComponent(root -> {
+                List<T> cluster = new ArrayList<>(uf.componentSize(root));
+                uf.forEachMember(root, id -> cluster.add(values.get(id)));
+                res.add(cluster);
+            });
+            return res;
+        }
+
+        /**
+         * Number of clusters when every pair of nodes closer than given spacing is in the same cluster,
+         * that is the largest k such that there is a k-clustering with spacing at least the given spacing.
+         * Unlike maxSpacingKCluster the edges need no ordering, so they are united from a parallel
+         * stream into a lock free union find.
+         */
+        public int clusterNumWithSpacing(final int spacing) {
+            ConcurrentUnionFind uf = new ConcurrentUnionFind(nodes.size());
+            edges.parallelStream()
+                    .filter(edge -> edge.cost < spacing)
+                    .forEach(edge -> uf.union(edge.a.id, edge.b.id));
+            return uf.getComponentCount();
+        }
+
+        /**
+         * clusterNumWithSpacing for several what-if scenarios, each one removing some edges of the graph.
+         * Instead of a rebuild of the clusters per scenario, the removed edges are cut and linked back
+         * around a query in an {@link OfflineDynamicConnectivity}, so all scenarios are answered in
+         * O((m + r) log q) unions for m edges, r removed edges in total and q scenarios.
+         *
+         * @param scenarios edges removed in every scenario, each edge at most once per scenario
+         * @return number of clusters of every scenario
+         */
+        public int[] clusterNumsWithSpacing(final int spacing, List<? extends Collection<Edge<T>>> scenarios) {
+            OfflineDynamicConnectivity connectivity = new OfflineDynamicConnectivity(nodes.size());
+            for(Edge<T> edge : edges)
+                if(edge.cost < spacing) connectivity.link(edge.a.id, edge.b.id);
+            for(Collection<Edge<T>> removed : scenarios) {
+                for(Edge<T> edge : removed)
+                    if(edge.cost < spacing) connectivity.cut(edge.a.id, edge.b.id);
+                connectivity.componentCountQuery();
+                for(Edge<T> edge : removed)
+                    if(edge.cost < spacing) connectivity.link(edge.a.id, edge.b.id);
             }
+            return connectivity.solve();
+        }
+    }
 
-            throw new UnsupportedOperationException("Disconnected graph");
+    /**
+     * Maximum spacing of a k-clustering of the graph stored in given file, read in a single pass:
+     * every line "a b cost" is an edge between nodes of arbitrary integer labels, and the nodes
+     * are the labels seen in edges, so no node count is needed (a line holding a single number,
+     * such as the node count header, is skipped).
+     * Labels get dense ids on the fly from a {@link KeyedUnionFind}, edges are kept in primitive arrays
+     * for a {@link KruskalClustering}.
+     */
+    public static int maxSpacingKCluster(String filePath, int clusterNum) throws IOException {
+        KeyedUnionFind uf = new KeyedUnionFind();
+        int[] from = new int[1024], to = new int[1024], costs = new int[1024];
+        int edgeNum = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                StringTokenizer tokens = new StringTokenizer(line);
+                if (tokens.countTokens() < 3) continue;
+                if (edgeNum == from.length) {
+                    from = Arrays.copyOf(from, 2 * edgeNum);
+                    to = Arrays.copyOf(to, 2 * edgeNum);
+                    costs = Arrays.copyOf(costs, 2 * edgeNum);
+                }
+                from[edgeNum] = uf.add(Long.parseLong(tokens.nextToken()));
+                to[edgeNum] = uf.add(Long.parseLong(tokens.nextToken()));
+                costs[edgeNum++] = Integer.parseInt(tokens.nextToken());
+            }
         }
+
+        if (uf.size() <= clusterNum) throw new IllegalArgumentException("Fewer nodes than clusters");
+        return new KruskalClustering(uf.size(), Arrays.copyOf(from, edgeNum), Arrays.copyOf(to, edgeNum),
+                Arrays.copyOf(costs, edgeNum)).maxSpacing(clusterNum);
     }
 
     public static void test1() throws Exception {
         Graph<Integer> min = new Graph<>();
-        Scanner in = new Scanner(new FileReader("./testData/graph/maxSpacingKClustering.txt"));
-        int nodeNum = Integer.valueOf(in.nextLine().trim());
+        FastLoader.Table in = FastLoader.readTable("./testData/graph/maxSpacingKClustering.txt");
+        int nodeNum = in.get(0, 0);
         for(int i = 1; i <= nodeNum; i ++) min.addNode(i);
 
-        while (in.hasNextLine()) {
-            String[] edge = in.nextLine().trim().split("\\s+");
-            System.out.println(Arrays.toString(edge));
-            min.addEdge(Integer.valueOf(edge[0]), Integer.valueOf(edge[1]), Integer.valueOf(edge[2]));
+        int[][] edges = in.columns(1, 3);
+        for(int e = 0; e < edges[0].length; e++) min.addEdge(edges[0][e], edges[1][e], edges[2][e]);
+        int spacing = min.maxSpacingKCluster(4);
+        System.out.println(spacing);
+        System.out.println(min.clusterNumWithSpacing(spacing));
+        System.out.println(maxSpacingKCluster("./testData/graph/maxSpacingKClustering.txt", 4));
+        for (List<Integer> cluster : min.clusters(4))
+            System.out.println(cluster.size() + " nodes, min " + Collections.min(cluster) + ", max " + Collections.max(cluster));
+
+        // what-if: the nodes 1 ... 10 lose all their edges, one node per scenario
+        List<List<Graph.Edge<Integer>>> scenarios = new ArrayList<>();
+        for (int node = 1; node <= 10; node++) {
+            List<Graph.Edge<Integer>> removed = new ArrayList<>();
+            for (Graph.Edge<Integer> edge : min.edges)
+                if (edge.a.val == node || edge.b.val == node) removed.add(edge);
+            scenarios.add(removed);
         }
-        System.out.println(min.maxSpacingKCluster(4));
+        System.out.println(Arrays.toString(min.clusterNumsWithSpacing(spacing, scenarios)));
     }
 
     public static void main(String[] args) throws Exception {
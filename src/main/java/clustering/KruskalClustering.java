@@ -0,0 +1,129 @@
+package clustering;
+
+import unionfind.PackedUnionFind;
+import util.RadixSort;
+
+import java.util.Arrays;
+
+/**
+ * Kruskal's algorithm over a graph of n nodes 0 ... n-1 stored as parallel edge arrays
+ * (src[e], dst[e], cost[e]), for max spacing clusterings of graphs of hundreds of millions of edges.
+ * <p>
+ * Edges are ordered once, as keys {@code (long) cost << 32 | e} sorted by {@link RadixSort} on their cost
+ * (or by {@link Arrays#parallelSort} on large graphs and several cores), and the order is kept for every
+ * query. Nodes are united in a {@link PackedUnionFind} with a single union per edge (no isConnected first),
+ * and Kruskal stops as soon as k clusters remain.
+ */
+public class KruskalClustering {
+    /** Edges sorted by parallelSort from this number on, if there are several cores */
+    private static final int PARALLEL_THRESHOLD = 1 << 22;
+
+    private final int nodeNum;
+    private final int[] src;
+    private final int[] dst;
+    private final int[] cost;
+    private int[] order;  // edges by increasing cost, ties by index, sorted on first use
+
+    /**
+     * The arrays are used as they are, not copied
+     */
+    public KruskalClustering(int nodeNum, int[] src, int[] dst, int[] cost) {
+        if(nodeNum < 0) throw new IllegalArgumentException("Invalid number of nodes");
+        if(src.length != dst.length || src.length != cost.length) throw new IllegalArgumentException("Edge arrays of different lengths");
+        for(int e = 0; e < src.length; e++)
+            if(src[e] < 0 || src[e] >= nodeNum || dst[e] < 0 || dst[e] >= nodeNum)
+                throw new IllegalArgumentException("Invalid node in edge " + e);
+        this.nodeNum = nodeNum;
+        this.src = src;
+        this.dst = dst;
+        this.cost = cost;
+    }
+
+    public int nodeNum() {
+        return nodeNum;
+    }
+
+    public int edgeNum() {
+        return src.length;
+    }
+
+    /** Edge indices by increasing cost, ties by index, sorted on first use */
+    int[] order() {
+        if(order == null) sortEdges(src.length >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1);
+        return order;
+    }
+
+    /** Sort the edge indices by increasing cost, ties by index, and keep them for the queries */
+    int[] sortEdges(boolean parallel) {
+        final int m = cost.length;
+        long[] keys = new long[m];
+        for(int e = 0; e < m; e++) keys[e] = (long) cost[e] << 32 | e;
+        // the indices are distinct, a full sort orders the ties by index as the stable radix sort does
+        if(parallel) Arrays.parallelSort(keys);
+        else RadixSort.sort(keys, 32);
+        order = new int[m];
+        for(int i = 0; i < m; i++) order[i] = (int) keys[i];
+        return order;
+    }
+
+    /**
+     * Maximum spacing of a k-clustering: the cost of the cheapest edge between two clusters once Kruskal
+     * has left k clusters. Kruskal stops there, the following edges are only checked with finds.
+     *
+     * @throws UnsupportedOperationException if the graph has no edge between two of the k clusters
+     */
+    public int maxSpacing(int clusterNum) {
+        if(clusterNum < 1 || clusterNum > nodeNum) throw new IllegalArgumentException("Invalid number of clusters");
+        final int[] order = order();
+        PackedUnionFind uf = new PackedUnionFind(nodeNum);
+        int i = 0;
+        while(i < order.length && uf.getComponentCount() > clusterNum) {
+            final int e = order[i++];
+            uf.union(src[e], dst[e]);
+        }
+        for(; i < order.length; i++) {
+            final int e = order[i];
+            if(uf.find(src[e]) != uf.find(dst[e])) return cost[e];
+        }
+        throw new UnsupportedOperationException("Disconnected graph");
+    }
+
+    /**
+     * Single linkage dendrogram of the graph: every merge of a full Kruskal run, stopped once
+     * n - 1 merges are done
+     */
+    public Dendrogram dendrogram() {
+        final int[] order = order();
+        final int maxMerges = Math.max(0, nodeNum - 1);
+        int[] left = new int[maxMerges], right = new int[maxMerges], heights = new int[maxMerges], sizes = new int[maxMerges];
+        // cluster of every root, leaves are clusters 0 ... n-1 and merge i forms cluster n + i
+        int[] clusterOf = new int[nodeNum];
+        for(int v = 0; v < nodeNum; v++) clusterOf[v] = v;
+        int[] sizeOf = new int[nodeNum];
+        Arrays.fill(sizeOf, 1);
+        PackedUnionFind uf = new PackedUnionFind(nodeNum);
+        int merges = 0;
+        for(int i = 0; i < order.length && merges < maxMerges; i++) {
+            final int e = order[i];
+            // the roots are needed to name the clusters, the union of two roots finds them in O(1)
+            final int a = uf.find(src[e]), b = uf.find(dst[e]);
+            if(a == b) continue;
+            uf.union(a, b);
+            final int root = uf.find(a);
+            left[merges] = clusterOf[a];
+            right[merges] = clusterOf[b];
+            heights[merges] = cost[e];
+            sizes[merges] = sizeOf[a] + sizeOf[b];
+            clusterOf[root] = nodeNum + merges;
+            sizeOf[root] = sizes[merges];
+            merges++;
+        }
+        if(merges < maxMerges) {
+            left = Arrays.copyOf(left, merges);
+            right = Arrays.copyOf(right, merges);
+            heights = Arrays.copyOf(heights, merges);
+            sizes = Arrays.copyOf(sizes, merges);
+        }
+        return new Dendrogram(nodeNum, left, right, heights, sizes);
+    }
+}
@@ -0,0 +1,117 @@
+package clustering;
+
+import util.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Labels within a Hamming radius of a query label, without enumerating the
+ * C(bits, 1 ... r) labels around the query (after Norouzi et al., "Fast Search in Hamming Space
+ * with Multi-Index Hashing").
+ * <p>
+ * Every label is split in maxRadius + 1 substrings of consecutive bits, and every substring
+ * position has its own hash table from substring to the labels having it. Two labels at
+ * distance at most r <= maxRadius differ in at most r substrings, so by the pigeonhole principle
+ * they share at least one: the candidates of a query are the labels sharing one of its substrings,
+ * checked with {@link Long#bitCount}. A label sharing several substrings is reported only from the first.
+ * <p>
+ * The tables are grouped like a CSR graph: every distinct substring is a group,
+ * the labels of group g are ids[start[g] ... start[g+1]).
+ */
+public class MultiIndexHashing {
+    private static final int MISSING = -1;
+
+    private final long[] labels;
+    private final int maxRadius;
+    private final long[] partMasks;         // bits of every substring
+    private final LongIntHashMap[] groups;  // substring -> group, per substring position
+    private final int[][] starts;
+    private final int[][] ids;
+
+    /**
+     * @param labels    labels to search, of the given number of bits
+     * @param maxRadius largest radius of the queries
+     */
+    public MultiIndexHashing(long[] labels, int bits, int maxRadius) {
+        if(bits < 1 || bits > 64) throw new IllegalArgumentException("Invalid number of bits");
+        if(maxRadius < 0 || maxRadius >= bits) throw new IllegalArgumentException("Invalid radius");
+        this.labels = labels;
+        this.maxRadius = maxRadius;
+        final int partNum = maxRadius + 1;
+        this.partMasks = new long[partNum];
+        for(int t = 0; t < partNum; t++) {
+            int from = (int) ((long) bits * t / partNum), to = (int) ((long) bits * (t + 1) / partNum);
+            partMasks[t] = (to == 64 ? -1L : (1L << to) - 1) & -(1L << from);
+        }
+
+        this.groups = new LongIntHashMap[partNum];
+        this.starts = new int[partNum][];
+        this.ids = new int[partNum][];
+        final int[] groupOf = new int[labels.length];
+        for(int t = 0; t < partNum; t++) {
+            LongIntHashMap map = new LongIntHashMap(labels.length, MISSING);
+            int[] count = new int[labels.length + 1];
+            int groupNum = 0;
+            for(int i = 0; i < labels.length; i++) {
+                int group = map.putIfAbsent(labels[i] & partMasks[t], groupNum);
+                if(group == groupNum) groupNum++;
+                groupOf[i] = group;
+                count[group + 1]++;
+            }
+            int[] start = Arrays.copyOf(count, groupNum + 1);
+            for(int g = 1; g <= groupNum; g++) start[g] += start[g - 1];
+            int[] next = Arrays.copyOf(start, groupNum);
+            int[] members = new int[labels.length];
+            for(int i = 0; i < labels.length; i++) members[next[groupOf[i]]++] = i;
+            groups[t] = map;
+            starts[t] = start;
+            ids[t] = members;
+        }
+    }
+
+    public int maxRadius() {
+        return maxRadius;
+    }
+
+    /**
+     * Visit the index of every label at distance at most r of given label, once each
+     *
+     * @param r radius, at most maxRadius
+     */
+    public void forEachWithin(long label, int r, IntConsumer action) {
+        if(r < 0 || r > maxRadius) throw new IllegalArgumentException("Invalid radius");
+        for(int t = 0; t < partMasks.length; t++) {
+            final int group = groups[t].get(label & partMasks[t]);
+            if(group == MISSING) continue;
+            final int[] members = ids[t];
+            for(int k = starts[t][group]; k < starts[t][group + 1]; k++) {
+                final int j = members[k];
+                final long diff = label ^ labels[j];
+                if(Long.bitCount(diff) <= r && firstSharedPart(diff) == t) action.accept(j);
+            }
+        }
+    }
+
+    /** First substring position where the labels of given difference are equal */
+    private int firstSharedPart(long diff) {
+        int t = 0;
+        while((diff & partMasks[t]) != 0) t++;
+        return t;
+    }
+
+    /**
+     * Indices of the labels at distance at most r of given label, in no particular order
+     *
+     * @param r radius, at most maxRadius
+     */
+    public int[] radiusQuery(long label, int r) {
+        int[][] res = {new int[8]};
+        int[] size = {0};
+        forEachWithin(label, r, j -> {
+            if(size[0] == res[0].length) res[0] = Arrays.copyOf(res[0], 2 * size[0]);
+            res[0][size[0]++] = j;
+        });
+        return Arrays.copyOf(res[0], size[0]);
+    }
+}
@@ -0,0 +1,216 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph of nodes 0 ... n-1 in compressed sparse row (CSR) form.
+ * <p>
+ * The out edges of node v are the slots offsets[v] ... offsets[v+1): slot s goes to targets[s],
+ * has length weights[s] if the graph is weighted, and comes from the input edge edgeIds[s].
+ * The graph takes a few ints per edge, and the edges of a node lie next to each other in memory,
+ * instead of a node object, an edge object and a list per node.
+ * <p>
+ * Graphs are built from edge arrays by a counting sort on the source, in O(n + m), and the edges
+ * of a node keep the input order. An undirected graph holds every edge in both directions, so its
+ * input edge e has two slots. The transpose (the in edges of every node) is built on first use.
+ * <p>
+ * Callers read the slots of a node with {@link #firstSlot}, {@link #endSlot}, {@link #target} and {@link #weight}.
+ * The arrays themselves are only handed to the algorithms of the package, which never modify them.
+ */
+public final class CsrGraph {
+    private final int nodeNum;
+    private final int edgeNum;
+    private final boolean undirected;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;  // null if unweighted
+    private final int[] edgeIds;
+    private CsrGraph transpose;
+
+    // RI:  offsets[0] == 0, offsets non decreasing, offsets[n] == targets.length == edgeIds.length
+    //      targets.length == m for a directed graph, 2m for an undirected one
+    //      weights == null or weights.length == targets.length
+
+    private CsrGraph(int nodeNum, int edgeNum, boolean undirected, int[] offsets, int[] targets, int[] weights, int[] edgeIds) {
+        this.nodeNum = nodeNum;
+        this.edgeNum = edgeNum;
+        this.undirected = undirected;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeIds = edgeIds;
+        assert checkRep();
+    }
+
+    /** Directed graph of the edges src[e] -> dst[e], unweighted */
+    public static CsrGraph directed(int nodeNum, int[] src, int[] dst) {
+        return build(nodeNum, src, dst, null, false);
+    }
+
+    /**
+     * Directed graph of the edges src[e] -> dst[e] of length weights[e]
+     *
+     * @param weights lengths of the edges, or null for an unweighted graph
+     */
+    public static CsrGraph directed(int nodeNum, int[] src, int[] dst, int[] weights) {
+        return build(nodeNum, src, dst, weights, false);
+    }
+
+    /** Undirected graph of the edges src[e] - dst[e], unweighted */
+    public static CsrGraph undirected(int nodeNum, int[] src, int[] dst) {
+        return build(nodeNum, src, dst, null, true);
+    }
+
+    /**
+     * Undirected graph of the edges src[e] - dst[e] of length weights[e]
+     *
+     * @param weights lengths of the edges, or null for an unweighted graph
+     */
+    public static CsrGraph undirected(int nodeNum, int[] src, int[] dst, int[] weights) {
+        return build(nodeNum, src, dst, weights, true);
+    }
+
+    private static CsrGraph build(int nodeNum, int[] src, int[] dst, int[] weights, boolean undirected) {
+        if(nodeNum < 0) throw new IllegalArgumentException("Invalid number of nodes");
+        final int m = src.length;
+        if(dst.length != m || weights != null && weights.length != m)
+            throw new IllegalArgumentException("Edge arrays of different lengths");
+        if(undirected && m > (Integer.MAX_VALUE - 8) / 2) throw new IllegalArgumentException("Too many edges");
+        for(int e = 0; e < m; e++)
+            if(src[e] < 0 || src[e] >= nodeNum || dst[e] < 0 || dst[e] >= nodeNum)
+                throw new IllegalArgumentException("Invalid node in edge " + e);
+
+        final int slotNum = undirected ? 2 * m : m;
+        int[] offsets = new int[nodeNum + 1];
+        for(int e = 0; e < m; e++) {
+            offsets[src[e] + 1]++;
+            if(undirected) offsets[dst[e] + 1]++;
+        }
+        for(int v = 0; v < nodeNum; v++) offsets[v + 1] += offsets[v];
+        int[] next = Arrays.copyOf(offsets, nodeNum);
+        int[] targets = new int[slotNum];
+        int[] slotWeights = weights == null ? null : new int[slotNum];
+        int[] edgeIds = new int[slotNum];
+        for(int e = 0; e < m; e++) {
+            int s = next[src[e]]++;
+            targets[s] = dst[e];
+            edgeIds[s] = e;
+            if(weights != null) slotWeights[s] = weights[e];
+            if(!undirected) continue;
+            s = next[dst[e]]++;
+            targets[s] = src[e];
+            edgeIds[s] = e;
+            if(weights != null) slotWeights[s] = weights[e];
+        }
+        return new CsrGraph(nodeNum, m, undirected, offsets, targets, slotWeights, edgeIds);
+    }
+
+    public int nodeNum() {
+        return nodeNum;
+    }
+
+    /** Number of input edges, half the number of slots of an undirected graph */
+    public int edgeNum() {
+        return edgeNum;
+    }
+
+    public boolean isUndirected() {
+        return undirected;
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public int outDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /** First slot of the out edges of v */
+    public int firstSlot(int v) {
+        return offsets[v];
+    }
+
+    /** Slot after the last out edge of v */
+    public int endSlot(int v) {
+        return offsets[v + 1];
+    }
+
+    /** Node reached by the slot */
+    public int target(int slot) {
+        return targets[slot];
+    }
+
+    /** Length of the slot, 1 if the graph is unweighted */
+    public int weight(int slot) {
+        return weights == null ? 1 : weights[slot];
+    }
+
+    /** Input edge of the slot */
+    public int edgeId(int slot) {
+        return edgeIds[slot];
+    }
+
+    // the arrays below are the graph itself, for the algorithms of the package, never modified
+
+    /** First slot of every node, plus the number of slots */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /** Node reached by every slot */
+    int[] targets() {
+        return targets;
+    }
+
+    /** Length of every slot, or null if the graph is unweighted */
+    int[] weights() {
+        return weights;
+    }
+
+    /** Input edge of every slot */
+    int[] edgeIds() {
+        return edgeIds;
+    }
+
+    /**
+     * Graph of the reversed edges, whose out edges are the in edges of this graph,
+     * built on first use. An undirected graph is its own transpose.
+     */
+    public CsrGraph transpose() {
+        if(undirected) return this;
+        if(transpose == null) {
+            // counting sort of the slots on their target
+            int[] reverseOffsets = new int[nodeNum + 1];
+            for(int target : targets) reverseOffsets[target + 1]++;
+            for(int v = 0; v < nodeNum; v++) reverseOffsets[v + 1] += reverseOffsets[v];
+            int[] next = Arrays.copyOf(reverseOffsets, nodeNum);
+            int[] reverseTargets = new int[targets.length];
+            int[] reverseWeights = weights == null ? null : new int[targets.length];
+            int[] reverseEdgeIds = new int[targets.length];
+            for(int v = 0; v < nodeNum; v++) {
+                for(int s = offsets[v]; s < offsets[v + 1]; s++) {
+                    final int r = next[targets[s]]++;
+                    reverseTargets[r] = v;
+                    reverseEdgeIds[r] = edgeIds[s];
+                    if(weights != null) reverseWeights[r] = weights[s];
+                }
+            }
+            CsrGraph reverse = new CsrGraph(nodeNum, edgeNum, false, reverseOffsets, reverseTargets, reverseWeights, reverseEdgeIds);
+            reverse.transpose = this;
+            transpose = reverse;
+        }
+        return transpose;
+    }
+
+    /** Bytes taken by the arrays of the graph, without its transpose */
+    public long memoryBytes() {
+        return 4L * (offsets.length + targets.length + edgeIds.length + (weights == null ? 0 : weights.length));
+    }
+
+    private boolean checkRep() {
+        if(offsets.length != nodeNum + 1 || offsets[0] != 0 || offsets[nodeNum] != targets.length) return false;
+        if(edgeIds.length != targets.length || weights != null && weights.length != targets.length) return false;
+        return targets.length == (undirected ? 2L * edgeNum : edgeNum);
+    }
+}
@@ -0,0 +1,340 @@
+package graph;
+
+import heap.IndexedLongHeap;
+import heap.IndexedPriorityQueue;
+import heap.PairingHeap;
+import heap.RadixHeap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmarks for the graph package, run with {@code main}.
+ * Inputs are random graphs shaped like dijkstraData.txt (integer lengths in [1, 10000]),
+ * scaled up by the number of nodes and out degree.
+ * <ul>
+ *     <li>dijkstra: the priority queues available to Dijkstra</li>
+ *     <li>csr: heap taken by StronglyConnectedComponent.Graph against CsrGraph, and SCC and Dijkstra
+ *     on both, on a graph of the size of SCC.txt (875,714 nodes, about 5M edges)</li>
+ *     <li>scc: Tarjan against ParallelScc on fork join pools of 1, 2, 4 ... threads, on a power law
+ *     R-MAT graph (a giant component, a long tail of trivial ones)</li>
+ *     <li>engine: repeated Dijkstra queries from random sources, Graph.computeShortestPath against a
+ *     ShortestPathEngine, full and stopped at a random target. Reports time and bytes allocated per query.</li>
+ * </ul>
+ */
+public class GraphBenchmark {
+
+    static StronglyConnectedComponent.Graph<Integer> randomGraph(int nodeNum, int degree, long seed) {
+        StronglyConnectedComponent.Graph<Integer> g = new StronglyConnectedComponent.Graph<>();
+        for (int i = 0; i < nodeNum; i++) g.addNode(i);
+        Random ran = new Random(seed);
+        for (int i = 0; i < nodeNum; i++)
+            for (int d = 0; d < degree; d++)
+                g.addEdge(i, ran.nextInt(nodeNum), 1 + ran.nextInt(10000));
+        return g;
+    }
+
+    /**
+     * Compare the priority queues available to Dijkstra on a random graph
+     */
+    public static void shortestPathQueues(int nodeNum, int degree, int rounds) {
+        StronglyConnectedComponent.Graph<Integer> g = randomGraph(nodeNum, degree, nodeNum);
+        System.out.printf("Dijkstra, %,d nodes, %,d edges%n", nodeNum, (long) nodeNum * degree);
+
+        Map<String, IntFunction<? extends IndexedPriorityQueue>> queues = new LinkedHashMap<>();
+        queues.put("IndexedLongHeap", IndexedLongHeap::new);
+        queues.put("PairingHeap", PairingHeap::new);
+        queues.put("RadixHeap", RadixHeap::new);
+
+        double check = 0;
+        for (int r = 0; r < 2; r++) check += g.computeShortestPath(0).get(0);
+        long time = System.nanoTime();
+        for (int r = 0; r < rounds; r++) check += g.computeShortestPath(0).size();
+        System.out.printf("  %-24s %8.1f ms%n", "AugmentedBinaryHeap d=4", (System.nanoTime() - time) / 1e6 / rounds);
+
+        for (Map.Entry<String, IntFunction<? extends IndexedPriorityQueue>> queue : queues.entrySet()) {
+            for (int r = 0; r < 2; r++) check += g.computeShortestPath(0, queue.getValue()).size();
+            time = System.nanoTime();
+            for (int r = 0; r < rounds; r++) check += g.computeShortestPath(0, queue.getValue()).size();
+            System.out.printf("  %-24s %8.1f ms%n", queue.getKey(), (System.nanoTime() - time) / 1e6 / rounds);
+        }
+        System.out.println("  (checksum " + check + ")");
+    }
+
+    private static long usedMemory() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    private static long time(Runnable run) {
+        long time = System.nanoTime();
+        run.run();
+        return System.nanoTime() - time;
+    }
+
+    /**
+     * Compare StronglyConnectedComponent.Graph and CsrGraph on a random graph
+     */
+    public static void csr(int nodeNum, int degree) {
+        final int m = nodeNum * degree;
+        Random ran = new Random(nodeNum);
+        final int[] src = new int[m], dst = new int[m], lengths = new int[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = e / degree;
+            dst[e] = ran.nextInt(nodeNum);
+            lengths[e] = 1 + ran.nextInt(10000);
+        }
+        System.out.printf("%,d nodes, %,d edges%n", nodeNum, m);
+
+        long before = usedMemory();
+        final StronglyConnectedComponent.Graph<Integer> g = new StronglyConnectedComponent.Graph<>();
+        long buildTime = time(() -> {
+            for (int i = 0; i < nodeNum; i++) g.addNode(i);
+            for (int e = 0; e < m; e++) g.addEdge(src[e], dst[e], lengths[e]);
+        });
+        long graphBytes = usedMemory() - before;
+        before = usedMemory();
+        final CsrGraph[] csr = new CsrGraph[1];
+        long csrBuildTime = time(() -> csr[0] = CsrGraph.directed(nodeNum, src, dst, lengths));
+        long csrBytes = usedMemory() - before;
+        long transposeTime = time(() -> csr[0].transpose());
+        long transposeBytes = usedMemory() - before;
+        System.out.printf("  %-28s %9.1f MB %9.1f ms build%n", "Graph", graphBytes / 1048576.0, buildTime / 1e6);
+        System.out.printf("  %-28s %9.1f MB %9.1f ms build%n", "CsrGraph", csrBytes / 1048576.0, csrBuildTime / 1e6);
+        System.out.printf("  %-28s %9.1f MB %9.1f ms build%n", "CsrGraph + transpose", transposeBytes / 1048576.0,
+                (csrBuildTime + transposeTime) / 1e6);
+
+        final int[] check = new int[2];
+        g.computeForStronglyConnectedComponent();  // warm up
+        long graphTime = time(() -> check[0] = g.computeForStronglyConnectedComponent().size());
+        System.out.printf("  %-28s %9.1f ms  [%d]%n", "SCC Graph", graphTime / 1e6, check[0]);
+        StronglyConnectedComponent.kosaraju(csr[0]);
+        long time = time(() -> check[1] = StronglyConnectedComponent.kosaraju(csr[0]).componentCount());
+        System.out.printf("  %-28s %9.1f ms  [%d]%n", "SCC CsrGraph Kosaraju", time / 1e6, check[1]);
+        StronglyConnectedComponent.tarjan(csr[0]);
+        time = time(() -> check[1] = StronglyConnectedComponent.tarjan(csr[0]).componentCount());
+        System.out.printf("  %-28s %9.1f ms  [%d]%n", "SCC CsrGraph Tarjan", time / 1e6, check[1]);
+
+        for (int r = 0; r < 2; r++) g.computeShortestPath(0, IndexedLongHeap::new);
+        time = time(() -> check[0] = g.computeShortestPath(0, IndexedLongHeap::new).size());
+        System.out.printf("  %-28s %9.1f ms  [%d]%n", "Dijkstra Graph", time / 1e6, check[0]);
+        for (int r = 0; r < 2; r++) StronglyConnectedComponent.computeShortestPath(csr[0], 0, IndexedLongHeap::new);
+        time = time(() -> {
+            long[] distances = StronglyConnectedComponent.computeShortestPath(csr[0], 0, IndexedLongHeap::new);
+            check[1] = 0;
+            for (long distance : distances) if (distance != Long.MAX_VALUE) check[1]++;
+        });
+        System.out.printf("  %-28s %9.1f ms  [%d]%n", "Dijkstra CsrGraph", time / 1e6, check[1]);
+    }
+
+    /**
+     * R-MAT graph of 2^scale nodes and edgeFactor * 2^scale edges (Chakrabarti, Zhan and Faloutsos):
+     * every edge falls in a quadrant of the adjacency matrix with probabilities 0.57, 0.19, 0.19, 0.05,
+     * recursively, which gives power law degrees. Nodes are shuffled so that ids do not follow degrees.
+     */
+    static CsrGraph rmat(int scale, int edgeFactor, long seed) {
+        final int n = 1 << scale, m = edgeFactor * n;
+        Random ran = new Random(seed);
+        int[] permutation = new int[n];
+        for (int v = 0; v < n; v++) permutation[v] = v;
+        for (int v = n - 1; v > 0; v--) {
+            int w = ran.nextInt(v + 1), t = permutation[v];
+            permutation[v] = permutation[w];
+            permutation[w] = t;
+        }
+        int[] src = new int[m], dst = new int[m];
+        for (int e = 0; e < m; e++) {
+            int a = 0, b = 0;
+            for (int bit = 0; bit < scale; bit++) {
+                double p = ran.nextDouble();
+                a = a << 1 | (p >= 0.76 ? 1 : 0);
+                b = b << 1 | (p >= 0.57 && p < 0.76 || p >= 0.95 ? 1 : 0);
+            }
+            src[e] = permutation[a];
+            dst[e] = permutation[b];
+        }
+        return CsrGraph.directed(n, src, dst);
+    }
+
+    /**
+     * Scaling of ParallelScc against Tarjan's algorithm
+     */
+    public static void parallelScc(int scale, int edgeFactor, int maxThreads, int rounds) {
+        CsrGraph g = rmat(scale, edgeFactor, scale);
+        g.transpose();
+        SccResult tarjan = StronglyConnectedComponent.tarjan(g);
+        int largest = Arrays.stream(tarjan.sizes()).max().orElse(0);
+        System.out.printf("R-MAT graph, %,d nodes, %,d edges, %,d components, largest %,d, %d cores%n",
+                g.nodeNum(), g.edgeNum(), tarjan.componentCount(), largest, Runtime.getRuntime().availableProcessors());
+
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r <= rounds; r++) {
+            long time = time(() -> StronglyConnectedComponent.tarjan(g));
+            if (r > 0) best = Math.min(best, time);
+        }
+        System.out.printf("  %-24s %9.1f ms%n", "Tarjan", best / 1e6);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            int check = 0;
+            best = Long.MAX_VALUE;
+            for (int r = 0; r <= rounds; r++) {
+                long time = System.nanoTime();
+                check = ParallelScc.compute(g, pool).componentCount();
+                // first round is warm up
+                if (r > 0) best = Math.min(best, System.nanoTime() - time);
+            }
+            pool.shutdown();
+            System.out.printf("  %-24s %9.1f ms  [%d]%n", "ParallelScc " + threads + " threads", best / 1e6, check);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Query {
+        long run(int source, int target);
+    }
+
+    private static void measureQueries(String name, Query query, int nodeNum, int queries) {
+        Random ran = new Random(queries);
+        for (int q = 0; q < queries / 10; q++) query.run(ran.nextInt(nodeNum), ran.nextInt(nodeNum));  // warm up
+        long check = 0;
+        long bytes = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        long time = System.nanoTime();
+        for (int q = 0; q < queries; q++) check += query.run(ran.nextInt(nodeNum), ran.nextInt(nodeNum));
+        time = System.nanoTime() - time;
+        bytes = THREAD_BEAN.getCurrentThreadAllocatedBytes() - bytes;
+        System.out.printf("  %-28s %9.2f ms/query %12.1f KB/query  [%d]%n",
+                name, time / 1e6 / queries, bytes / 1024.0 / queries, check);
+    }
+
+    /**
+     * Repeated single source queries on a random graph
+     */
+    public static void engine(int nodeNum, int degree, int queries) {
+        final int m = nodeNum * degree;
+        Random ran = new Random(nodeNum);
+        int[] src = new int[m], dst = new int[m], lengths = new int[m];
+        final StronglyConnectedComponent.Graph<Integer> g = new StronglyConnectedComponent.Graph<>();
+        for (int i = 0; i < nodeNum; i++) g.addNode(i);
+        for (int e = 0; e < m; e++) {
+            src[e] = e / degree;
+            dst[e] = ran.nextInt(nodeNum);
+            lengths[e] = 1 + ran.nextInt(10000);
+            g.addEdge(src[e], dst[e], lengths[e]);
+        }
+        final ShortestPathEngine engine = new ShortestPathEngine(CsrGraph.directed(nodeNum, src, dst, lengths));
+        System.out.printf("Dijkstra, %,d nodes, %,d edges, %d queries%n", nodeNum, m, queries);
+        measureQueries("Graph.computeShortestPath", (source, target) -> {
+            Double distance = g.computeShortestPath(source).get(target);
+            return distance == null ? -1 : distance.longValue();
+        }, nodeNum, queries);
+        measureQueries("ShortestPathEngine full", (source, target) -> {
+            engine.run(source);
+            return engine.distance(target);
+        }, nodeNum, queries);
+        measureQueries("ShortestPathEngine target", (source, target) -> {
+            engine.run(source, target);
+            return engine.distance(target);
+        }, nodeNum, queries);
+    }
+
+    private interface RouteQuery {
+        PointToPointEngine.Route run(int source, int target);
+    }
+
+    private static void measureRoutes(String name, RouteQuery query, int nodeNum, int queries) {
+        Random ran = new Random(queries);
+        for (int q = 0; q < queries / 10; q++) query.run(ran.nextInt(nodeNum), ran.nextInt(nodeNum));  // warm up
+        long check = 0, settled = 0;
+        long time = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            PointToPointEngine.Route route = query.run(ran.nextInt(nodeNum), ran.nextInt(nodeNum));
+            check += route.distance();
+            settled += route.settledCount();
+        }
+        time = System.nanoTime() - time;
+        System.out.printf("  %-28s %9.2f ms/query %12.0f settled/query  [%d]%n",
+                name, time / 1e6 / queries, (double) settled / queries, check);
+    }
+
+    /**
+     * Point to point queries on a side x side grid, every node linked to its 4 neighbours both ways,
+     * lengths in [1, 100]
+     */
+    public static void pointToPoint(int side, int queries) {
+        final int n = side * side, m = 2 * side * (side - 1);
+        Random ran = new Random(side);
+        int[] src = new int[m], dst = new int[m], lengths = new int[m];
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            if (v % side + 1 < side) {
+                src[e] = v;
+                dst[e++] = v + 1;
+            }
+            if (v + side < n) {
+                src[e] = v;
+                dst[e++] = v + side;
+            }
+        }
+        for (int i = 0; i < m; i++) lengths[i] = 1 + ran.nextInt(100);
+        final CsrGraph g = CsrGraph.undirected(n, src, dst, lengths);
+        final ShortestPathEngine full = new ShortestPathEngine(g);
+        final PointToPointEngine engine = new PointToPointEngine(g);
+        long time = System.nanoTime();
+        final PointToPointEngine.Landmarks landmarks = new PointToPointEngine.Landmarks(g, 0, side - 1, n - side, n - 1);
+        System.out.printf("Grid %d x %d, %,d nodes, %,d edges, %d queries, landmarks in %.0f ms%n",
+                side, side, n, m, queries, (System.nanoTime() - time) / 1e6);
+
+        measureRoutes("ShortestPathEngine full", (source, target) -> {
+            full.run(source);
+            return new PointToPointEngine.Route(full.distance(target), full.path(target), full.settledCount());
+        }, n, queries);
+        measureRoutes("ShortestPathEngine target", (source, target) -> {
+            full.run(source, target);
+            return new PointToPointEngine.Route(full.distance(target), full.path(target), full.settledCount());
+        }, n, queries);
+        measureRoutes("bidirectional", engine::bidirectional, n, queries);
+        // the shortest edge has length 1, the Manhattan distance is a lower bound
+        measureRoutes("A* Manhattan", (source, target) -> engine.aStar(source, target,
+                (v, t) -> Math.abs(v % side - t % side) + Math.abs(v / side - t / side)), n, queries);
+        measureRoutes("A* landmarks", (source, target) -> engine.aStar(source, target, landmarks), n, queries);
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index].replace("_", "")) : defaultValue;
+    }
+
+    /**
+     * Usage: GraphBenchmark [dijkstra [nodes [degree]] | csr [nodes [degree]] | scc [scale [edgeFactor [threads]]]
+     *                      | engine [nodes [degree [queries]]] | p2p [side [queries]]]
+     */
+    public static void main(String[] args) {
+        String benchmark = args.length > 0 ? args[0] : "dijkstra";
+        switch (benchmark) {
+            case "dijkstra":
+                shortestPathQueues(intArg(args, 1, 200_000), intArg(args, 2, 10), 5);
+                break;
+            case "csr":
+                csr(intArg(args, 1, 875_714), intArg(args, 2, 6));
+                break;
+            case "scc":
+                parallelScc(intArg(args, 1, 20), intArg(args, 2, 16),
+                        intArg(args, 3, Math.max(4, Runtime.getRuntime().availableProcessors())), 3);
+                break;
+            case "engine":
+                engine(intArg(args, 1, 200_000), intArg(args, 2, 10), intArg(args, 3, 100));
+                break;
+            case "p2p":
+                pointToPoint(intArg(args, 1, 1000), intArg(args, 2, 100));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark " + benchmark);
+        }
+    }
+}
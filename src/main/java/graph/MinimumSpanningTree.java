@@ -1,13 +1,17 @@
 package graph;
 
 import heap.AugmentedBinaryHeap;
+import heap.IndexedPriorityQueue;
+import heap.PairingHeap;
+import util.FastLoader;
 
-import java.io.FileReader;
 import java.util.*;
+import java.util.function.IntFunction;
 
 public class MinimumSpanningTree<T> {
     public static class Node<T> extends AugmentedBinaryHeap.AbstractElement{
         private final T val;
+        private int id;
         private List<Edge<T>> edges;
         private boolean visited = false;
 
@@ -86,16 +90,21 @@ public class MinimumSpanningTree<T> {
     }
 
     private Map<T, Node<T>> nodes;
+    private List<Node<T>> nodeList;   // id -> node
     private List<Edge<T>> edges;
 
     public MinimumSpanningTree() {
         this.nodes = new HashMap<>();
+        this.nodeList = new ArrayList<>();
         this.edges = new ArrayList<>();
     }
 
     private void addNode(T value) {
         assertContainNode(false, value);
-        nodes.put(value, new Node<>(value));
+        Node<T> node = new Node<>(value);
+        node.id = nodeList.size();
+        nodeList.add(node);
+        nodes.put(value, node);
     }
 
     private void assertContainNode(boolean isContained, T... value) {
@@ -114,6 +123,16 @@ public class MinimumSpanningTree<T> {
         return computeMSTPrim();
     }
 
+    /**
+     * Compute the minimum spanning tree with Prim's algorithm on a priority queue
+     * created by given factory from the number of nodes.
+     * The keys of Prim are not monotone, so {@link heap.RadixHeap} can not be used here.
+     */
+    public List<Edge<T>> computeMinimumSpanningTree(IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+        if(edges.isEmpty()) return Collections.emptyList();
+        return computeMSTPrim(queueFactory.apply(nodeList.size()));
+    }
+
     private void prepareMSTPRIM() {
         for(Node<T> node : nodes.values()) {
             node.visited = false;
@@ -125,7 +144,7 @@ public class MinimumSpanningTree<T> {
         // initialize
         prepareMSTPRIM();
         List<Edge<T>> selectedEdges = new ArrayList<>();
-        AugmentedBinaryHeap<Node<T>> heap = new AugmentedBinaryHeap<>(Comparator.comparingInt(n -> n.getPriority()));
+        AugmentedBinaryHeap<Node<T>> heap = new AugmentedBinaryHeap<>(Comparator.comparingInt(n -> n.getPriority()), 4, true);
 
         Set<Node<T>> unProcessedVertices = new HashSet<>(nodes.values());
         Node<T> arbitraryNode = unProcessedVertices.iterator().next();
@@ -151,26 +170,94 @@ public class MinimumSpanningTree<T> {
             for(Edge<T> edge : node.getEdges()) {
                 Node<T> otherEnd = edge.getOtherEnd(node);
                 if(!otherEnd.visited && edge.cost < otherEnd.getPriority()) {
-                    heap.delete(otherEnd);
                     otherEnd.minEdge = edge;
-                    heap.insert(otherEnd);
+                    heap.decreaseKey(otherEnd);
                 }
             }
         }
         return selectedEdges;
     }
 
+    private List<Edge<T>> computeMSTPrim(IndexedPriorityQueue heap) {
+        // initialize
+        prepareMSTPRIM();
+        List<Edge<T>> selectedEdges = new ArrayList<>();
+
+        Node<T> arbitraryNode = nodeList.get(0);
+        arbitraryNode.visited = true;
+        for(Node<T> node : nodeList)
+            if(node != arbitraryNode) heap.insert(node.id, Integer.MAX_VALUE);
+        relax(arbitraryNode, heap);
+
+        // ready to process
+        while(!heap.isEmpty()) {
+            Node<T> node = nodeList.get(heap.delMin());
+            node.visited = true;
+            selectedEdges.add(node.minEdge);
+            relax(node, heap);
+        }
+        return selectedEdges;
+    }
+
+    private void relax(Node<T> node, IndexedPriorityQueue heap) {
+        for(Edge<T> edge : node.getEdges()) {
+            Node<T> otherEnd = edge.getOtherEnd(node);
+            if(!otherEnd.visited && edge.cost < otherEnd.getPriority()) {
+                otherEnd.minEdge = edge;
+                heap.decreaseKey(otherEnd.id, edge.cost);
+            }
+        }
+    }
+
+    /**
+     * Minimum spanning forest of an undirected weighted {@link CsrGraph} with Prim's algorithm,
+     * on a priority queue created by given factory from the number of nodes.
+     * A node enters the queue when first reached, Prim restarts from the first node not reached
+     * once the queue is empty.
+     *
+     * @return input edges of the forest, in the order Prim selects them
+     */
+    public static int[] computeMinimumSpanningTree(CsrGraph g, IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+        if (!g.isUndirected() || !g.isWeighted()) throw new IllegalArgumentException("Not an undirected weighted graph");
+        final int n = g.nodeNum();
+        final int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights(), edgeIds = g.edgeIds();
+        IndexedPriorityQueue heap = queueFactory.apply(n);
+        boolean[] visited = new boolean[n];
+        int[] minSlot = new int[n];   // cheapest slot to the tree, of the nodes in the queue
+        int[] selectedEdges = new int[Math.max(0, n - 1)];
+        int size = 0;
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) continue;
+            int node = start;
+            while (true) {
+                visited[node] = true;
+                for (int s = offsets[node]; s < offsets[node + 1]; s++) {
+                    final int otherEnd = targets[s];
+                    if (visited[otherEnd]) continue;
+                    if (!heap.contains(otherEnd)) {
+                        heap.insert(otherEnd, weights[s]);
+                        minSlot[otherEnd] = s;
+                    } else if (weights[s] < heap.keyOf(otherEnd)) {
+                        heap.decreaseKey(otherEnd, weights[s]);
+                        minSlot[otherEnd] = s;
+                    }
+                }
+                if (heap.isEmpty()) break;
+                node = heap.delMin();
+                selectedEdges[size++] = edgeIds[minSlot[node]];
+            }
+        }
+        return Arrays.copyOf(selectedEdges, size);
+    }
+
     public static void main(String[] args) throws Exception {
         MinimumSpanningTree<Integer> min = new MinimumSpanningTree<>();
-        Scanner in = new Scanner(new FileReader("./testData/graph/minSpanningTree.txt"));
-        String[] size = in.nextLine().trim().split(" ");
-        for(int i = 1; i <= Integer.valueOf(size[0]); i ++) min.addNode(i);
+        FastLoader.Table in = FastLoader.readTable("./testData/graph/minSpanningTree.txt");
+        for(int i = 1; i <= in.get(0, 0); i ++) min.addNode(i);
 
-        while (in.hasNextLine()) {
-            String[] edge = in.nextLine().trim().split("\\s+");
-            System.out.println(Arrays.toString(edge));
-            min.addEdge(Integer.valueOf(edge[0]), Integer.valueOf(edge[1]), Integer.valueOf(edge[2]));
-        }
+        int[][] edges = in.columns(1, 3);
+        for(int e = 0; e < edges[0].length; e++) min.addEdge(edges[0][e], edges[1][e], edges[2][e]);
         System.out.println(min.computeMinimumSpanningTree().stream().map(i -> i.cost).reduce(0, (i1, i2) -> i1 + i2));
+        System.out.println(min.computeMinimumSpanningTree(PairingHeap::new).stream().map(i -> i.cost).reduce(0, (i1, i2) -> i1 + i2));
     }
 }
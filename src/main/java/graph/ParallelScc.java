@@ -0,0 +1,248 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Strongly connected components of a {@link CsrGraph} on a fork join pool, by trimming and
+ * forward-backward search (after Fleischer, Hendrickson and Pinar, "On Identifying Strongly Connected
+ * Components in Parallel", and McLendon et al., "Finding strongly connected components in distributed graphs").
+ * <p>
+ * Trimming: a node without in edge or without out edge from the nodes left is a component of its own,
+ * removing it may leave its neighbours without in or out edge, and so on. Trimming removes the DAG parts
+ * of the graph, the bulk of the components of a power law graph, in parallel rounds.
+ * <p>
+ * Forward-backward: the nodes reached from a random pivot (forward) and reaching it (backward) are its
+ * component. Every other component lies entirely in the forward set, the backward set or the rest,
+ * three independent subproblems solved by forked tasks. Searches of large frontiers run in parallel.
+ * Every subproblem has a color, the color of a node is the subproblem it belongs to, so the searches
+ * stay in their subproblem and claim nodes by compare and set. Small subproblems run {@link StronglyConnectedComponent#tarjan}
+ * restricted to their color.
+ * <p>
+ * Components are not numbered in topological order, their leaders and sizes are those of the sequential algorithms.
+ */
+public final class ParallelScc {
+    /** Subproblems of fewer nodes run Tarjan's algorithm */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+    /** Frontiers of more nodes are expanded in parallel */
+    private static final int PARALLEL_FRONTIER = 1 << 11;
+    private static final int DONE = -1;
+
+    private final CsrGraph g;
+    private final CsrGraph reverse;
+    private final AtomicIntegerArray colors;
+    private final AtomicInteger colorNum = new AtomicInteger(1);
+    private final AtomicInteger componentNum = new AtomicInteger();
+    private final int[] components;
+    // scratch state of the restricted Tarjan, every node belongs to a single subproblem
+    private final int[] index;
+    private final int[] low;
+    private final int[] next;
+
+    private ParallelScc(CsrGraph g) {
+        this.g = g;
+        this.reverse = g.transpose();
+        final int n = g.nodeNum();
+        this.colors = new AtomicIntegerArray(n);
+        this.components = new int[n];
+        this.index = new int[n];
+        this.low = new int[n];
+        this.next = new int[n];
+    }
+
+    public static SccResult compute(CsrGraph g) {
+        return compute(g, ForkJoinPool.commonPool());
+    }
+
+    public static SccResult compute(CsrGraph g, ForkJoinPool pool) {
+        final ParallelScc scc = new ParallelScc(g);
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                int[] left = scc.trim();
+                if (left.length > 0) new Search(scc, 0, left).compute();
+            }
+        });
+        return new SccResult(scc.components, scc.componentNum.get());
+    }
+
+    private static IntStream range(int size) {
+        IntStream stream = IntStream.range(0, size);
+        return size > PARALLEL_FRONTIER ? stream.parallel() : stream;
+    }
+
+    /** A component of the single node v, if it is still in subproblem 0 */
+    private boolean claimSingle(int v) {
+        if (!colors.compareAndSet(v, 0, DONE)) return false;
+        components[v] = componentNum.getAndIncrement();
+        return true;
+    }
+
+    /**
+     * Trim the nodes without in or out edge, in rounds
+     *
+     * @return nodes left, all of color 0
+     */
+    private int[] trim() {
+        final int n = g.nodeNum();
+        final int[] offsets = g.offsets(), targets = g.targets();
+        final int[] reverseOffsets = reverse.offsets(), reverseTargets = reverse.targets();
+        final AtomicIntegerArray inDegrees = new AtomicIntegerArray(n), outDegrees = new AtomicIntegerArray(n);
+        // a node enters a frontier when one of its degrees drops to 0, so at most twice
+        final int[] first = new int[2 * n];
+        final AtomicInteger size = new AtomicInteger();
+        range(n).forEach(v -> {
+            inDegrees.set(v, reverseOffsets[v + 1] - reverseOffsets[v]);
+            outDegrees.set(v, offsets[v + 1] - offsets[v]);
+            if (inDegrees.get(v) == 0 || outDegrees.get(v) == 0) first[size.getAndIncrement()] = v;
+        });
+
+        int[] frontier = first, nextFrontier = new int[2 * n];
+        while (size.get() > 0) {
+            final int[] current = frontier, added = nextFrontier;
+            final int currentSize = size.getAndSet(0);
+            range(currentSize).forEach(i -> {
+                final int v = current[i];
+                if (!claimSingle(v)) return;
+                for (int s = offsets[v]; s < offsets[v + 1]; s++)
+                    if (inDegrees.decrementAndGet(targets[s]) == 0) added[size.getAndIncrement()] = targets[s];
+                for (int s = reverseOffsets[v]; s < reverseOffsets[v + 1]; s++)
+                    if (outDegrees.decrementAndGet(reverseTargets[s]) == 0) added[size.getAndIncrement()] = reverseTargets[s];
+            });
+            nextFrontier = frontier;
+            frontier = added;
+        }
+        return range(n).filter(v -> colors.get(v) == 0).toArray();
+    }
+
+    /**
+     * Breadth first search from the pivot over the nodes of color from or alsoFrom,
+     * recoloring them to and alsoTo
+     */
+    private void search(CsrGraph graph, int pivot, int from, int to, int alsoFrom, int alsoTo, int maxSize) {
+        final int[] offsets = graph.offsets(), targets = graph.targets();
+        int[] frontier = new int[maxSize], nextFrontier = new int[maxSize];
+        frontier[0] = pivot;
+        int frontierSize = 1;
+        final AtomicInteger size = new AtomicInteger();
+        while (frontierSize > 0) {
+            final int[] current = frontier, added = nextFrontier;
+            range(frontierSize).forEach(i -> {
+                final int v = current[i];
+                for (int s = offsets[v]; s < offsets[v + 1]; s++) {
+                    final int w = targets[s];
+                    final int color = colors.get(w);
+                    if (color == from && colors.compareAndSet(w, from, to)
+                            || color == alsoFrom && colors.compareAndSet(w, alsoFrom, alsoTo))
+                        added[size.getAndIncrement()] = w;
+                }
+            });
+            frontierSize = size.getAndSet(0);
+            nextFrontier = frontier;
+            frontier = added;
+        }
+    }
+
+    /** Forward-backward search of the nodes of a color */
+    private static final class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelScc scc;
+        private final int color;
+        private final int[] nodes;
+
+        Search(ParallelScc scc, int color, int[] nodes) {
+            this.scc = scc;
+            this.color = color;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            if (nodes.length <= SEQUENTIAL_THRESHOLD) {
+                scc.tarjan(color, nodes);
+                return;
+            }
+            final AtomicIntegerArray colors = scc.colors;
+            final int forward = scc.colorNum.getAndAdd(3), backward = forward + 1, both = forward + 2;
+            final int pivot = nodes[ThreadLocalRandom.current().nextInt(nodes.length)];
+            colors.set(pivot, forward);
+            scc.search(scc.g, pivot, color, forward, color, forward, nodes.length);
+            colors.set(pivot, both);
+            scc.search(scc.reverse, pivot, forward, both, color, backward, nodes.length);
+
+            // the component of the pivot is done, the rest is split by color
+            final int component = scc.componentNum.getAndIncrement();
+            int[] forwardNodes = new int[nodes.length], backwardNodes = new int[nodes.length], restNodes = new int[nodes.length];
+            int forwardNum = 0, backwardNum = 0, restNum = 0;
+            for (int v : nodes) {
+                final int c = colors.get(v);
+                if (c == both) {
+                    scc.components[v] = component;
+                    colors.set(v, DONE);
+                } else if (c == forward) forwardNodes[forwardNum++] = v;
+                else if (c == backward) backwardNodes[backwardNum++] = v;
+                else restNodes[restNum++] = v;
+            }
+            invokeAll(new Search(scc, forward, Arrays.copyOf(forwardNodes, forwardNum)),
+                    new Search(scc, backward, Arrays.copyOf(backwardNodes, backwardNum)),
+                    new Search(scc, color, Arrays.copyOf(restNodes, restNum)));
+        }
+    }
+
+    /**
+     * Tarjan's algorithm on the nodes of given color, as {@link StronglyConnectedComponent#tarjan},
+     * on the shared scratch arrays
+     */
+    private void tarjan(int color, int[] nodes) {
+        final int[] offsets = g.offsets(), targets = g.targets();
+        int[] calls = new int[nodes.length], stack = new int[nodes.length];
+        int counter = 0;
+        for (int start : nodes) {
+            if (colors.get(start) != color || index[start] != 0) continue;
+            int callTop = 0, top = 0;
+            index[start] = low[start] = ++counter;
+            next[start] = offsets[start];
+            calls[callTop++] = start;
+            stack[top++] = start;
+            while (callTop > 0) {
+                final int v = calls[callTop - 1];
+                if (next[v] < offsets[v + 1]) {
+                    final int w = targets[next[v]++];
+                    if (colors.get(w) != color) continue;
+                    if (index[w] == 0) {
+                        index[w] = low[w] = ++counter;
+                        next[w] = offsets[w];
+                        calls[callTop++] = w;
+                        stack[top++] = w;
+                    } else {
+                        // w is on the stack: the nodes out of it left the color
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                callTop--;
+                if (low[v] == index[v]) {
+                    final int component = componentNum.getAndIncrement();
+                    int w;
+                    do {
+                        w = stack[--top];
+                        components[w] = component;
+                        colors.set(w, DONE);
+                    } while (w != v);
+                }
+                if (callTop > 0) {
+                    final int parent = calls[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+    }
+}
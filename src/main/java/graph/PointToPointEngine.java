@@ -0,0 +1,287 @@
+package graph;
+
+import heap.IndexedLongHeap;
+import heap.IndexedPriorityQueue;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Shortest path queries from a source to a single target on a {@link CsrGraph}, which settle a fraction
+ * of the nodes a full single source search settles:
+ * <ul>
+ *     <li>{@link #bidirectional}: Dijkstra from the source on the graph and from the target on its
+ *     {@link CsrGraph#transpose() transpose}, always on the side of smaller tentative distance,
+ *     stopped once the two smallest tentative distances add up to the best path seen.</li>
+ *     <li>{@link #aStar}: Dijkstra keyed by distance plus a lower bound of the distance left to the
+ *     target, given by a pluggable {@link Heuristic}, such as {@link Landmarks}.</li>
+ * </ul>
+ * As {@link ShortestPathEngine}, the engine owns its queues and node arrays and a query only resets
+ * the nodes reached by the previous one. Edge lengths must be non negative. Not thread safe.
+ */
+public class PointToPointEngine {
+    /** Distance of a target not reachable */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final int NONE = -1;
+    private static final byte UNSEEN = 0, QUEUED = 1, SETTLED = 2;
+
+    /**
+     * Lower bound of the distance from a node to the target. A* returns shortest paths for an
+     * admissible heuristic (never above the distance left), and settles every node at most once
+     * if it is also consistent (h(v) <= length(v, w) + h(w) for every edge).
+     */
+    public interface Heuristic {
+        long estimate(int v, int target);
+    }
+
+    /** Distance and path of a query, with the number of nodes it settled */
+    public static final class Route {
+        private final long distance;
+        private final int[] path;
+        private final int settledCount;
+
+        Route(long distance, int[] path, int settledCount) {
+            this.distance = distance;
+            this.path = path;
+            this.settledCount = settledCount;
+        }
+
+        /** Length of the shortest path, UNREACHABLE if there is none */
+        public long distance() {
+            return distance;
+        }
+
+        /** Nodes of the shortest path from the source to the target, empty if there is none */
+        public int[] path() {
+            return path;
+        }
+
+        public int settledCount() {
+            return settledCount;
+        }
+
+        public boolean isReachable() {
+            return distance != UNREACHABLE;
+        }
+    }
+
+    /** Search state of one direction */
+    private static final class Side {
+        final CsrGraph graph;
+        final IndexedPriorityQueue queue;
+        final long[] distances;
+        final int[] parents;
+        final byte[] states;
+        final int[] reached;
+        int reachedNum;
+        int settledNum;
+
+        Side(CsrGraph graph, IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+            this.graph = graph;
+            final int n = graph.nodeNum();
+            this.queue = queueFactory.apply(n);
+            this.distances = new long[n];
+            Arrays.fill(distances, UNREACHABLE);
+            this.parents = new int[n];
+            Arrays.fill(parents, NONE);
+            this.states = new byte[n];
+            this.reached = new int[n];
+        }
+
+        void reset(int source, long key) {
+            for (int i = 0; i < reachedNum; i++) {
+                final int v = reached[i];
+                distances[v] = UNREACHABLE;
+                parents[v] = NONE;
+                states[v] = UNSEEN;
+            }
+            reachedNum = 0;
+            settledNum = 0;
+            queue.clear();
+            distances[source] = 0;
+            states[source] = QUEUED;
+            reached[reachedNum++] = source;
+            queue.insert(source, key);
+        }
+
+        /** Record a shorter distance of w through v, and queue w with given key */
+        void update(int w, int v, long distance, long key) {
+            if (states[w] == UNSEEN) reached[reachedNum++] = w;
+            distances[w] = distance;
+            parents[w] = v;
+            if (states[w] == QUEUED) {
+                queue.decreaseKey(w, key);
+            } else {
+                // unseen, or settled and reopened by an inconsistent heuristic
+                states[w] = QUEUED;
+                queue.insert(w, key);
+            }
+        }
+
+        int settle() {
+            final int v = queue.delMin();
+            states[v] = SETTLED;
+            settledNum++;
+            return v;
+        }
+
+        /** Nodes from the origin of the side to v, following the parents, in that order */
+        int[] pathTo(int v) {
+            int length = 0;
+            for (int u = v; u != NONE; u = parents[u]) length++;
+            int[] path = new int[length];
+            for (int u = v, i = length - 1; i >= 0; u = parents[u], i--) path[i] = u;
+            return path;
+        }
+    }
+
+    private final CsrGraph g;
+    private final Side forward;
+    private Side backward;
+    private final IntFunction<? extends IndexedPriorityQueue> queueFactory;
+
+    public PointToPointEngine(CsrGraph g) {
+        this(g, IndexedLongHeap::new);
+    }
+
+    /**
+     * @param queueFactory priority queue of each direction, from the number of nodes
+     */
+    public PointToPointEngine(CsrGraph g, IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+        this.g = g;
+        this.queueFactory = queueFactory;
+        this.forward = new Side(g, queueFactory);
+    }
+
+    public CsrGraph graph() {
+        return g;
+    }
+
+    private void validateNode(int v) {
+        if (v < 0 || v >= g.nodeNum()) throw new IllegalArgumentException("Invalid node " + v);
+    }
+
+    private static int length(int[] weights, int slot) {
+        final int length = weights == null ? 1 : weights[slot];
+        if (length < 0) throw new IllegalArgumentException("Negative edge length");
+        return length;
+    }
+
+    /**
+     * Shortest path from source to target by bidirectional Dijkstra. The backward search runs on
+     * the transpose of the graph, built on the first query.
+     */
+    public Route bidirectional(int source, int target) {
+        validateNode(source);
+        validateNode(target);
+        if (backward == null) backward = new Side(g.transpose(), queueFactory);
+        forward.reset(source, 0);
+        backward.reset(target, 0);
+        // best path seen: the edge from meetTail (reached forward) to meetHead (reached backward)
+        long best = source == target ? 0 : UNREACHABLE;
+        int meetTail = source, meetHead = target;
+
+        while (!forward.queue.isEmpty() && !backward.queue.isEmpty()) {
+            final long forwardMin = forward.queue.minKey(), backwardMin = backward.queue.minKey();
+            if (best != UNREACHABLE && forwardMin + backwardMin >= best) break;
+            final boolean isForward = forwardMin <= backwardMin;
+            final Side side = isForward ? forward : backward, other = isForward ? backward : forward;
+            final int[] offsets = side.graph.offsets(), targets = side.graph.targets(), weights = side.graph.weights();
+            final int v = side.settle();
+            final long distance = side.distances[v];
+            for (int s = offsets[v]; s < offsets[v + 1]; s++) {
+                final int w = targets[s];
+                final long minL = distance + length(weights, s);
+                if (side.states[w] != SETTLED && minL < side.distances[w]) side.update(w, v, minL, minL);
+                if (other.distances[w] != UNREACHABLE && minL + other.distances[w] < best) {
+                    best = minL + other.distances[w];
+                    meetTail = isForward ? v : w;
+                    meetHead = isForward ? w : v;
+                }
+            }
+        }
+        final int settled = forward.settledNum + backward.settledNum;
+        if (source == target) return new Route(0, new int[]{source}, settled);
+        // a side out of nodes has settled every node it reaches, the edges to the other side may not be seen
+        if (forward.queue.isEmpty() && forward.distances[target] < best)
+            return new Route(forward.distances[target], forward.pathTo(target), settled);
+        if (backward.queue.isEmpty() && backward.distances[source] < best) {
+            int[] path = backward.pathTo(source);
+            for (int i = 0, j = path.length - 1; i < j; i++, j--) {
+                int t = path[i];
+                path[i] = path[j];
+                path[j] = t;
+            }
+            return new Route(backward.distances[source], path, settled);
+        }
+        if (best == UNREACHABLE) return new Route(UNREACHABLE, new int[0], settled);
+
+        // forward parents from the source to meetTail, then backward parents from meetHead to the target
+        int[] head = forward.pathTo(meetTail), tail = backward.pathTo(meetHead);
+        int[] path = Arrays.copyOf(head, head.length + tail.length);
+        for (int i = 0; i < tail.length; i++) path[head.length + i] = tail[tail.length - 1 - i];
+        return new Route(best, path, settled);
+    }
+
+    /**
+     * Shortest path from source to target by A* with given heuristic. Nodes settled are reopened
+     * if a shorter path reaches them, so an admissible heuristic is enough.
+     */
+    public Route aStar(int source, int target, Heuristic heuristic) {
+        validateNode(source);
+        validateNode(target);
+        final int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights();
+        forward.reset(source, heuristic.estimate(source, target));
+        while (!forward.queue.isEmpty()) {
+            final int v = forward.settle();
+            if (v == target) return new Route(forward.distances[v], forward.pathTo(v), forward.settledNum);
+            final long distance = forward.distances[v];
+            for (int s = offsets[v]; s < offsets[v + 1]; s++) {
+                final int w = targets[s];
+                final long minL = distance + length(weights, s);
+                if (minL < forward.distances[w]) {
+                    final long estimate = heuristic.estimate(w, target);
+                    // a node without path to the target is never queued
+                    if (estimate != UNREACHABLE) forward.update(w, v, minL, minL + estimate);
+                }
+            }
+        }
+        return new Route(UNREACHABLE, new int[0], forward.settledNum);
+    }
+
+    /**
+     * ALT heuristic (A*, landmarks and the triangle inequality, after Goldberg and Harrelson,
+     * "Computing the Shortest Path: A* Search Meets Graph Theory"): with the distances from and to
+     * a few landmark nodes, d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L) for every landmark L.
+     * The heuristic is consistent. Takes 2 longs per node and landmark, computed by 2 full searches per landmark.
+     */
+    public static final class Landmarks implements Heuristic {
+        private final long[][] from;  // from[l][v] = d(landmark l, v)
+        private final long[][] to;    // to[l][v] = d(v, landmark l)
+
+        public Landmarks(CsrGraph g, int... landmarks) {
+            this.from = new long[landmarks.length][];
+            this.to = new long[landmarks.length][];
+            ShortestPathEngine forward = new ShortestPathEngine(g), backward = new ShortestPathEngine(g.transpose());
+            for (int l = 0; l < landmarks.length; l++) {
+                forward.run(landmarks[l]);
+                from[l] = forward.distances();
+                backward.run(landmarks[l]);
+                to[l] = backward.distances();
+            }
+        }
+
+        @Override
+        public long estimate(int v, int target) {
+            long bound = 0;
+            for (int l = 0; l < from.length; l++) {
+                final long[] fromL = from[l], toL = to[l];
+                // v reached from L but the target not: the target is not reachable from v either
+                if (fromL[v] != UNREACHABLE && fromL[target] == UNREACHABLE) return UNREACHABLE;
+                if (fromL[v] != UNREACHABLE) bound = Math.max(bound, fromL[target] - fromL[v]);
+                if (toL[target] != UNREACHABLE && toL[v] != UNREACHABLE) bound = Math.max(bound, toL[v] - toL[target]);
+            }
+            return bound;
+        }
+    }
+}
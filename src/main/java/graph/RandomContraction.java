@@ -1,12 +1,10 @@
 package graph;
 
 import com.sun.istack.internal.NotNull;
+import unionfind.PackedUnionFind;
+import util.FastLoader;
 
-import java.io.FileReader;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class RandomContraction {
 
@@ -352,42 +350,67 @@ public class RandomContraction {
         }
     }
 
+    /**
+     * Smallest number of crossing edges found by given number of attempts of the Random Contraction
+     * Algorithm on an undirected {@link CsrGraph}.
+     * <p>
+     * Contracting a uniformly random edge until 2 nodes remain is Kruskal's algorithm on a uniformly
+     * random order of the edges, stopped at 2 components: an attempt shuffles the edges on the fly
+     * and unites their ends in a {@link PackedUnionFind}, in O(m) instead of a copy of the graph and
+     * a removal of the self loops per contraction. The crossing edges are the edges between the 2 components.
+     */
+    public static int minCut(CsrGraph g, int attempts, Random ran) {
+        if (!g.isUndirected()) throw new IllegalArgumentException("Not an undirected graph");
+        if (attempts < 1) throw new IllegalArgumentException("Invalid number of attempts");
+        // ends of every input edge, from its slots
+        final int m = g.edgeNum();
+        final int[] offsets = g.offsets(), targets = g.targets(), edgeIds = g.edgeIds();
+        int[] a = new int[m], b = new int[m];
+        for (int v = 0; v < g.nodeNum(); v++)
+            for (int s = offsets[v]; s < offsets[v + 1]; s++) {
+                a[edgeIds[s]] = v;
+                b[edgeIds[s]] = targets[s];
+            }
+
+        int[] order = new int[m];
+        for (int e = 0; e < m; e++) order[e] = e;
+        int min = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            PackedUnionFind uf = new PackedUnionFind(g.nodeNum());
+            for (int i = 0; i < m && uf.getComponentCount() > 2; i++) {
+                final int j = i + ran.nextInt(m - i);
+                final int e = order[j];
+                order[j] = order[i];
+                order[i] = e;
+                uf.union(a[e], b[e]);
+            }
+            int crossing = 0;
+            for (int e = 0; e < m; e++)
+                if (uf.find(a[e]) != uf.find(b[e])) crossing++;
+            min = Math.min(min, crossing);
+        }
+        return min;
+    }
+
     public static void main(String[] args) throws Exception {
-        Graph<Integer> g = new Graph<>();
-        Scanner in = new Scanner(new FileReader("./testData/sort/KargerMinCut.txt"));
-        IntStream.range(1, 201).forEach(
-                i -> g.addNode(i)
-        );
-
-        while (in.hasNextLine()) {
-            List<Integer> input = Stream
-                    .of(in.nextLine().trim().split("\\s+"))
-                    .map(i -> Integer.valueOf(i))
-                    .collect(Collectors.toList());
-            System.out.println(input);
-            Iterator<Integer> it = input.iterator();
-            int fist = it.next();
-            while (it.hasNext()) {
-                int next = it.next();
-                if (next > fist)
-                    g.addEdge(fist, next);
+        FastLoader.Table in = FastLoader.readTable("./testData/sort/KargerMinCut.txt");
+        int[] from = new int[in.values().length], to = new int[in.values().length];
+        int edgeNum = 0;
+        for (int line = 0; line < in.lineCount(); line++) {
+            int fist = in.get(line, 0);
+            for (int k = 1; k < in.lineLength(line); k++) {
+                int next = in.get(line, k);
                 // if next < first
                 // connection next <-> first has already been added
+                if (next > fist) {
+                    from[edgeNum] = fist - 1;
+                    to[edgeNum++] = next - 1;
+                }
             }
         }
-        int[] res = IntStream.range(0, 100).map(
-                ii -> {
-                    int min = Integer.MAX_VALUE;
-                    // n = #vertices = 200
-                    // Attempt 100 time
-                    // Pr[100 trial fail] <= e^(-100/200^2) = 99.75
-                    for (int i = 0; i < 100; i++) {
-                        int val = g.attemptMinCut();
-                        if (val < min) min = val;
-                    }
-                    return min;
-                }
-        ).toArray();
-        System.out.println("Number of crossing edges for min cut: " + res);
+        CsrGraph g = CsrGraph.undirected(200, Arrays.copyOf(from, edgeNum), Arrays.copyOf(to, edgeNum));
+        // n = #vertices = 200
+        // Attempt 10000 time, each attempt is O(m)
+        System.out.println("Number of crossing edges for min cut: " + minCut(g, 10000, new Random()));
     }
 }
@@ -0,0 +1,68 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of a graph of nodes 0 ... n-1: the component id of every node,
+ * ids 0 ... c-1, with the size of every component and its leader, the smallest node of the component.
+ * Leaders do not depend on the algorithm, so the results of two algorithms compare by their leaders.
+ */
+public final class SccResult {
+    private final int[] components;
+    private final int[] sizes;
+    private final int[] leaders;
+
+    /**
+     * @param components     component id of every node
+     * @param componentCount number of components, every id below is used
+     */
+    SccResult(int[] components, int componentCount) {
+        this.components = components;
+        this.sizes = new int[componentCount];
+        this.leaders = new int[componentCount];
+        Arrays.fill(leaders, -1);
+        for(int v = 0; v < components.length; v++) {
+            final int c = components[v];
+            sizes[c]++;
+            if(leaders[c] < 0) leaders[c] = v;
+        }
+    }
+
+    public int nodeNum() {
+        return components.length;
+    }
+
+    public int componentCount() {
+        return sizes.length;
+    }
+
+    public int componentOf(int v) {
+        return components[v];
+    }
+
+    /** Component id of every node */
+    public int[] components() {
+        return components;
+    }
+
+    public int size(int component) {
+        return sizes[component];
+    }
+
+    /** Size of every component */
+    public int[] sizes() {
+        return sizes;
+    }
+
+    /** Smallest node of the component */
+    public int leader(int component) {
+        return leaders[component];
+    }
+
+    /** Leader of the component of every node */
+    public int[] leaderOfNodes() {
+        int[] res = new int[components.length];
+        for(int v = 0; v < res.length; v++) res[v] = leaders[components[v]];
+        return res;
+    }
+}
@@ -0,0 +1,212 @@
+package graph;
+
+import heap.IndexedLongHeap;
+import heap.IndexedPriorityQueue;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Dijkstra's single source shortest paths on a {@link CsrGraph}, for many queries on the same graph.
+ * <p>
+ * The engine owns its indexed priority queue (decrease key over node ids, no stale entries),
+ * the distance, parent and state arrays of the nodes. A query only resets the nodes reached by the
+ * previous one, so repeated queries allocate nothing and cost the part of the graph they explore,
+ * not O(n). A query may stop as soon as a set of targets is settled.
+ * <p>
+ * Edge lengths are the weights of the graph, 1 for an unweighted graph, and must be non negative.
+ * Distances are longs: sums of int lengths are exact, unlike doubles beyond 2^53.
+ * An engine is not thread safe, threads run their own engine over the shared graph.
+ */
+public class ShortestPathEngine {
+    /** Distance of a node not reached */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final int NONE = -1;
+    private static final byte UNSEEN = 0, QUEUED = 1, SETTLED = 2;
+
+    private final CsrGraph g;
+    private final IndexedPriorityQueue queue;
+    private final long[] distances;
+    private final int[] parents;
+    private final byte[] states;
+    private final int[] reached;  // nodes reached by the last query, to reset them
+    private int reachedNum;
+    private int settledNum;
+    private int source = NONE;
+    // targets of the current query, marked by query number
+    private final int[] targetMarks;
+    private int queryNum;
+
+    // RI:  the nodes of states != UNSEEN are reached[0 ... reachedNum), the others have
+    //      distance UNREACHABLE and parent NONE, the queue holds the QUEUED nodes
+
+    public ShortestPathEngine(CsrGraph g) {
+        this(g, IndexedLongHeap::new);
+    }
+
+    /**
+     * @param queueFactory priority queue of the engine, from the number of nodes
+     */
+    public ShortestPathEngine(CsrGraph g, IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+        this.g = g;
+        final int n = g.nodeNum();
+        this.queue = queueFactory.apply(n);
+        this.distances = new long[n];
+        Arrays.fill(distances, UNREACHABLE);
+        this.parents = new int[n];
+        Arrays.fill(parents, NONE);
+        this.states = new byte[n];
+        this.reached = new int[n];
+        this.targetMarks = new int[n];
+    }
+
+    public CsrGraph graph() {
+        return g;
+    }
+
+    private void validateNode(int v) {
+        if(v < 0 || v >= distances.length) throw new IllegalArgumentException("Invalid node " + v);
+    }
+
+    /** Forget the last query, in O(nodes it reached) */
+    private void reset(int newSource) {
+        for(int i = 0; i < reachedNum; i++) {
+            final int v = reached[i];
+            distances[v] = UNREACHABLE;
+            parents[v] = NONE;
+            states[v] = UNSEEN;
+        }
+        reachedNum = 0;
+        settledNum = 0;
+        queue.clear();
+        source = newSource;
+        distances[newSource] = 0;
+        states[newSource] = QUEUED;
+        reached[reachedNum++] = newSource;
+        queue.insert(newSource, 0);
+    }
+
+    /**
+     * Shortest paths from the source to every node
+     */
+    public void run(int source) {
+        validateNode(source);
+        reset(source);
+        while(!queue.isEmpty()) settleNext();
+        assert checkRep();
+    }
+
+    /**
+     * Shortest paths from the source, stopped once every target is settled:
+     * the distances of the targets are final, those of the other nodes are upper bounds
+     * for the nodes reached and not settled.
+     *
+     * @return number of distinct targets reachable from the source
+     */
+    public int run(int source, int... targets) {
+        validateNode(source);
+        for(int target : targets) validateNode(target);
+        if(++queryNum == 0) {
+            // the marks wrapped around
+            Arrays.fill(targetMarks, 0);
+            queryNum = 1;
+        }
+        int left = 0;
+        for(int target : targets)
+            if(targetMarks[target] != queryNum) {
+                targetMarks[target] = queryNum;
+                left++;
+            }
+        final int targetNum = left;
+        reset(source);
+        while(left > 0 && !queue.isEmpty())
+            if(targetMarks[settleNext()] == queryNum) left--;
+        assert checkRep();
+        return targetNum - left;
+    }
+
+    /** Settle the node of smallest distance and relax its out edges */
+    private int settleNext() {
+        final int[] offsets = g.offsets(), targets = g.targets(), weights = g.weights();
+        final int min = queue.delMin();
+        states[min] = SETTLED;
+        settledNum++;
+        final long distance = distances[min];
+        for(int s = offsets[min]; s < offsets[min + 1]; s++) {
+            final int head = targets[s];
+            if(states[head] == SETTLED) continue;
+            final int length = weights == null ? 1 : weights[s];
+            if(length < 0) throw new IllegalArgumentException("Negative edge length");
+            final long minL = distance + length;
+            if(states[head] == UNSEEN) {
+                states[head] = QUEUED;
+                reached[reachedNum++] = head;
+                distances[head] = minL;
+                parents[head] = min;
+                queue.insert(head, minL);
+            } else if(minL < distances[head]) {
+                distances[head] = minL;
+                parents[head] = min;
+                queue.decreaseKey(head, minL);
+            }
+        }
+        return min;
+    }
+
+    /** Source of the last query */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Distance from the source of the last query, UNREACHABLE if the node was not reached
+     */
+    public long distance(int v) {
+        validateNode(v);
+        return distances[v];
+    }
+
+    public boolean isSettled(int v) {
+        validateNode(v);
+        return states[v] == SETTLED;
+    }
+
+    /** Node before v on its shortest path, -1 for the source and the nodes not reached */
+    public int parent(int v) {
+        validateNode(v);
+        return parents[v];
+    }
+
+    /**
+     * Nodes of the shortest path from the source to v, both included,
+     * or an empty array if v was not reached
+     */
+    public int[] path(int v) {
+        validateNode(v);
+        if(distances[v] == UNREACHABLE) return new int[0];
+        int length = 1;
+        for(int u = v; u != source; u = parents[u]) length++;
+        int[] path = new int[length];
+        for(int u = v, i = length - 1; i >= 0; u = parents[u], i--) path[i] = u;
+        return path;
+    }
+
+    /** Number of nodes settled by the last query */
+    public int settledCount() {
+        return settledNum;
+    }
+
+    /** Copy of the distances of the last query */
+    public long[] distances() {
+        return distances.clone();
+    }
+
+    private boolean checkRep() {
+        int queued = 0;
+        for(int i = 0; i < reachedNum; i++) {
+            if(states[reached[i]] == UNSEEN) return false;
+            if(states[reached[i]] == QUEUED) queued++;
+        }
+        return queued == queue.size();
+    }
+}
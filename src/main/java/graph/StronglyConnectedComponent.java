@@ -2,13 +2,15 @@ package graph;
 
 import com.google.common.base.MoreObjects;
 import edu.princeton.cs.algs4.In;
-import edu.princeton.cs.algs4.MinPQ;
+import heap.AugmentedBinaryHeap;
+import heap.IndexedPriorityQueue;
+import util.FastLoader;
 
-import java.io.FileReader;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public class StronglyConnectedComponent {
 
@@ -17,8 +19,9 @@ public class StronglyConnectedComponent {
      * with adjacency list representation
      */
     public static class Graph<T> {
-        public static class Node<T> {
+        public static class Node<T> extends AugmentedBinaryHeap.AbstractElement {
             private final T val;
+            private int id;
             private List<Edge<T>> outbound;
             private List<Edge<T>> inbound;
             private boolean seached = false;
@@ -137,15 +140,22 @@ public class StronglyConnectedComponent {
         }
 
         private final HashMap<T, Node<T>> nodes;
+        private final List<Node<T>> nodeList;   // id -> node
         private final Set<Edge<T>> edges;
 
         public Graph() {
             nodes = new HashMap<>();
+            nodeList = new ArrayList<>();
             edges = new HashSet<>();
         }
 
+        /** Add a node of given value, nothing if the value is already a node: its id and edges are kept */
         public void addNode(T val) {
-            nodes.put(val, new Node<>(val));
+            if (nodes.containsKey(val)) return;
+            Node<T> node = new Node<>(val);
+            node.id = nodeList.size();
+            nodeList.add(node);
+            nodes.put(val, node);
         }
 
         public void addEdge(T from, T to) {
@@ -171,56 +181,38 @@ public class StronglyConnectedComponent {
         }
 
         /**
-         * Run DFS for the first DFS Loop, which build
-         * the finishing time ordering
+         * Search for strongly connected component in this graph,
+         * by {@link #tarjan(CsrGraph)} on the node ids
+         *
+         * @return a map from the leader component to the size of the
+         * strongly connected component represented by the leader
          */
-        private void runSccFirstDFS(Node<T> from, List<Node<T>> finishingTime) {
-            from.seached = true;
-            for (Edge<T> edge : from.getInbound())
-                if (!edge.tail.seached) {
-                    runSccFirstDFS(edge.tail, finishingTime);
-                }
-            finishingTime.add(from);
+        public Map<Node<T>, Integer> computeForStronglyConnectedComponent() {
+            return leaderSizes(tarjan(toCsrGraph()));
         }
 
         /**
-         * Run DFS for the second DFS Loop, which build
-         * the map from the leader to the size of the strongly connected component
-         * represented by the leader
+         * computeForStronglyConnectedComponent on the threads of given pool, by {@link ParallelScc}
          */
-        private void runSccSecondDFS(Node<T> from, Node<T> leader, Map<Node<T>, Integer> collector) {
-            from.seached = true;
-            if (!collector.containsKey(leader))
-                collector.put(leader, 0);
-            collector.put(leader, collector.get(leader) + 1);
-            for (Edge<T> edge : from.getOutbound())
-                if (!edge.head.seached)
-                    runSccSecondDFS(edge.head, leader, collector);
+        public Map<Node<T>, Integer> computeForStronglyConnectedComponent(ForkJoinPool pool) {
+            return leaderSizes(ParallelScc.compute(toCsrGraph(), pool));
         }
 
-        /**
-         * Search for strongly connected component in this graph
-         *
-         * @return a map from the leader component to the size of the
-         * strongly connected component represented by the leader
-         */
-        public Map<Node<T>, Integer> computeForStronglyConnectedComponent() {
-            // first DFS loop
-            markAllUnsearched();
-            List<Node<T>> runtimeOrder = new ArrayList<>(nodes.size());
-            for (Node<T> node : nodes.values())
-                if (!node.seached)
-                    runSccFirstDFS(node, runtimeOrder);
+        /** Edges of the graph on the node ids */
+        private CsrGraph toCsrGraph() {
+            int[] src = new int[edges.size()], dst = new int[edges.size()];
+            int e = 0;
+            for (Edge<T> edge : edges) {
+                src[e] = edge.tail.id;
+                dst[e++] = edge.head.id;
+            }
+            return CsrGraph.directed(nodeList.size(), src, dst);
+        }
 
-            // second DFS loop
-            markAllUnsearched();
+        private Map<Node<T>, Integer> leaderSizes(SccResult scc) {
             Map<Node<T>, Integer> collector = new HashMap<>();
-            ListIterator<Node<T>> it = runtimeOrder.listIterator(runtimeOrder.size());
-            while (it.hasPrevious()) {
-                Node<T> prev = it.previous();
-                if (!prev.seached)
-                    runSccSecondDFS(prev, prev, collector);
-            }
+            for (int c = 0; c < scc.componentCount(); c++)
+                collector.put(nodeList.get(scc.leader(c)), scc.size(c));
             return collector;
         }
 
@@ -232,77 +224,243 @@ public class StronglyConnectedComponent {
                     .toString();
         }
 
-        private Comparator<Edge<T>> EDGE_COMPARATOR =
-                (Edge<T> o1, Edge<T> o2) -> {
-                    if (o1.tail.shortestPath == Double.MAX_VALUE ||
-                            o2.tail.shortestPath == Double.MAX_VALUE)
-                        throw new IllegalArgumentException();
-                    return Double.compare(o1.tail.shortestPath + o1.length, o2.tail.shortestPath + o2.length);
-                };
-
+        private static final Comparator<Node<?>> NODE_COMPARATOR =
+                Comparator.comparingDouble(n -> n.shortestPath);
 
+        /**
+         * Dijkstra's shortest path from the node of given value, using a 4-ary heap
+         * of nodes keyed by their tentative distance
+         *
+         * @return a map from the value of every node reachable from given node to its shortest distance
+         */
         public Map<T, Double> computeShortestPath(T val) {
+            markAllUnsearched();
+            resetShortestPath();
             Map<T, Double> shortestPath = new HashMap<>();
-            MinPQ<Edge<T>> pr = new MinPQ<>(edges.size(), EDGE_COMPARATOR);
+            AugmentedBinaryHeap<Node<T>> pr = new AugmentedBinaryHeap<>(NODE_COMPARATOR, 4, true);
             Node<T> init = nodes.get(val);
-            init.seached = true;
             init.setShortestPath(0.0);
-            shortestPath.put(val, 0.0);
-            for(Edge<T> edge : init.getOutbound()) {
-                pr.insert(edge);
+            pr.insert(init);
+
+            while(!pr.isEmpty()) {
+                Node<T> min = pr.delMin();
+                min.seached = true;
+                shortestPath.put(min.val, min.shortestPath);
+                for(Edge<T> edge : min.getOutbound()) {
+                    Node<T> head = edge.head;
+                    if (head.seached) continue;
+                    double minL = min.shortestPath + edge.length;
+                    if (head.shortestPath == Double.MAX_VALUE) {
+                        // first time reached
+                        head.setShortestPath(minL);
+                        pr.insert(head);
+                    } else if (minL < head.shortestPath) {
+                        head.setShortestPath(minL);
+                        pr.decreaseKey(head);
+                    }
+                }
             }
+            return shortestPath;
+        }
+
+        /**
+         * Dijkstra's shortest path from the node of given value, on a priority queue
+         * created by given factory from the number of nodes.
+         * Edge lengths must be non negative: the bit pattern of a non negative double
+         * orders like the double itself, so distances are keyed by their bits as longs.
+         *
+         * @return a map from the value of every node reachable from given node to its shortest distance
+         */
+        public Map<T, Double> computeShortestPath(T val, IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+            markAllUnsearched();
+            resetShortestPath();
+            Map<T, Double> shortestPath = new HashMap<>();
+            IndexedPriorityQueue pr = queueFactory.apply(nodeList.size());
+            Node<T> init = nodes.get(val);
+            init.setShortestPath(0.0);
+            pr.insert(init.id, Double.doubleToLongBits(0.0));
 
             while(!pr.isEmpty()) {
-                Edge<T> min = pr.delMin();
-                assert min.tail.seached;
-                if (!min.head.seached) {
-                    Node<T> head = min.head;
-                    double minL = min.tail.shortestPath + min.length;
-                    head.setShortestPath(minL);
-                    min.head.seached = true;
-                    shortestPath.put(head.val, minL);
-                    // add to priority queue
-                    for(Edge<T> edge: head.getOutbound())
-                        if (!edge.head.seached)
-                            pr.insert(edge);
+                Node<T> min = nodeList.get(pr.delMin());
+                min.seached = true;
+                shortestPath.put(min.val, min.shortestPath);
+                for(Edge<T> edge : min.getOutbound()) {
+                    Node<T> head = edge.head;
+                    if (head.seached) continue;
+                    double minL = min.shortestPath + edge.length;
+                    if (head.shortestPath == Double.MAX_VALUE) {
+                        head.setShortestPath(minL);
+                        pr.insert(head.id, Double.doubleToLongBits(minL));
+                    } else if (minL < head.shortestPath) {
+                        head.setShortestPath(minL);
+                        pr.decreaseKey(head.id, Double.doubleToLongBits(minL));
+                    }
                 }
             }
             return shortestPath;
         }
     }
 
-    public static void testSCC() throws Exception {
-        Graph<Integer> g = new Graph<>();
-        Scanner in = new Scanner(new FileReader("./testData/graph/SCC.txt"));
-        IntStream.range(1, 875715).forEach(
-                i -> g.addNode(i)
-        );
+    /**
+     * Strongly connected components of a {@link CsrGraph} by Tarjan's algorithm, in a single DFS.
+     * The DFS runs on an explicit stack of nodes, the next slot of every node in an array,
+     * so the Java stack depth is constant whatever the depth of the DFS.
+     * Running time O(n + m), 6 arrays of n ints.
+     *
+     * @return components numbered in reverse topological order: an edge between two components goes
+     * from the larger id to the smaller
+     */
+    public static SccResult tarjan(CsrGraph g) {
+        final int n = g.nodeNum();
+        final int[] offsets = g.offsets(), targets = g.targets();
+        int[] index = new int[n];      // DFS discovery order, plus 1: 0 is not discovered
+        int[] low = new int[n];        // smallest index reachable through the DFS subtree and one back edge
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] calls = new int[n];      // DFS path
+        int[] stack = new int[n];      // discovered nodes not assigned a component yet
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        int counter = 0, componentNum = 0;
+        for (int start = 0; start < n; start++) {
+            if (index[start] != 0) continue;
+            int callTop = 0, top = 0;
+            index[start] = low[start] = ++counter;
+            calls[callTop++] = start;
+            stack[top++] = start;
+            while (callTop > 0) {
+                final int v = calls[callTop - 1];
+                if (next[v] < offsets[v + 1]) {
+                    final int w = targets[next[v]++];
+                    if (index[w] == 0) {
+                        index[w] = low[w] = ++counter;
+                        calls[callTop++] = w;
+                        stack[top++] = w;
+                    } else if (components[w] < 0) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                callTop--;
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--top];
+                        components[w] = componentNum;
+                    } while (w != v);
+                    componentNum++;
+                }
+                if (callTop > 0) {
+                    final int parent = calls[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return new SccResult(components, componentNum);
+    }
 
-        while (in.hasNextLine()) {
-            String[] inp = in.nextLine().trim().split("\\s+");
-            System.out.println(Arrays.toString(inp));
-            g.addEdge(Integer.valueOf(inp[0]), Integer.valueOf(inp[1]));
+    /**
+     * Strongly connected components of a {@link CsrGraph} by Kosaraju's algorithm, as
+     * the recursive DFS of the Graph used to: a first DFS loop on the in edges orders the nodes
+     * by finishing time, a second one on the out edges from the last finished node collects the components.
+     * Both DFS run on an explicit stack of nodes, the next slot of every node in an array.
+     *
+     * @return components numbered in reverse topological order, as by Tarjan's algorithm:
+     * the second loop starts from a sink component of the graph
+     */
+    public static SccResult kosaraju(CsrGraph g) {
+        final int n = g.nodeNum();
+        final CsrGraph reverse = g.transpose();
+        final int[] reverseOffsets = reverse.offsets(), reverseTargets = reverse.targets();
+        int[] stack = new int[n];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        boolean[] searched = new boolean[n];
+        int[] finishingOrder = new int[n];
+        int finished = 0;
+        for (int start = 0; start < n; start++) {
+            if (searched[start]) continue;
+            searched[start] = true;
+            int top = 0;
+            stack[top++] = start;
+            while (top > 0) {
+                final int v = stack[top - 1];
+                if (next[v] < reverseOffsets[v + 1]) {
+                    final int w = reverseTargets[next[v]++];
+                    if (!searched[w]) {
+                        searched[w] = true;
+                        stack[top++] = w;
+                    }
+                } else {
+                    top--;
+                    finishingOrder[finished++] = v;
+                }
+            }
+        }
+
+        // every node reached from a leader in the second loop is in its component,
+        // the order of the search does not matter any more
+        final int[] offsets = g.offsets(), targets = g.targets();
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        int componentNum = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            final int leader = finishingOrder[i];
+            if (components[leader] >= 0) continue;
+            final int c = componentNum++;
+            components[leader] = c;
+            int top = 0;
+            stack[top++] = leader;
+            while (top > 0) {
+                final int v = stack[--top];
+                for (int s = offsets[v]; s < offsets[v + 1]; s++) {
+                    final int w = targets[s];
+                    if (components[w] < 0) {
+                        components[w] = c;
+                        stack[top++] = w;
+                    }
+                }
+            }
         }
-        List<Integer> out = g.computeForStronglyConnectedComponent().values().stream().filter(i -> i > 100).collect(Collectors.toList());
-        Collections.sort(out);
+        return new SccResult(components, componentNum);
     }
 
+    /**
+     * Dijkstra's shortest path on a {@link CsrGraph} from given node, on a priority queue
+     * created by given factory from the number of nodes, by a {@link ShortestPathEngine}
+     * for a single query. An unweighted graph has edges of length 1.
+     *
+     * @return shortest distance to every node, Long.MAX_VALUE for the nodes not reachable
+     * @throws IllegalArgumentException if an edge reached has a negative length
+     */
+    public static long[] computeShortestPath(CsrGraph g, int source, IntFunction<? extends IndexedPriorityQueue> queueFactory) {
+        ShortestPathEngine engine = new ShortestPathEngine(g, queueFactory);
+        engine.run(source);
+        return engine.distances();
+    }
+
+    public static void testSCC() throws Exception {
+        int[][] edges = FastLoader.readTable("./testData/graph/SCC.txt").columns(0, 2);
+        int nodeNum = Math.max(Arrays.stream(edges[0]).max().orElse(0), Arrays.stream(edges[1]).max().orElse(0));
+        // nodes are numbered from 1
+        for (int e = 0; e < edges[0].length; e++) {
+            edges[0][e]--;
+            edges[1][e]--;
+        }
+        SccResult scc = tarjan(CsrGraph.directed(nodeNum, edges[0], edges[1]));
+        List<Integer> out = Arrays.stream(scc.sizes()).filter(i -> i > 100).boxed().collect(Collectors.toList());
+        Collections.sort(out, Collections.reverseOrder());
+        System.out.println(out.subList(0, Math.min(5, out.size())));
+    }
     public static void main(String[] args) throws Exception {
         Graph<Integer> g = new Graph<>();
         IntStream.range(1, 201).forEach(
                 i -> g.addNode(i)
         );
-        Scanner in = new Scanner(new FileReader("./testData/graph/dijkstraData.txt"));
-        while (in.hasNextLine()) {
-            List<String> input = Stream
-                    .of(in.nextLine().trim().split("\\s+"))
-                    .collect(Collectors.toList());
-            Iterator<String> it = input.listIterator(0);
-            int fist = Integer.valueOf(it.next());
-            while(it.hasNext()) {
-                String[] next = it.next().split(",");
-                g.addEdge(fist, Integer.valueOf(next[0]), Integer.valueOf(next[1]));
-            }
+        // every line is a node followed by pairs "head,length"
+        FastLoader.Table in = FastLoader.readTable("./testData/graph/dijkstraData.txt");
+        for (int line = 0; line < in.lineCount(); line++) {
+            int fist = in.get(line, 0);
+            for (int k = 1; k + 1 < in.lineLength(line); k += 2)
+                g.addEdge(fist, in.get(line, k), in.get(line, k + 1));
         }
         Map<Integer, Double> map = g.computeShortestPath(1);
         IntStream.of(7,37,59,82,99,115,133,165,188,197).forEach(
@@ -3,8 +3,19 @@ package heap;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
+import util.ResizePolicy;
+
+/**
+ * Heap of elements that track their own position, so an arbitrary element
+ * can be deleted or have its key changed in O(log(n)).
+ * <p>
+ * Arity and cache alignment of the layout can be chosen at construction,
+ * see {@link BinaryHeap}, as well as the initial capacity and {@link ResizePolicy}
+ * of the backing array.
+ */
 public class AugmentedBinaryHeap<T extends AugmentedBinaryHeap.Element> {
 
     public interface Element {
@@ -25,45 +36,87 @@ public class AugmentedBinaryHeap<T extends AugmentedBinaryHeap.Element> {
     private Element[] vals;
     private int size;
     private Comparator<? super T> comparator;
+    private final int arity;
+    private final int shift;   // log2(arity)
+    private final int offset;  // index of the root
+    private final ResizePolicy policy;
+    private final int minCapacity;
 
-    // RI:  binary heap using array:
-    //      root at 0
+    // RI:  d-ary heap using array, d = arity:
+    //      root at offset, node i at index (offset + i)
     //      node i
-    //          + as a parent, it has two child at (2i + 1) and (2i + 2)
-    //          + as a child, it has parent at [(i - 1)/2]
+    //          + as a parent, it has d children at (d*i + 1) ... (d*i + d)
+    //          + as a child, it has parent at [(i - 1)/d]
     //      parent <= child
-    private void checkRep() {
-        for (int i = 0; i < size - 2; i++)
-            checkParent(i);
-        for (int i = size; i < vals.length; i++)
+    //      vals[j] == null for j outside [offset, offset + size)
+    //      vals[j].getPosition() == j
+    // Only called as "assert checkRep()", so it costs nothing unless assertions are enabled (-ea)
+    private boolean checkRep() {
+        for (int i = offset + 1; i < offset + size; i++)
+            assert lt(vals[parent(i)], vals[i]);
+        for (int i = 0; i < offset; i++)
+            assert vals[i] == null;
+        for (int i = offset + size; i < vals.length; i++)
             assert vals[i] == null;
-        assert size <= vals.length;
+        assert offset + size <= vals.length;
         assert size >= 0;
 
-        for(int i = 0; i < size(); i++)
+        for(int i = offset; i < offset + size; i++)
             assert i == vals[i].getPosition();
+        return true;
     }
 
-    private void checkParent(int i) {
-        int leftChild = 2 * i + 1;
-        int rightChild = 2 * i + 2;
-        if (leftChild < size ) assert lt(i, leftChild);
-        if (rightChild < size) assert lt(i, rightChild);
+    public AugmentedBinaryHeap(Comparator<? super T> comparator) {
+        this(comparator, 2, false);
     }
 
-    public AugmentedBinaryHeap(Comparator<? super T> comparator) {
+    /**
+     * @param arity        number of children per node, a power of two (2, 4, 8 ...)
+     * @param cacheAligned align every group of siblings to a multiple of arity in the backing array
+     */
+    public AugmentedBinaryHeap(Comparator<? super T> comparator, int arity, boolean cacheAligned) {
+        this(comparator, arity, cacheAligned, 1, ResizePolicy.QUADRUPLE);
+    }
+
+    /**
+     * @param initialCapacity number of elements the heap holds without resizing,
+     *                        the heap never shrinks below this capacity except on trimToSize
+     * @param policy          growth and shrink rule of the backing array
+     */
+    public AugmentedBinaryHeap(Comparator<? super T> comparator, int arity, boolean cacheAligned,
+                               int initialCapacity, ResizePolicy policy) {
         Objects.requireNonNull(comparator);
-        vals = new Element[1];
-        this.size = 0;
+        if (arity < 2 || Integer.bitCount(arity) != 1)
+            throw new IllegalArgumentException("Arity must be a power of two");
+        if (initialCapacity < 1) throw new IllegalArgumentException("Invalid capacity");
         this.comparator = comparator;
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.offset = cacheAligned ? arity - 1 : 0;
+        this.policy = Objects.requireNonNull(policy);
+        this.minCapacity = initialCapacity;
+        this.vals = new Element[offset + initialCapacity];
+        this.size = 0;
     }
 
-    private void resize(int newSize) {
-        Element[] copy = new Element[newSize];
-        System.arraycopy(vals, 0, copy, 0, size);
+    private void resize(int newCapacity) {
+        Element[] copy = new Element[offset + newCapacity];
+        System.arraycopy(vals, offset, copy, offset, size);
         vals = copy;
     }
 
+    private int capacity() {
+        return vals.length - offset;
+    }
+
+    /**
+     * Shrink the backing array to the number of elements (at least 1)
+     */
+    public void trimToSize() {
+        if (capacity() > Math.max(size, 1)) resize(Math.max(size, 1));
+        assert checkRep();
+    }
+
     public boolean isEmpty() {
         return size == 0;
     }
@@ -72,61 +125,73 @@ public class AugmentedBinaryHeap<T extends AugmentedBinaryHeap.Element> {
         return size;
     }
 
-    /**
-     * Check if vals[i] is less than vals[t]
-     */
-    private boolean lt(int i, int t) {
-        return comparator.compare((T) vals[i], (T) vals[t]) <= 0;
+    public int arity() {
+        return arity;
     }
 
-    private void swap(final int i,final int t) {
-        Element tVal = vals[t];
-        Element iVal = vals[i];
-        tVal.setPosition(i);
-        iVal.setPosition(t);
-        vals[i] = tVal;
-        vals[t] = iVal;
+    private int parent(int i) {
+        return ((i - offset - 1) >> shift) + offset;
     }
 
+    /**
+     * Check if a is less than or equal to b
+     */
+    private boolean lt(Element a, Element b) {
+        return comparator.compare((T) a, (T) b) <= 0;
+    }
 
-    /**Bubble up element at index i */
+    /**Bubble up element at index i, moving a hole instead of swapping */
     private void swim(int i) {
-        int parent = (i - 1) / 2;
-        if (!lt(parent, i)) swap(i, parent);
-        if (parent != 0) swim(parent);
+        final Element v = vals[i];
+        while (i > offset) {
+            int parent = parent(i);
+            Element p = vals[parent];
+            if (lt(p, v)) break;
+            vals[i] = p;
+            p.setPosition(i);
+            i = parent;
+        }
+        vals[i] = v;
+        v.setPosition(i);
     }
 
-    /** Bubble down element at index i*/
+    /** Bubble down element at index i, moving a hole instead of swapping */
     private void sink(int i) {
-        int lChild = i * 2 + 1;
-        int rChild = i * 2 + 2;
-        int selected = -1;
-        if (lChild < size) {
-            if(rChild < size) selected = lt(lChild, rChild) ? lChild : rChild;
-            else selected = lChild;
-        }
-        if(selected != -1 && !lt(i, selected)) {
-            swap(i, selected);
-            sink(selected);
+        final Element v = vals[i];
+        final int end = offset + size;
+        // node k has children iff d*k + 1 < size, computed without overflow
+        final int lastParent = (size - 2) >> shift;
+        while (i - offset <= lastParent) {
+            int child = ((i - offset) << shift) + 1 + offset;
+            int last = Math.min(child + arity, end);
+            for (int c = child + 1; c < last; c++)
+                if (!lt(vals[child], vals[c])) child = c;
+            Element c = vals[child];
+            if (lt(v, c)) break;
+            vals[i] = c;
+            c.setPosition(i);
+            i = child;
         }
+        vals[i] = v;
+        v.setPosition(i);
     }
 
     /** Insert a value into this heap
      *  Running time O(log(n))
      * */
     public void insert(T value) {
-        if (size == vals.length) resize(size * 4);
+        if (size == capacity()) resize(policy.grownCapacity(size, size + 1));
 
-        vals[size] = value;
-        value.setPosition(size);
+        vals[offset + size] = value;
+        value.setPosition(offset + size);
 
-        swim(size++);
-        checkRep();
+        swim(offset + size++);
+        assert checkRep();
     }
 
     public T getMin() {
-        checkRep();
-        return (T) vals[0];
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return (T) vals[offset];
     }
 
     /**
@@ -134,45 +199,82 @@ public class AugmentedBinaryHeap<T extends AugmentedBinaryHeap.Element> {
      * Running time O(log(n))
      */
     public T delMin() {
-        return delete(0);
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return delete(offset);
     }
 
     private T delete(int index) {
-        if(index < 0 || index >= size())
+        if(index < offset || index >= offset + size)
             throw new IllegalArgumentException("Index out of bound");
 
-        if (size == vals.length/4) resize(vals.length/2);
-
         Element deleted = vals[index];
-
-        if(index == size() - 1) {
-            vals[--size] = null;
-            return (T) deleted;
-        } else {
-            Element last = vals[size - 1];
+        Element last = vals[offset + size - 1];
+        vals[offset + --size] = null;
+        if (last != deleted) {
             last.setPosition(index);
             vals[index] = last;
-            vals[--size] = null;
             swim(last.getPosition());
             sink(last.getPosition());
-            checkRep();
-            return (T) deleted;
         }
+
+        int newCapacity = policy.shrunkCapacity(size, capacity(), minCapacity);
+        if (newCapacity != capacity()) resize(newCapacity);
+        assert checkRep();
+        return (T) deleted;
     }
 
     public T delete(T element) {
         return delete(element.getPosition());
     }
 
+    private int positionOf(T element) {
+        int i = element.getPosition();
+        if (i < offset || i >= offset + size || vals[i] != element)
+            throw new IllegalArgumentException("Element is not in this heap");
+        return i;
+    }
+
+    /**
+     * Restore heap order after the key of given element has been decreased
+     * Running time O(log(n))
+     */
+    public void decreaseKey(T element) {
+        swim(positionOf(element));
+        assert checkRep();
+    }
+
+    /**
+     * Restore heap order after the key of given element has been increased
+     * Running time O(log(n))
+     */
+    public void increaseKey(T element) {
+        sink(positionOf(element));
+        assert checkRep();
+    }
+
+    /**
+     * Restore heap order after the key of given element has changed in either direction
+     * Running time O(log(n))
+     */
+    public void update(T element) {
+        int i = positionOf(element);
+        swim(i);
+        sink(element.getPosition());
+        assert checkRep();
+    }
+
     public static <T extends Element> AugmentedBinaryHeap<T> heapify(Collection<? extends T> elem, Comparator<? super T> comparator) {
-        Element[] values = new Element[elem.size()];
+        Element[] values = new Element[Math.max(1, elem.size())];
         int i = 0;
         for(T e : elem) values[i++] = e;
         AugmentedBinaryHeap<T> bh = new AugmentedBinaryHeap<>(comparator);
         bh.vals = values;
         bh.size = elem.size();
-        for(int o = elem.size()/2; o >= 0; o--)
+        for(int o = 0; o < bh.size; o++)
+            values[o].setPosition(o);
+        for(int o = elem.size()/2 - 1; o >= 0; o--)
             bh.sink(o);
+        assert bh.checkRep();
         return bh;
     }
 
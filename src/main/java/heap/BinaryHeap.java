@@ -4,55 +4,116 @@ package heap;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
+import util.ResizePolicy;
+
+/**
+ * Array based heap, binary by default.
+ * <p>
+ * The arity (number of children per node) can be set to any power of two at
+ * construction: a 4-ary or 8-ary heap has fewer levels, so fewer cache misses
+ * per operation on large heaps, at the price of more comparisons per level in delMin.
+ * With cache alignment, the root is shifted to index (arity - 1) so that every
+ * group of siblings starts at a multiple of arity in the backing array and
+ * is never split across two cache lines (relative to the start of the array).
+ * <p>
+ * The backing array grows x4 and shrinks at 1/4 by default; an initial capacity
+ * and a {@link ResizePolicy} can be given at construction to avoid copies under
+ * oscillating load.
+ */
 public class BinaryHeap<T extends Comparable<T>> {
 
     private Object[] vals;
     private int size;
     private Comparator<? super T> comparator;
+    private final int arity;
+    private final int shift;   // log2(arity)
+    private final int offset;  // index of the root
+    private final ResizePolicy policy;
+    private final int minCapacity;
 
-    // RI:  binary heap using array:
-    //      root at 0
+    // RI:  d-ary heap using array, d = arity:
+    //      root at offset, node i at index (offset + i)
     //      node i
-    //          + as a parent, it has two child at (2i + 1) and (2i + 2)
-    //          + as a child, it has parent at [(i - 1)/2]
+    //          + as a parent, it has d children at (d*i + 1) ... (d*i + d)
+    //          + as a child, it has parent at [(i - 1)/d]
     //      parent <= child
-    private void checkRep() {
-        for (int i = 0; i < size - 2; i++)
-            checkParent(i);
-        for (int i = size; i < vals.length; i++)
+    //      vals[j] == null for j outside [offset, offset + size)
+    // Only called as "assert checkRep()", so it costs nothing unless assertions are enabled (-ea)
+    private boolean checkRep() {
+        for (int i = offset + 1; i < offset + size; i++)
+            assert lt(vals[parent(i)], vals[i]) : vals[parent(i)] + " " + vals[i];
+        for (int i = 0; i < offset; i++)
+            assert vals[i] == null;
+        for (int i = offset + size; i < vals.length; i++)
             assert vals[i] == null;
-        assert size <= vals.length;
+        assert offset + size <= vals.length;
         assert size >= 0;
-    }
-    private void checkParent(int i) {
-        int leftChild = 2 * i + 1;
-        int rightChild = 2 * i + 2;
-        if (leftChild < size && !lt(i, leftChild)) {
-            System.out.println(vals[i] + " " + vals[leftChild]);
-            throw new RuntimeException();
-        }
-        if (rightChild < size) assert lt(i, rightChild);
+        return true;
     }
 
     public BinaryHeap() {
-        vals = new Object[1];
-        this.size = 0;
+        this(null);
     }
 
     public BinaryHeap(Comparator<? super T> comparator) {
-        vals = new Object[1];
-        this.size = 0;
+        this(comparator, 2, false);
+    }
+
+    /**
+     * @param comparator   ordering of the elements, natural ordering if null
+     * @param arity        number of children per node, a power of two (2, 4, 8 ...)
+     * @param cacheAligned align every group of siblings to a multiple of arity in the backing array
+     */
+    public BinaryHeap(Comparator<? super T> comparator, int arity, boolean cacheAligned) {
+        this(comparator, arity, cacheAligned, 1, ResizePolicy.QUADRUPLE);
+    }
+
+    /**
+     * @param initialCapacity number of elements the heap holds without resizing,
+     *                        the heap never shrinks below this capacity except on trimToSize
+     * @param policy          growth and shrink rule of the backing array
+     */
+    public BinaryHeap(Comparator<? super T> comparator, int arity, boolean cacheAligned,
+                      int initialCapacity, ResizePolicy policy) {
+        if (arity < 2 || Integer.bitCount(arity) != 1)
+            throw new IllegalArgumentException("Arity must be a power of two");
+        if (initialCapacity < 1) throw new IllegalArgumentException("Invalid capacity");
         this.comparator = comparator;
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.offset = cacheAligned ? arity - 1 : 0;
+        this.policy = Objects.requireNonNull(policy);
+        this.minCapacity = initialCapacity;
+        this.vals = new Object[offset + initialCapacity];
+        this.size = 0;
     }
 
-    private void resize(int newSize) {
-        Object[] copy = new Object[newSize];
-        System.arraycopy(vals, 0, copy, 0, size);
+    private void resize(int newCapacity) {
+        Object[] copy = new Object[offset + newCapacity];
+        System.arraycopy(vals, offset, copy, offset, size);
         vals = copy;
     }
 
+    private int capacity() {
+        return vals.length - offset;
+    }
+
+    private void shrinkIfSparse() {
+        int newCapacity = policy.shrunkCapacity(size, capacity(), minCapacity);
+        if (newCapacity != capacity()) resize(newCapacity);
+    }
+
+    /**
+     * Shrink the backing array to the number of elements (at least 1)
+     */
+    public void trimToSize() {
+        if (capacity() > Math.max(size, 1)) resize(Math.max(size, 1));
+        assert checkRep();
+    }
+
     public boolean isEmpty() {
         return size == 0;
     }
@@ -61,57 +122,71 @@ public class BinaryHeap<T extends Comparable<T>> {
         return size;
     }
 
-    /**
-     * Check if vals[i] is less than vals[t]
-     */
-    private boolean lt(int i, int t) {
-        if(comparator != null) return comparator.compare((T) vals[i],(T) vals[t]) <= 0;
-        else return ((T) vals[i]).compareTo((T) vals[t]) <= 0;
+    public int arity() {
+        return arity;
     }
 
-    private void swap(int i, int t) {
-        Object tVal = vals[t];
-        vals[t] = vals[i];
-        vals[i] = tVal;
+    private int parent(int i) {
+        return ((i - offset - 1) >> shift) + offset;
     }
 
+    @SuppressWarnings("unchecked")  // vals only holds elements of type T
+    private T elementAt(int i) {
+        return (T) vals[i];
+    }
 
-    /**Bubble up element at index i */
+    /**
+     * Check if a is less than or equal to b
+     */
+    private boolean lt(Object a, Object b) {
+        if(comparator != null) return comparator.compare((T) a, (T) b) <= 0;
+        else return ((T) a).compareTo((T) b) <= 0;
+    }
+
+    /**Bubble up element at index i, moving a hole instead of swapping */
     private void swim(int i) {
-        int parent = (i - 1) / 2;
-        if (!lt(parent, i)) swap(i, parent);
-        if (parent != 0) swim(parent);
+        final Object v = vals[i];
+        while (i > offset) {
+            int parent = parent(i);
+            if (lt(vals[parent], v)) break;
+            vals[i] = vals[parent];
+            i = parent;
+        }
+        vals[i] = v;
     }
 
-    /** Bubble down element at index i*/
+    /** Bubble down element at index i, moving a hole instead of swapping */
     private void sink(int i) {
-        int lChild = i * 2 + 1;
-        int rChild = i * 2 + 2;
-        int selected = -1;
-        if (lChild < size) {
-            if(rChild < size) selected = lt(lChild, rChild) ? lChild : rChild;
-            else selected = lChild;
-        }
-        if(selected != -1 && !lt(i, selected)) {
-            swap(i, selected);
-            sink(selected);
+        final Object v = vals[i];
+        final int end = offset + size;
+        // node k has children iff d*k + 1 < size, computed without overflow
+        final int lastParent = (size - 2) >> shift;
+        while (i - offset <= lastParent) {
+            int child = ((i - offset) << shift) + 1 + offset;
+            int last = Math.min(child + arity, end);
+            for (int c = child + 1; c < last; c++)
+                if (!lt(vals[child], vals[c])) child = c;
+            if (lt(v, vals[child])) break;
+            vals[i] = vals[child];
+            i = child;
         }
+        vals[i] = v;
     }
 
     /** Insert a value into this heap
      *  Running time O(log(n))
      * */
     public void insert(T value) {
-        if (size == vals.length)
-            resize(size * 4);
-        vals[size] = value;
-        swim(size++);
-        checkRep();
+        if (size == capacity())
+            resize(policy.grownCapacity(size, size + 1));
+        vals[offset + size] = value;
+        swim(offset + size++);
+        assert checkRep();
     }
 
     public T getMin() {
-        checkRep();
-        return (T) vals[0];
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return (T) vals[offset];
     }
 
     /**
@@ -119,29 +194,135 @@ public class BinaryHeap<T extends Comparable<T>> {
      * Running time O(log(n))
      */
     public T delMin() {
-        if (size == vals.length/4) resize(vals.length/2);
-        Object min = vals[0];
-        vals[0] = vals[size - 1];
-        vals[--size] = null;
-        sink(0);
-        checkRep();
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        Object min = vals[offset];
+        vals[offset] = vals[offset + size - 1];
+        vals[offset + --size] = null;
+        if (size > 0) sink(offset);
+        shrinkIfSparse();
+        assert checkRep();
         return (T) min;
     }
 
+    private void ensureCapacity(int required) {
+        if (required > capacity())
+            resize(policy.grownCapacity(capacity(), required));
+    }
+
+    /**
+     * Insert all values of given collection into this heap.
+     * Running time O(k + log(n) * log(k)) for k values, see {@link #repairAppended(int)}
+     */
+    public void insertAll(Collection<? extends T> values) {
+        ensureCapacity(size + values.size());
+        final int from = size;
+        for (T value : values) vals[offset + size++] = value;
+        repairAppended(from);
+        assert checkRep();
+    }
+
+    /**
+     * Insert values[from, to) into this heap.
+     * Running time O(k + log(n) * log(k)) for k = to - from values, see {@link #repairAppended(int)}
+     */
+    public void insertAll(T[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) throw new IndexOutOfBoundsException();
+        ensureCapacity(size + to - from);
+        System.arraycopy(values, from, vals, offset + size, to - from);
+        final int first = size;
+        size += to - from;
+        repairAppended(first);
+        assert checkRep();
+    }
+
+    /**
+     * Restore heap order after nodes [from, size) have been appended.
+     * When the batch is at least as large as the existing heap, rebuild the whole heap
+     * as heapify does. Otherwise only repair the ancestors of the new nodes, bottom-up
+     * one level at a time: the parents of a range of nodes form a range, which shrinks
+     * by a factor d per level until it contains a single node.
+     */
+    private void repairAppended(int from) {
+        int k = size - from;
+        if (k == 0) return;
+        if (k == 1) {
+            swim(offset + from);
+            return;
+        }
+        if (k >= from) {
+            for (int o = ((size - 2) >> shift); o >= 0; o--)
+                sink(offset + o);
+            return;
+        }
+        int lo = (from - 1) >> shift;
+        int hi = (size - 2) >> shift;
+        while (true) {
+            // children have larger indices, so each node is sunk after its children
+            for (int o = hi; o >= lo; o--)
+                sink(offset + o);
+            if (lo == 0) break;
+            lo = (lo - 1) >> shift;
+            hi = (hi - 1) >> shift;
+        }
+    }
+
+    /**
+     * Delete the k smallest elements of this heap (all of them if k >= size)
+     * and add them in increasing order to given sink.
+     * The backing array is shrunk at most once, at the end.
+     *
+     * @return number of elements moved to the sink
+     */
+    public int drainTo(Collection<? super T> sink, int k) {
+        if (k < 0) throw new IllegalArgumentException("Negative count");
+        int count = Math.min(k, size);
+        for (int i = 0; i < count; i++) {
+            sink.add(elementAt(offset));
+            vals[offset] = vals[offset + size - 1];
+            vals[offset + --size] = null;
+            if (size > 0) sink(offset);
+        }
+        if (count > 0) shrinkIfSparse();
+        assert checkRep();
+        return count;
+    }
+
+    /**
+     * Delete the minimum element and insert given value with a single sink,
+     * cheaper than delMin followed by insert
+     * Running time O(log(n))
+     *
+     * @return the deleted minimum
+     */
+    public T replaceMin(T value) {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        final T min = elementAt(offset);
+        vals[offset] = value;
+        sink(offset);
+        assert checkRep();
+        return min;
+    }
+
+    /** Elements of this heap in array order */
+    Object[] toArray() {
+        return Arrays.copyOfRange(vals, offset, offset + size);
+    }
+
     public static <T extends Comparable<T>> BinaryHeap<T> heapify(Collection<? extends T> elem) {
         return heapify(elem, null);
     }
 
     public static <T extends Comparable<T>> BinaryHeap<T> heapify(Collection<? extends T> elem, Comparator<? super T> comparator) {
-        Object[] values = new Object[elem.size()];
+        Object[] values = new Object[Math.max(1, elem.size())];
         int i = 0;
         for(T e : elem) values[i++] = e;
         BinaryHeap<T> bh = new BinaryHeap<>();
         bh.comparator = comparator;
         bh.vals = values;
         bh.size = elem.size();
-        for(int o = elem.size()/2; o >= 0; o--)
+        for(int o = elem.size()/2 - 1; o >= 0; o--)
             bh.sink(o);
+        assert bh.checkRep();
         return bh;
     }
 
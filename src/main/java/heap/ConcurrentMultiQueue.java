@@ -0,0 +1,152 @@
+package heap;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Relaxed concurrent priority queue (MultiQueue) with the insert/delMin API of {@link BinaryHeap}.
+ * <p>
+ * Elements are spread over several {@link BinaryHeap}s, each guarded by its own lock.
+ * insert locks a random heap, trying another one if the lock is taken, so producers
+ * almost never wait for each other.
+ * delMin looks at the cached minimum of two random heaps and deletes from the better one.
+ * <p>
+ * The order is relaxed: delMin returns one of the smallest elements, not always the
+ * smallest one; the expected rank of the returned element is O(number of heaps).
+ * With a single heap the order is exact.
+ */
+public class ConcurrentMultiQueue<T extends Comparable<T>> {
+
+    private static final class Queue<T extends Comparable<T>> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final BinaryHeap<T> heap;
+        // minimum of heap, null if empty, read without holding the lock
+        private volatile T top;
+
+        Queue(Comparator<? super T> comparator) {
+            this.heap = new BinaryHeap<T>(comparator, 4, false);
+        }
+
+        /** Must be called with the lock held */
+        private void updateTop() {
+            top = heap.isEmpty() ? null : heap.getMin();
+        }
+    }
+
+    private final Queue<T>[] queues;
+    private final Comparator<? super T> comparator;
+    private final LongAdder size = new LongAdder();
+
+    public ConcurrentMultiQueue() {
+        this(2 * Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * @param queueNum   number of internal heaps, usually a small multiple of the number of threads
+     * @param comparator ordering of the elements, natural ordering if null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})  // arrays of a generic type are created raw, every slot holds a Queue<T>
+    public ConcurrentMultiQueue(int queueNum, Comparator<? super T> comparator) {
+        if (queueNum < 1) throw new IllegalArgumentException("Invalid number of queues");
+        this.comparator = comparator;
+        this.queues = new Queue[queueNum];
+        for (int i = 0; i < queueNum; i++)
+            queues[i] = new Queue<T>(comparator);
+    }
+
+    private int compare(T a, T b) {
+        return comparator != null ? comparator.compare(a, b) : a.compareTo(b);
+    }
+
+    /**
+     * Number of elements, exact only when no other thread is updating this queue
+     */
+    public int size() {
+        return (int) size.sum();
+    }
+
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    /** Insert a value into this queue
+     *  Running time O(log(n / queueNum)), without waiting for other producers
+     * */
+    public void insert(T value) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Queue<T> q = queues[random.nextInt(queues.length)];
+            if (q.lock.tryLock()) {
+                try {
+                    q.heap.insert(value);
+                    T top = q.top;
+                    if (top == null || compare(value, top) < 0) q.top = value;
+                    // counted before the value can be polled, so the size never goes negative
+                    size.increment();
+                } finally {
+                    q.lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delete one of the smallest elements in this queue
+     *
+     * @throws NoSuchElementException if this queue is empty
+     */
+    public T delMin() {
+        T min = pollMin();
+        if (min == null) throw new NoSuchElementException("Queue is empty");
+        return min;
+    }
+
+    /**
+     * Delete one of the smallest elements in this queue
+     *
+     * @return the deleted element, or null if this queue is empty
+     */
+    public T pollMin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < 4 * queues.length; attempt++) {
+            Queue<T> a = queues[random.nextInt(queues.length)];
+            Queue<T> b = queues[random.nextInt(queues.length)];
+            T topA = a.top;
+            T topB = b.top;
+            if (topA == null && topB == null) continue;
+            Queue<T> q = topA == null ? b : topB == null ? a : compare(topA, topB) <= 0 ? a : b;
+            T min = tryDelMin(q);
+            if (min != null) return min;
+        }
+        // the random choices keep missing, fall back to a scan of every heap
+        for (Queue<T> q : queues) {
+            q.lock.lock();
+            try {
+                if (!q.heap.isEmpty()) return delMinLocked(q);
+            } finally {
+                q.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    private T tryDelMin(Queue<T> q) {
+        if (!q.lock.tryLock()) return null;
+        try {
+            return q.heap.isEmpty() ? null : delMinLocked(q);
+        } finally {
+            q.lock.unlock();
+        }
+    }
+
+    private T delMinLocked(Queue<T> q) {
+        T min = q.heap.delMin();
+        q.updateTop();
+        size.decrement();
+        return min;
+    }
+}
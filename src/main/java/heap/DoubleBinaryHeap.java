@@ -0,0 +1,157 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary heap of primitive {@code double} keys.
+ * <p>
+ * Same layout and API as {@link BinaryHeap}, but keys are stored unboxed
+ * in an {@code double[]} so no allocation happens per insert or comparison.
+ * Ordering is either natural (min heap) or reversed (max heap), in which
+ * case {@link #getMin()} and {@link #delMin()} refer to the top of the heap,
+ * that is the largest key.
+ */
+public class DoubleBinaryHeap {
+
+    private double[] vals;
+    private int size;
+    private final boolean max;
+    private final int minCapacity;
+
+    // RI:  binary heap using array:
+    //      root at 0
+    //      node i
+    //          + as a parent, it has two child at (2i + 1) and (2i + 2)
+    //          + as a child, it has parent at [(i - 1)/2]
+    //      parent <= child (parent >= child for a max heap)
+    private boolean checkRep() {
+        for (int i = 1; i < size; i++)
+            assert lt(vals[(i - 1) / 2], vals[i]);
+        assert size <= vals.length;
+        assert size >= 0;
+        return true;
+    }
+
+    public DoubleBinaryHeap() {
+        this(false);
+    }
+
+    /**
+     * @param maxHeap if true, the largest key is at the top of the heap
+     */
+    public DoubleBinaryHeap(boolean maxHeap) {
+        this(1, maxHeap);
+    }
+
+    /**
+     * @param initialCapacity number of keys this heap can hold before growing,
+     *                        the heap never shrinks below this capacity
+     * @param maxHeap if true, the largest key is at the top of the heap
+     */
+    public DoubleBinaryHeap(int initialCapacity, boolean maxHeap) {
+        if (initialCapacity < 1) throw new IllegalArgumentException("Invalid capacity");
+        this.vals = new double[initialCapacity];
+        this.size = 0;
+        this.max = maxHeap;
+        this.minCapacity = initialCapacity;
+    }
+
+    private void resize(int newSize) {
+        vals = Arrays.copyOf(vals, newSize);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isMaxHeap() {
+        return max;
+    }
+
+    /**
+     * Check if a should be placed above b
+     */
+    private boolean lt(double a, double b) {
+        return max ? Double.compare(a, b) >= 0 : Double.compare(a, b) <= 0;
+    }
+
+    /** Bubble up element at index i */
+    private void swim(int i) {
+        final double v = vals[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (lt(vals[parent], v)) break;
+            vals[i] = vals[parent];
+            i = parent;
+        }
+        vals[i] = v;
+    }
+
+    /** Bubble down element at index i */
+    private void sink(int i) {
+        final double v = vals[i];
+        final int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && !lt(vals[child], vals[right])) child = right;
+            if (lt(v, vals[child])) break;
+            vals[i] = vals[child];
+            i = child;
+        }
+        vals[i] = v;
+    }
+
+    /** Insert a value into this heap
+     *  Running time O(log(n))
+     * */
+    public void insert(double value) {
+        if (size == vals.length) resize(size * 4);
+        vals[size] = value;
+        swim(size++);
+        assert checkRep();
+    }
+
+    public double getMin() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return vals[0];
+    }
+
+    /**
+     * Delete minimum (maximum for a max heap) element in this heap
+     * Running time O(log(n))
+     */
+    public double delMin() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        if (size == vals.length / 4 && vals.length / 2 >= minCapacity) resize(vals.length / 2);
+        double min = vals[0];
+        vals[0] = vals[--size];
+        if (size > 0) sink(0);
+        assert checkRep();
+        return min;
+    }
+
+    public static DoubleBinaryHeap heapify(double[] elem) {
+        return heapify(elem, false);
+    }
+
+    public static DoubleBinaryHeap heapify(double[] elem, boolean maxHeap) {
+        DoubleBinaryHeap bh = new DoubleBinaryHeap(maxHeap);
+        if (elem.length > 0) bh.vals = Arrays.copyOf(elem, elem.length);
+        bh.size = elem.length;
+        for (int o = elem.length / 2 - 1; o >= 0; o--)
+            bh.sink(o);
+        assert bh.checkRep();
+        return bh;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(vals, size));
+    }
+}
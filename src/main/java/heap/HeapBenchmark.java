@@ -0,0 +1,366 @@
+package heap;
+
+import selectedproblem.Discrete;
+
+import java.io.FileReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Micro benchmarks for the heap package, run with {@code main}.
+ * Every benchmark warms up first, then reports the average over the measured rounds.
+ */
+public class HeapBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes() {
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static int[] readInts(String filePath) throws Exception {
+        Scanner in = new Scanner(new FileReader(filePath));
+        List<Integer> list = new ArrayList<>();
+        while (in.hasNextInt()) list.add(in.nextInt());
+        int[] res = new int[list.size()];
+        for (int i = 0; i < res.length; i++) res[i] = list.get(i);
+        return res;
+    }
+
+    /** Median maintenance on boxed keys, as it was done before the primitive heaps */
+    private static int boxedMedianSum(int[] input) {
+        BinaryHeap<Integer> low = new BinaryHeap<>((i1, i2) -> Integer.compare(i2, i1));
+        BinaryHeap<Integer> high = new BinaryHeap<>();
+        int sum = input[0];
+        low.insert(input[0]);
+        for (int k = 1; k < input.length; k++) {
+            final int i = input[k];
+            if (i < low.getMin()) {
+                if (low.size() > high.size()) high.insert(low.delMin());
+                low.insert(i);
+            } else if (!high.isEmpty() && i > high.getMin()) {
+                if (high.size() > low.size()) low.insert(high.delMin());
+                high.insert(i);
+            } else {
+                if (low.size() <= high.size()) low.insert(i);
+                else high.insert(i);
+            }
+            sum += high.size() > low.size() ? high.getMin() : low.getMin();
+        }
+        return sum;
+    }
+
+    private static int primitiveMedianSum(int[] input) {
+        int sum = 0;
+        for (int median : Discrete.medianMaintenance(input)) sum += median;
+        return sum;
+    }
+
+    /**
+     * Compare allocation and running time of median maintenance using boxed
+     * and primitive heaps on the MedianMaintenance.txt workload
+     */
+    public static void medianMaintenance(String filePath, int rounds) throws Exception {
+        int[] input = readInts(filePath);
+        System.out.println("Median maintenance, n = " + input.length);
+        int check = 0;
+        for (int r = 0; r < rounds; r++) {
+            check += boxedMedianSum(input);
+            check += primitiveMedianSum(input);
+        }
+
+        long bytes = allocatedBytes();
+        long time = System.nanoTime();
+        for (int r = 0; r < rounds; r++) check += boxedMedianSum(input);
+        report("boxed BinaryHeap", input.length, rounds, System.nanoTime() - time, allocatedBytes() - bytes);
+
+        bytes = allocatedBytes();
+        time = System.nanoTime();
+        for (int r = 0; r < rounds; r++) check += primitiveMedianSum(input);
+        long primitiveBytes = allocatedBytes() - bytes;
+        report("IntBinaryHeap", input.length, rounds, System.nanoTime() - time, primitiveBytes);
+        // the result array and the two pre-sized heap arrays are allocated once per call,
+        // nothing is allocated per element
+        long perCall = 4L * input.length + 2 * 4L * (input.length / 2 + 1);
+        System.out.printf("    excluding result and heap arrays: %.2f bytes/element%n",
+                (primitiveBytes - rounds * perCall) / (double) rounds / input.length);
+        System.out.println("    (checksum " + check + ")");
+    }
+
+    private static void report(String name, int n, int rounds, long nanos, long bytes) {
+        System.out.printf("  %-20s %10.1f ns/element %10.2f bytes/element%n",
+                name, nanos / (double) rounds / n, bytes / (double) rounds / n);
+    }
+
+    /**
+     * Throughput of insert and delMin on a heap of n random boxed keys.
+     * With O(log(n)) operations the time per operation divided by log2(n) stays flat as n grows.
+     */
+    public static void insertDelMinThroughput(int[] sizes, int rounds) {
+        System.out.println("BinaryHeap insert/delMin throughput");
+        for (int n : sizes) {
+            Integer[] keys = new Random(n).ints(n).boxed().toArray(Integer[]::new);
+            long insert = 0, delMin = 0;
+            long check = 0;
+            for (int r = -1; r < rounds; r++) {
+                BinaryHeap<Integer> heap = new BinaryHeap<>();
+                long time = System.nanoTime();
+                for (Integer key : keys) heap.insert(key);
+                long inserted = System.nanoTime();
+                while (!heap.isEmpty()) check += heap.delMin();
+                long deleted = System.nanoTime();
+                // first round is warm up
+                if (r >= 0) {
+                    insert += inserted - time;
+                    delMin += deleted - inserted;
+                }
+            }
+            double log = Math.log(n) / Math.log(2);
+            double insertNs = insert / (double) rounds / n;
+            double delMinNs = delMin / (double) rounds / n;
+            System.out.printf("  n = %,11d  insert %7.1f ns/op (%5.2f ns/level)  delMin %7.1f ns/op (%5.2f ns/level)  [%d]%n",
+                    n, insertNs, insertNs / log, delMinNs, delMinNs / log, check);
+        }
+    }
+
+    /**
+     * Insert batches of k random keys into a heap of n keys, one by one with insert
+     * versus insertAll, then drain k minima with delMin versus drainTo
+     */
+    public static void batchInsert(int[] batchSizes, int n, int rounds) {
+        System.out.printf("BinaryHeap batch insert into %,d elements%n", n);
+        Random ran = new Random(n);
+        Integer[] base = ran.ints(n).boxed().toArray(Integer[]::new);
+        for (int k : batchSizes) {
+            Integer[] batch = ran.ints(k).boxed().toArray(Integer[]::new);
+            long single = 0, bulk = 0, delMin = 0, drain = 0;
+            long check = 0;
+            List<Integer> sink = new ArrayList<>(k);
+            for (int r = -1; r < rounds; r++) {
+                BinaryHeap<Integer> a = new BinaryHeap<>();
+                BinaryHeap<Integer> b = new BinaryHeap<>();
+                a.insertAll(base, 0, n);
+                b.insertAll(base, 0, n);
+                // grow both arrays up front, so resizing is not measured
+                a.insert(0);
+                a.delMin();
+                b.insert(0);
+                b.delMin();
+                long time = System.nanoTime();
+                for (Integer key : batch) a.insert(key);
+                long t1 = System.nanoTime();
+                b.insertAll(batch, 0, k);
+                long t2 = System.nanoTime();
+                for (int i = 0; i < k; i++) check += a.delMin();
+                long t3 = System.nanoTime();
+                b.drainTo(sink, k);
+                long t4 = System.nanoTime();
+                check += sink.size();
+                sink.clear();
+                // first round is warm up
+                if (r >= 0) {
+                    single += t1 - time;
+                    bulk += t2 - t1;
+                    delMin += t3 - t2;
+                    drain += t4 - t3;
+                }
+            }
+            System.out.printf("  k = %,9d  insert %8.1f ns/elem  insertAll %8.1f ns/elem  delMin %8.1f ns/elem  drainTo %8.1f ns/elem  [%d]%n",
+                    k, single / (double) rounds / k, bulk / (double) rounds / k,
+                    delMin / (double) rounds / k, drain / (double) rounds / k, check);
+        }
+    }
+
+    /**
+     * Select the k smallest of a stream of n pseudo random ints generated on the fly,
+     * with IntTopK, TopK (boxing every key) and, for small streams, by inserting the
+     * whole stream into a BinaryHeap and popping k
+     */
+    public static void topK(long n, int[] ks) {
+        System.out.printf("Top k of a stream of %,d ints%n", n);
+        for (int k : ks) {
+            long check = 0;
+            for (int r = 0; r < 2; r++) {
+                // second round is measured
+                long bytes = allocatedBytes();
+                long time = System.nanoTime();
+                IntTopK intTop = IntTopK.smallest(k);
+                long x = 88172645463325252L;
+                for (long i = 0; i < n; i++) {
+                    x ^= x << 13; x ^= x >>> 7; x ^= x << 17;
+                    intTop.offer((int) x);
+                }
+                check += intTop.threshold();
+                if (r == 1) report("IntTopK k=" + k, n, System.nanoTime() - time, allocatedBytes() - bytes);
+
+                bytes = allocatedBytes();
+                time = System.nanoTime();
+                TopK<Integer> top = TopK.smallest(k);
+                x = 88172645463325252L;
+                for (long i = 0; i < n; i++) {
+                    x ^= x << 13; x ^= x >>> 7; x ^= x << 17;
+                    top.offer((int) x);
+                }
+                check += top.threshold();
+                if (r == 1) report("TopK<Integer> k=" + k, n, System.nanoTime() - time, allocatedBytes() - bytes);
+
+                if (n > 10_000_000) continue;
+                bytes = allocatedBytes();
+                time = System.nanoTime();
+                BinaryHeap<Integer> heap = new BinaryHeap<>();
+                x = 88172645463325252L;
+                for (long i = 0; i < n; i++) {
+                    x ^= x << 13; x ^= x >>> 7; x ^= x << 17;
+                    heap.insert((int) x);
+                }
+                for (int i = 0; i < k; i++) check += heap.delMin();
+                if (r == 1) report("BinaryHeap k=" + k, n, System.nanoTime() - time, allocatedBytes() - bytes);
+            }
+            System.out.println("  (checksum " + check + ")");
+        }
+    }
+
+    private static void report(String name, long n, long nanos, long bytes) {
+        System.out.printf("  %-20s %10.2f ns/element %12.2f MB%n", name, nanos / (double) n, bytes / 1e6);
+    }
+
+    /**
+     * Compare heap layouts (arity 2, 4, 8, with and without cache alignment)
+     * on a mixed workload: fill the heap with n keys, then n rounds of delMin + insert
+     */
+    public static void arityComparison(int[] sizes) {
+        System.out.println("BinaryHeap layouts, ns per delMin + insert pair");
+        System.out.printf("  %13s", "n");
+        for (int arity = 2; arity <= 8; arity *= 2)
+            System.out.printf(" %10s %10s", "d=" + arity, "d=" + arity + " al");
+        System.out.println();
+        for (int n : sizes) {
+            Integer[] keys = new Random(n).ints(2 * n).boxed().toArray(Integer[]::new);
+            System.out.printf("  %,13d", n);
+            long check = 0;
+            for (int arity = 2; arity <= 8; arity *= 2) {
+                for (boolean aligned : new boolean[]{false, true}) {
+                    long best = Long.MAX_VALUE;
+                    // best of 3, first run warms up the code path
+                    for (int r = 0; r < 3; r++) {
+                        BinaryHeap<Integer> heap = new BinaryHeap<>(null, arity, aligned);
+                        for (int i = 0; i < n; i++) heap.insert(keys[i]);
+                        long time = System.nanoTime();
+                        for (int i = n; i < 2 * n; i++) {
+                            check += heap.delMin();
+                            heap.insert(keys[i]);
+                        }
+                        best = Math.min(best, System.nanoTime() - time);
+                    }
+                    System.out.printf(" %10.1f", best / (double) n);
+                }
+            }
+            System.out.println("  [" + check + "]");
+        }
+    }
+
+    private interface ConcurrentOp {
+        void run(int thread, int op);
+    }
+
+    /** Run ops operations split over given number of threads, return elapsed nanoseconds */
+    private static long runThreads(int threads, int ops, ConcurrentOp op) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = thread; i < ops; i += threads) op.run(thread, i);
+            });
+            workers[t].start();
+        }
+        long time = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        return System.nanoTime() - time;
+    }
+
+    /**
+     * Throughput of ConcurrentMultiQueue against a BinaryHeap behind a lock, from 1 to maxThreads threads.
+     * Every thread performs insertPercent% inserts, the rest are delMin.
+     */
+    public static void concurrentThroughput(int maxThreads, int ops, int insertPercent) throws InterruptedException {
+        System.out.printf("Concurrent priority queues, %,d operations, %d%% insert, Mops/s%n", ops, insertPercent);
+        System.out.printf("  %8s %14s %20s%n", "threads", "locked heap", "ConcurrentMultiQueue");
+        Integer[] keys = new Random(ops).ints(ops).boxed().toArray(Integer[]::new);
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            long lockedBest = Long.MAX_VALUE, multiBest = Long.MAX_VALUE;
+            for (int r = 0; r < 3; r++) {
+                BinaryHeap<Integer> locked = new BinaryHeap<>();
+                // pre-fill so delMin never finds an empty queue
+                for (int i = 0; i < 10_000; i++) locked.insert(keys[i]);
+                lockedBest = Math.min(lockedBest, runThreads(threads, ops, (thread, i) -> {
+                    synchronized (locked) {
+                        if (i % 100 < insertPercent) locked.insert(keys[i]);
+                        else locked.delMin();
+                    }
+                }));
+
+                ConcurrentMultiQueue<Integer> multi = new ConcurrentMultiQueue<>(2 * maxThreads, null);
+                for (int i = 0; i < 10_000; i++) multi.insert(keys[i]);
+                multiBest = Math.min(multiBest, runThreads(threads, ops, (thread, i) -> {
+                    if (i % 100 < insertPercent) multi.insert(keys[i]);
+                    else multi.pollMin();
+                }));
+            }
+            System.out.printf("  %8d %14.2f %20.2f%n", threads, ops / (lockedBest / 1e3), ops / (multiBest / 1e3));
+            if (threads == maxThreads) break;
+        }
+    }
+
+    private static int[] parseSizes(String[] args, int... defaults) {
+        if (args.length <= 1) return defaults;
+        int[] sizes = new int[args.length - 1];
+        for (int i = 1; i < args.length; i++) sizes[i - 1] = Integer.parseInt(args[i].replace("_", ""));
+        return sizes;
+    }
+
+    /**
+     * Usage: HeapBenchmark [median | throughput [sizes...] | batch [batch sizes...] | topk [n [k...]] | arity [sizes...] | concurrent [threads]]
+     */
+    public static void main(String[] args) throws Exception {
+        String benchmark = args.length > 0 ? args[0] : "median";
+        switch (benchmark) {
+            case "median":
+                medianMaintenance("./testData/graph/MedianMaintenance.txt", 200);
+                break;
+            case "throughput":
+                insertDelMinThroughput(parseSizes(args, 1_000, 100_000, 1_000_000, 10_000_000), 3);
+                break;
+            case "batch":
+                batchInsert(parseSizes(args, 100, 1_000, 10_000, 100_000, 1_000_000), 1_000_000, 5);
+                break;
+            case "topk":
+                long n = args.length > 1 ? Long.parseLong(args[1].replace("_", "")) : 100_000_000L;
+                int[] ks = args.length > 2 ? parseSizes(Arrays.copyOfRange(args, 1, args.length)) : new int[]{10, 1000, 100_000};
+                topK(n, ks);
+                break;
+            case "arity":
+                arityComparison(parseSizes(args, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 50_000_000));
+                break;
+            case "concurrent":
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                concurrentThroughput(threads, 4_000_000, 100);
+                concurrentThroughput(threads, 4_000_000, 80);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark " + benchmark);
+        }
+    }
+}
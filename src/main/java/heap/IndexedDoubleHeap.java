@@ -0,0 +1,211 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed min heap of {@code double} keys.
+ * <p>
+ * Entries are int indices in range [0, capacity), each associated with a key.
+ * Keys are stored in a {@code double[]} addressed by index, and the heap tracks
+ * the position of every index, so the key of an entry can be changed in place
+ * in O(log(n)) without any {@link AugmentedBinaryHeap.Element} on the payload.
+ */
+public class IndexedDoubleHeap {
+
+    private final int[] heap;       // heap position -> index
+    private final int[] position;   // index -> heap position, -1 if not in this heap
+    private final double[] keys;    // index -> key
+    private int size;
+
+    // RI:  binary heap on keys[heap[0..size)], root at 0
+    //      position[heap[i]] == i for all i in [0, size)
+    //      keys[heap[(i - 1)/2]] <= keys[heap[i]]
+    private boolean checkRep() {
+        for (int i = 0; i < size; i++) {
+            assert position[heap[i]] == i;
+            if (i > 0) assert keys[heap[(i - 1) / 2]] <= keys[heap[i]];
+        }
+        return true;
+    }
+
+    public IndexedDoubleHeap(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Invalid capacity");
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    private void validateIndex(int i) {
+        if (i < 0 || i >= position.length) throw new IllegalArgumentException("Index out of bound");
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return position.length;
+    }
+
+    public boolean contains(int i) {
+        validateIndex(i);
+        return position[i] != -1;
+    }
+
+    public double keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in this heap");
+        return keys[i];
+    }
+
+    /** Bubble up the entry at heap position pos */
+    private void swim(int pos) {
+        final int idx = heap[pos];
+        final double key = keys[idx];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentIdx = heap[parent];
+            if (keys[parentIdx] <= key) break;
+            heap[pos] = parentIdx;
+            position[parentIdx] = pos;
+            pos = parent;
+        }
+        heap[pos] = idx;
+        position[idx] = pos;
+    }
+
+    /** Bubble down the entry at heap position pos */
+    private void sink(int pos) {
+        final int idx = heap[pos];
+        final double key = keys[idx];
+        final int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) child = right;
+            int childIdx = heap[child];
+            if (key <= keys[childIdx]) break;
+            heap[pos] = childIdx;
+            position[childIdx] = pos;
+            pos = child;
+        }
+        heap[pos] = idx;
+        position[idx] = pos;
+    }
+
+    /** Insert index i with given key
+     *  Running time O(log(n))
+     * */
+    public void insert(int i, double key) {
+        if (contains(i)) throw new IllegalArgumentException("Index is already in this heap");
+        keys[i] = key;
+        heap[size] = i;
+        position[i] = size;
+        swim(size++);
+        assert checkRep();
+    }
+
+    public int minIndex() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return heap[0];
+    }
+
+    public double minKey() {
+        return keys[minIndex()];
+    }
+
+    /**
+     * Delete the entry with minimum key
+     * Running time O(log(n))
+     *
+     * @return index of the deleted entry
+     */
+    public int delMin() {
+        int min = minIndex();
+        removeAt(0);
+        return min;
+    }
+
+    /**
+     * Delete index i from this heap
+     * Running time O(log(n))
+     */
+    public void delete(int i) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in this heap");
+        removeAt(position[i]);
+    }
+
+    private void removeAt(int pos) {
+        int removed = heap[pos];
+        int last = heap[--size];
+        position[removed] = -1;
+        if (pos != size) {
+            heap[pos] = last;
+            position[last] = pos;
+            swim(pos);
+            sink(position[last]);
+        }
+        assert checkRep();
+    }
+
+    /**
+     * Decrease the key of index i
+     * Running time O(log(n))
+     *
+     * @throws IllegalArgumentException if given key is greater than the current key
+     */
+    public void decreaseKey(int i, double key) {
+        if (key > keyOf(i)) throw new IllegalArgumentException("Key is greater than the current key");
+        keys[i] = key;
+        swim(position[i]);
+        assert checkRep();
+    }
+
+    /**
+     * Increase the key of index i
+     * Running time O(log(n))
+     *
+     * @throws IllegalArgumentException if given key is less than the current key
+     */
+    public void increaseKey(int i, double key) {
+        if (key < keyOf(i)) throw new IllegalArgumentException("Key is less than the current key");
+        keys[i] = key;
+        sink(position[i]);
+        assert checkRep();
+    }
+
+    /**
+     * Change the key of index i in either direction
+     * Running time O(log(n))
+     */
+    public void update(int i, double key) {
+        double old = keyOf(i);
+        keys[i] = key;
+        if (key < old) swim(position[i]);
+        else sink(position[i]);
+        assert checkRep();
+    }
+
+    /**
+     * Remove all entries, running time O(size) so the heap can be reused cheaply
+     */
+    public void clear() {
+        for (int p = 0; p < size; p++) position[heap[p]] = -1;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int p = 0; p < size; p++) {
+            if (p > 0) sb.append(", ");
+            sb.append(heap[p]).append('=').append(keys[heap[p]]);
+        }
+        return sb.append(']').toString();
+    }
+}
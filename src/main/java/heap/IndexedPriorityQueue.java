@@ -0,0 +1,48 @@
+package heap;
+
+/**
+ * Min priority queue over int indices in range [0, capacity), each associated with a {@code long} key.
+ * <p>
+ * Implementations trade operations differently, so graph algorithms take the queue
+ * as a parameter and the caller chooses one per workload:
+ * <ul>
+ *     <li>{@link IndexedLongHeap}: binary heap, O(log(n)) for every operation</li>
+ *     <li>{@link PairingHeap}: O(1) insert, O(k) meld of k moved entries, cheap decreaseKey, O(log(n)) amortized delMin</li>
+ *     <li>{@link RadixHeap}: monotone keys only (never below the last deleted minimum),
+ *     O(1) amortized insert and decreaseKey, O(log(C)) amortized delMin</li>
+ * </ul>
+ */
+public interface IndexedPriorityQueue {
+
+    boolean isEmpty();
+
+    int size();
+
+    boolean contains(int i);
+
+    /** Insert index i with given key */
+    void insert(int i, long key);
+
+    /**
+     * Decrease the key of index i
+     *
+     * @throws IllegalArgumentException if given key is greater than the current key
+     */
+    void decreaseKey(int i, long key);
+
+    long keyOf(int i);
+
+    int minIndex();
+
+    long minKey();
+
+    /**
+     * Delete the entry with minimum key
+     *
+     * @return index of the deleted entry
+     */
+    int delMin();
+
+    /** Remove all entries */
+    void clear();
+}
@@ -0,0 +1,110 @@
+package heap;
+
+import java.util.Arrays;
+
+/**
+ * Selector of the k smallest (or largest) keys of a stream of {@code int}, in O(k) memory.
+ * <p>
+ * Same algorithm as {@link TopK} over an {@link IntBinaryHeap}, so nothing is
+ * allocated per key: a rejected key costs a single comparison with the top of the heap.
+ */
+public class IntTopK {
+
+    private final int k;
+    private final boolean largest;
+    // max heap of the k smallest keys, or min heap of the k largest keys
+    private final IntBinaryHeap heap;
+
+    /**
+     * @param k       number of keys to select, at least 1
+     * @param largest select the k largest keys instead of the k smallest
+     */
+    public IntTopK(int k, boolean largest) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.largest = largest;
+        this.heap = new IntBinaryHeap(Math.min(k, 1 << 12), !largest);
+    }
+
+    public static IntTopK smallest(int k) {
+        return new IntTopK(k, false);
+    }
+
+    public static IntTopK largest(int k) {
+        return new IntTopK(k, true);
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public boolean isLargest() {
+        return largest;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * Largest selected key (smallest one when selecting the k largest)
+     */
+    public int threshold() {
+        return heap.getMin();
+    }
+
+    /**
+     * Offer a key to this selector
+     * Running time O(1) if rejected, O(log(k)) if selected
+     *
+     * @return true if the key is among the k smallest (largest) seen so far
+     */
+    public boolean offer(int value) {
+        if (heap.size() < k) {
+            heap.insert(value);
+            return true;
+        }
+        int top = heap.getMin();
+        if (largest ? value <= top : value >= top) return false;
+        heap.replaceMin(value);
+        return true;
+    }
+
+    public void offerAll(int[] values) {
+        for (int value : values) offer(value);
+    }
+
+    /**
+     * Offer the keys selected by other selector to this selector,
+     * both must select the same end of the order
+     */
+    public void merge(IntTopK other) {
+        if (other.largest != largest) throw new IllegalArgumentException("Selectors of different order");
+        for (int value : other.heap.toArray()) offer(value);
+    }
+
+    /**
+     * Selected keys in selection order: increasing for the k smallest,
+     * decreasing for the k largest
+     */
+    public int[] toSortedArray() {
+        int[] values = heap.toArray();
+        Arrays.sort(values);
+        if (largest)
+            for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+                int t = values[i];
+                values[i] = values[j];
+                values[j] = t;
+            }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toSortedArray());
+    }
+}
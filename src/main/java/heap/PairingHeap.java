@@ -0,0 +1,288 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed pairing heap of {@code long} keys.
+ * <p>
+ * The heap ordered multiway tree is stored in int arrays addressed by index
+ * (first child, next sibling, and previous sibling or parent for a first child),
+ * so nodes are not objects.
+ * Insert links two roots in O(1), meld links two roots and copies the node arrays
+ * of the k moved entries in O(k), decreaseKey cuts the subtree of
+ * the entry and links it with the root in O(1), delMin uses the two-pass
+ * pairing of the children of the root, in O(log(n)) amortized.
+ */
+public class PairingHeap implements IndexedPriorityQueue {
+
+    private static final int NIL = -1;
+
+    private final long[] keys;
+    private final int[] child;      // first child
+    private final int[] sibling;    // next sibling
+    private final int[] prev;       // previous sibling, or parent for a first child
+    private final boolean[] inHeap;
+    private int[] scratch;          // roots waiting for the second pass of delMin, DFS stack of clear/meld
+    private int root = NIL;
+    private int size;
+
+    // RI:  every entry i in the tree rooted at root has inHeap[i]
+    //      keys[parent] <= keys[i] for every child i of parent
+    //      prev[root] == NIL, sibling[root] == NIL
+    private boolean checkRep() {
+        if (root == NIL) return size == 0;
+        assert prev[root] == NIL && sibling[root] == NIL;
+        int count = 0;
+        int top = 0;
+        int[] stack = new int[size];
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            count++;
+            assert inHeap[node];
+            for (int c = child[node]; c != NIL; c = sibling[c]) {
+                assert keys[node] <= keys[c];
+                stack[top++] = c;
+            }
+        }
+        assert count == size;
+        return true;
+    }
+
+    public PairingHeap(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Invalid capacity");
+        this.keys = new long[capacity];
+        this.child = new int[capacity];
+        this.sibling = new int[capacity];
+        this.prev = new int[capacity];
+        this.inHeap = new boolean[capacity];
+        this.scratch = new int[16];
+    }
+
+    private void validateIndex(int i) {
+        if (i < 0 || i >= keys.length) throw new IllegalArgumentException("Index out of bound");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean contains(int i) {
+        validateIndex(i);
+        return inHeap[i];
+    }
+
+    @Override
+    public long keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in this heap");
+        return keys[i];
+    }
+
+    /**
+     * Link two detached roots, the one with the larger key becomes the first child of the other
+     *
+     * @return the new root
+     */
+    private int link(int a, int b) {
+        if (keys[b] < keys[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int first = child[a];
+        sibling[b] = first;
+        if (first != NIL) prev[first] = b;
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    /** Insert index i with given key
+     *  Running time O(1)
+     * */
+    @Override
+    public void insert(int i, long key) {
+        if (contains(i)) throw new IllegalArgumentException("Index is already in this heap");
+        keys[i] = key;
+        child[i] = NIL;
+        sibling[i] = NIL;
+        prev[i] = NIL;
+        inHeap[i] = true;
+        root = root == NIL ? i : link(root, i);
+        size++;
+        assert checkRep();
+    }
+
+    @Override
+    public int minIndex() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return root;
+    }
+
+    @Override
+    public long minKey() {
+        return keys[minIndex()];
+    }
+
+    /**
+     * Delete the entry with minimum key
+     * Running time O(log(n)) amortized
+     */
+    @Override
+    public int delMin() {
+        int min = minIndex();
+        inHeap[min] = false;
+        size--;
+        root = combineChildren(min);
+        assert checkRep();
+        return min;
+    }
+
+    /**
+     * Two-pass pairing of the children of given node
+     *
+     * @return the root of the combined tree, or NIL if the node has no child
+     */
+    private int combineChildren(int node) {
+        int c = child[node];
+        child[node] = NIL;
+        if (c == NIL) return NIL;
+
+        // first pass: link children in pairs from left to right
+        int count = 0;
+        while (c != NIL) {
+            int a = c;
+            int b = sibling[a];
+            c = b == NIL ? NIL : sibling[b];
+            sibling[a] = NIL;
+            prev[a] = NIL;
+            int linked = a;
+            if (b != NIL) {
+                sibling[b] = NIL;
+                prev[b] = NIL;
+                linked = link(a, b);
+            }
+            if (count == scratch.length) scratch = Arrays.copyOf(scratch, count * 2);
+            scratch[count++] = linked;
+        }
+
+        // second pass: link the pairs from right to left
+        int res = scratch[--count];
+        while (count > 0)
+            res = link(scratch[--count], res);
+        return res;
+    }
+
+    /** Detach the subtree rooted at i from its parent */
+    private void cut(int i) {
+        int p = prev[i];
+        int next = sibling[i];
+        if (child[p] == i) child[p] = next;
+        else sibling[p] = next;
+        if (next != NIL) prev[next] = p;
+        sibling[i] = NIL;
+        prev[i] = NIL;
+    }
+
+    /**
+     * Decrease the key of index i
+     * Running time O(1), the cost is paid by the next delMin
+     */
+    @Override
+    public void decreaseKey(int i, long key) {
+        if (key > keyOf(i)) throw new IllegalArgumentException("Key is greater than the current key");
+        keys[i] = key;
+        if (i != root) {
+            cut(i);
+            root = link(root, i);
+        }
+        assert checkRep();
+    }
+
+    /**
+     * Delete index i from this heap
+     * Running time O(log(n)) amortized
+     */
+    public void delete(int i) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in this heap");
+        if (i == root) {
+            delMin();
+            return;
+        }
+        cut(i);
+        inHeap[i] = false;
+        size--;
+        int subtree = combineChildren(i);
+        if (subtree != NIL) root = link(root, subtree);
+        assert checkRep();
+    }
+
+    /**
+     * Move all entries of other heap into this heap, other heap becomes empty.
+     * Both heaps must have the same capacity and disjoint entries.
+     * Linking the two trees is O(1), copying the node arrays of the k moved entries is O(k).
+     */
+    public void meld(PairingHeap other) {
+        if (other.capacity() != capacity()) throw new IllegalArgumentException("Different capacity");
+        if (other.root == NIL) return;
+        if (scratch.length < other.size) scratch = new int[other.size];
+        // check the entries are disjoint before moving any, so a failed meld leaves both heaps unchanged
+        int top = 0;
+        scratch[top++] = other.root;
+        while (top > 0) {
+            int node = scratch[--top];
+            if (inHeap[node]) throw new IllegalArgumentException("Index " + node + " is in both heaps");
+            for (int c = other.child[node]; c != NIL; c = other.sibling[c])
+                scratch[top++] = c;
+        }
+        scratch[top++] = other.root;
+        while (top > 0) {
+            int node = scratch[--top];
+            keys[node] = other.keys[node];
+            child[node] = other.child[node];
+            sibling[node] = other.sibling[node];
+            prev[node] = other.prev[node];
+            inHeap[node] = true;
+            other.inHeap[node] = false;
+            for (int c = other.child[node]; c != NIL; c = other.sibling[c])
+                scratch[top++] = c;
+        }
+        root = root == NIL ? other.root : link(root, other.root);
+        size += other.size;
+        other.root = NIL;
+        other.size = 0;
+        assert checkRep();
+    }
+
+    /**
+     * Remove all entries, running time O(size) so the heap can be reused cheaply
+     */
+    @Override
+    public void clear() {
+        if (root != NIL) {
+            int top = 0;
+            if (scratch.length < size) scratch = new int[size];
+            scratch[top++] = root;
+            while (top > 0) {
+                int node = scratch[--top];
+                inHeap[node] = false;
+                for (int c = child[node]; c != NIL; c = sibling[c])
+                    scratch[top++] = c;
+            }
+        }
+        root = NIL;
+        size = 0;
+    }
+}
@@ -0,0 +1,210 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed radix heap of {@code long} keys, for monotone workloads such as Dijkstra:
+ * a key can never be smaller than the last minimum returned by
+ * {@link #delMin()}, {@link #minIndex()} or {@link #minKey()}.
+ * <p>
+ * Entries live in 65 buckets, bucket b holds the keys whose highest bit differing
+ * from the last minimum is bit (b - 1), bucket 0 the keys equal to it.
+ * Buckets are doubly linked lists over int arrays addressed by index.
+ * Insert and decreaseKey put an entry in its bucket in O(1), delMin empties
+ * the first non empty bucket into lower buckets when bucket 0 is empty;
+ * every entry moves down at most 64 times, so delMin is O(log(C)) amortized
+ * where C is the range of keys.
+ */
+public class RadixHeap implements IndexedPriorityQueue {
+
+    private static final int NIL = -1;
+    private static final int BUCKETS = 65;
+
+    private final long[] keys;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] bucketOf;   // bucket of index, -1 if not in this heap
+    private final int[] head = new int[BUCKETS];
+    private long last = Long.MIN_VALUE;  // last minimum
+    private int size;
+
+    // RI:  every entry i is in bucket bucketOf[i] == bucket(keys[i])
+    //      keys[i] >= last for all entries i
+    private boolean checkRep() {
+        int count = 0;
+        for (int b = 0; b < BUCKETS; b++)
+            for (int i = head[b]; i != NIL; i = next[i]) {
+                assert bucketOf[i] == b;
+                assert bucket(keys[i]) == b;
+                assert keys[i] >= last;
+                count++;
+            }
+        assert count == size;
+        return true;
+    }
+
+    public RadixHeap(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Invalid capacity");
+        this.keys = new long[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.bucketOf = new int[capacity];
+        Arrays.fill(bucketOf, NIL);
+        Arrays.fill(head, NIL);
+    }
+
+    private void validateIndex(int i) {
+        if (i < 0 || i >= keys.length) throw new IllegalArgumentException("Index out of bound");
+    }
+
+    private void validateKey(long key) {
+        if (key < last) throw new IllegalArgumentException("Key " + key + " is below the last minimum " + last);
+    }
+
+    /**
+     * Bucket of a key >= last: 0 if equal to last, else 1 + index of the highest
+     * bit differing from last (bucket 64 holds non negative keys when last is negative)
+     */
+    private int bucket(long key) {
+        long diff = key ^ last;
+        return diff == 0 ? 0 : 64 - Long.numberOfLeadingZeros(diff);
+    }
+
+    private void push(int i, int b) {
+        bucketOf[i] = b;
+        prev[i] = NIL;
+        next[i] = head[b];
+        if (head[b] != NIL) prev[head[b]] = i;
+        head[b] = i;
+    }
+
+    private void unlink(int i) {
+        int b = bucketOf[i];
+        if (prev[i] != NIL) next[prev[i]] = next[i];
+        else head[b] = next[i];
+        if (next[i] != NIL) prev[next[i]] = prev[i];
+        bucketOf[i] = NIL;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean contains(int i) {
+        validateIndex(i);
+        return bucketOf[i] != NIL;
+    }
+
+    @Override
+    public long keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("Index is not in this heap");
+        return keys[i];
+    }
+
+    /** Insert index i with given key
+     *  Running time O(1)
+     *
+     * @throws IllegalArgumentException if given key is smaller than the last minimum
+     * */
+    @Override
+    public void insert(int i, long key) {
+        if (contains(i)) throw new IllegalArgumentException("Index is already in this heap");
+        validateKey(key);
+        keys[i] = key;
+        push(i, bucket(key));
+        size++;
+        assert checkRep();
+    }
+
+    /**
+     * Decrease the key of index i
+     * Running time O(1)
+     *
+     * @throws IllegalArgumentException if given key is greater than the current key
+     *                                  or smaller than the last minimum
+     */
+    @Override
+    public void decreaseKey(int i, long key) {
+        if (key > keyOf(i)) throw new IllegalArgumentException("Key is greater than the current key");
+        validateKey(key);
+        unlink(i);
+        keys[i] = key;
+        push(i, bucket(key));
+        assert checkRep();
+    }
+
+    /**
+     * Make sure bucket 0 holds the entries with minimum key,
+     * by redistributing the first non empty bucket around its minimum
+     */
+    private void pull() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        if (head[0] != NIL) return;
+        int b = 1;
+        while (head[b] == NIL) b++;
+        long min = Long.MAX_VALUE;
+        for (int i = head[b]; i != NIL; i = next[i])
+            if (keys[i] < min) min = keys[i];
+        last = min;
+        int i = head[b];
+        head[b] = NIL;
+        while (i != NIL) {
+            int following = next[i];
+            // every key of bucket b moves to a bucket lower than b
+            push(i, bucket(keys[i]));
+            i = following;
+        }
+    }
+
+    @Override
+    public int minIndex() {
+        pull();
+        return head[0];
+    }
+
+    @Override
+    public long minKey() {
+        pull();
+        return last;
+    }
+
+    /**
+     * Delete the entry with minimum key
+     * Running time O(log(C)) amortized
+     */
+    @Override
+    public int delMin() {
+        pull();
+        int min = head[0];
+        unlink(min);
+        size--;
+        assert checkRep();
+        return min;
+    }
+
+    /**
+     * Remove all entries and accept any key again, running time O(size)
+     */
+    @Override
+    public void clear() {
+        for (int b = 0; b < BUCKETS; b++) {
+            for (int i = head[b]; i != NIL; i = next[i])
+                bucketOf[i] = NIL;
+            head[b] = NIL;
+        }
+        last = Long.MIN_VALUE;
+        size = 0;
+    }
+}
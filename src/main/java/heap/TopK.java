@@ -0,0 +1,138 @@
+package heap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collector;
+
+import util.ResizePolicy;
+
+/**
+ * Selector of the k smallest elements of a stream, in O(k) memory.
+ * <p>
+ * The selected elements are kept in a max heap of size k (a {@link BinaryHeap} with
+ * reversed ordering), whose top is the largest selected element: a new element
+ * not smaller than it is rejected in O(1), otherwise it replaces the top in O(log(k)).
+ * On a stream of n random elements only O(k log(n/k)) of them enter the heap.
+ * <p>
+ * Selectors fed by different threads can be combined with {@link #merge(TopK)},
+ * or all at once by {@link #collector(int, Comparator)} on a parallel stream.
+ * Ties are broken in favour of the element offered first.
+ */
+public class TopK<T extends Comparable<T>> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final BinaryHeap<T> heap;
+
+    /**
+     * @param k     number of elements to select, at least 1
+     * @param order ordering of the elements, natural ordering if null; the k smallest are selected
+     */
+    public TopK(int k, Comparator<? super T> order) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.order = order;
+        // the heap grows up to k elements, then never resizes
+        this.heap = new BinaryHeap<T>((a, b) -> compare(b, a), 2, false,
+                Math.min(k, 1 << 12), ResizePolicy.neverShrink(4));
+    }
+
+    /** Selector of the k smallest elements */
+    public static <T extends Comparable<T>> TopK<T> smallest(int k) {
+        return new TopK<>(k, null);
+    }
+
+    /** Selector of the k largest elements */
+    public static <T extends Comparable<T>> TopK<T> largest(int k) {
+        return new TopK<>(k, Collections.reverseOrder());
+    }
+
+    /**
+     * Collector selecting the k smallest elements of a stream in given order (natural if null),
+     * as a sorted list; a parallel stream merges the selectors of its threads
+     */
+    public static <T extends Comparable<T>> Collector<T, ?, List<T>> collector(int k, Comparator<? super T> order) {
+        return Collector.of(() -> new TopK<T>(k, order), TopK::offer,
+                (a, b) -> { a.merge(b); return a; }, TopK::toSortedList);
+    }
+
+    private int compare(T a, T b) {
+        return order != null ? order.compare(a, b) : a.compareTo(b);
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * Largest selected element (in selection order), the bar a new element has to pass
+     * once k elements are selected
+     */
+    public T threshold() {
+        return heap.getMin();
+    }
+
+    /**
+     * Offer an element to this selector
+     * Running time O(1) if rejected, O(log(k)) if selected
+     *
+     * @return true if the element is among the k smallest seen so far
+     */
+    public boolean offer(T value) {
+        if (heap.size() < k) {
+            heap.insert(value);
+            return true;
+        }
+        if (compare(value, heap.getMin()) >= 0) return false;
+        heap.replaceMin(value);
+        return true;
+    }
+
+    public void offerAll(Iterable<? extends T> values) {
+        for (T value : values) offer(value);
+    }
+
+    /**
+     * Offer the elements selected by other selector to this selector,
+     * afterwards this selector holds the k smallest of both streams.
+     * Both selectors must have the same order: the same comparator, or both the natural ordering.
+     * Running time O(k' log(k)) for k' elements in other selector
+     *
+     * @throws IllegalArgumentException if the orders of the selectors differ
+     */
+    @SuppressWarnings("unchecked")  // the heap of other only holds elements of type T
+    public void merge(TopK<? extends T> other) {
+        if (!Objects.equals(order, other.order)) throw new IllegalArgumentException("Selectors of different order");
+        for (Object value : other.heap.toArray()) offer((T) value);
+    }
+
+    /**
+     * Selected elements, smallest first
+     * Running time O(k log(k)), the selector is not modified
+     */
+    @SuppressWarnings("unchecked")  // the heap only holds elements of type T
+    public List<T> toSortedList() {
+        Object[] values = heap.toArray();
+        Arrays.sort(values, (a, b) -> compare((T) a, (T) b));
+        List<T> res = new ArrayList<>(values.length);
+        for (Object value : values) res.add((T) value);
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return toSortedList().toString();
+    }
+}
@@ -1,17 +1,35 @@
 package queues;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import util.ResizePolicy;
+
 public class DequeArray<Item> implements Iterable<Item>{
 	private Item[] items;	 
 	private int first;	//index of the item to be inserted to the first of the deck
 	private int last;	//index of the item to be inserted to the last of the deck
+	private final ResizePolicy policy;
+	private final int minCapacity;
 	
 	public DequeArray() {
-		items = (Item[]) new Object[1];
-		first = 0;
-		last = 0;
+		this(1, ResizePolicy.DOUBLING);
+	}
+	
+	/**
+	 * @param initialCapacity number of items held without resizing,
+	 *                        the array never shrinks below it except on trimToSize
+	 * @param policy          growth and shrink rule of the array
+	 */
+	public DequeArray(int initialCapacity, ResizePolicy policy) {
+		if (initialCapacity < 1) throw new IllegalArgumentException("Invalid capacity");
+		if (policy == null) throw new NullPointerException("Policy is null");
+		this.policy = policy;
+		this.minCapacity = initialCapacity;
+		items = (Item[]) new Object[initialCapacity];
+		first = initialCapacity / 2;
+		last = first;
 	}
 	private void printArrays(){
 		System.out.print("\nCurrent Array: ");
@@ -32,27 +50,58 @@ public class DequeArray<Item> implements Iterable<Item>{
 		assert (last - first) != 1;
 	}
 	
-	private void resize(int freeCellNumOneSide){
+	// move the items to the middle of an array of given capacity, leaving at least
+	// one free cell on each side if the capacity allows it.
+	// The items are moved in place if the capacity does not change
+	private void resize(int capacity){
 		int numItem = size();
-		assert size() != 0;
-		Item[] copy = (Item[]) new Object[ numItem + 2*freeCellNumOneSide ];
-		for(int i = 0 ; i < numItem; i++){
-			copy[freeCellNumOneSide + i] = items[first + i + 1];
+		Item[] copy = capacity == items.length ? items : (Item[]) new Object[capacity];
+		if(numItem == 0){
+			first = capacity / 2;
+			last = first;
+		} else {
+			int start = (capacity - numItem + 1) / 2;
+			System.arraycopy(items, first + 1, copy, start, numItem);
+			if(copy == items){
+				// clear the cells left behind
+				if(start > first + 1) Arrays.fill(items, first + 1, Math.min(start, last), null);
+				else Arrays.fill(items, Math.max(start + numItem, first + 1), last, null);
+			}
+			first = start - 1;
+			last = start + numItem;
 		}
 		items = copy;
-		first = freeCellNumOneSide - 1;
-		last = first + numItem + 1;
+	}
+	
+	// called when one end of the array is reached: recenter the items if the array
+	// is at most half full, so a deque used as a queue does not grow forever, else grow.
+	// Either way there are at least two free cells, so one on each side
+	private void makeRoom(){
+		int numItem = size();
+		if(2*(numItem + 1) <= items.length) resize(items.length);
+		else resize(policy.grownCapacity(items.length, Math.max(items.length + 1, numItem + 2)));
+	}
+	
+	private void shrinkIfSparse(){
+		int capacity = policy.shrunkCapacity(size(), items.length, minCapacity);
+		if(capacity != items.length) resize(capacity);
+	}
+	
+	/**
+	 * Shrink the array to the number of items (at least 1)
+	 */
+	public void trimToSize(){
+		if(items.length > Math.max(size(), 1)) resize(Math.max(size(), 1));
 	}
 	
 	public void addFirst(Item item){
 		if(item == null){
 			throw new NullPointerException("Cannot add null item!");
 		}
-		if(first == -1) resize(size()); // resize + update first, last
+		if(first == -1) makeRoom(); // resize + update first, last
 		items[first] = item;
 		if(size() == 0)  last ++;
 		first--;
-		printArrays();
 	}
 	
 	public void addLast(Item item){
@@ -60,14 +109,13 @@ public class DequeArray<Item> implements Iterable<Item>{
 			throw new NullPointerException("Cannot add null item!");
 		}
 
-		if(last == items.length) resize(size()); // resize + update first, last
+		if(last == items.length) makeRoom(); // resize + update first, last
 		
 		items[last] = item;
 		
 		if(size() == 0) first --; 	// handle the case where size == 0, first == last
 		
 		last ++;
-		printArrays();
 	}
 	public Item removeFirst(){
 		if(isEmpty()){
@@ -78,9 +126,8 @@ public class DequeArray<Item> implements Iterable<Item>{
 		items[++first] = null;
 		
 		if((last - first) == 1) last --;
-		else if(last/size() == 4)	resize(size());
+		shrinkIfSparse();
 		
-		printArrays();
 		return item;
 	}
 	public Item removeLast(){
@@ -92,9 +139,8 @@ public class DequeArray<Item> implements Iterable<Item>{
 		items[--last] = null;
 		
 		if((last - first) == 1 ) first ++;
-		else if(((items.length - first + 1)/size()) == 4) resize(size());
+		shrinkIfSparse();
 		
-		printArrays();
 		return item;
 	}
 	@Override
@@ -149,6 +195,7 @@ public class DequeArray<Item> implements Iterable<Item>{
 	//	deque.removeLast();
 		deque.addFirst("a");
 		deque.addLast("b");
+		deque.printArrays();
 		Iterator<String> it = deque.iterator();
 		while(it.hasNext()){
 			System.out.println(it.next());
@@ -6,13 +6,29 @@ import java.util.NoSuchElementException;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
+import util.ResizePolicy;
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
 	private Item[] items;
 	private int size = 0;
+	private final ResizePolicy policy;
+	private final int minCapacity;
 	
 	public RandomizedQueue() {
-		items = (Item[]) new Object[2];
+		this(2, ResizePolicy.DOUBLING);
+	}
+	
+	/**
+	 * @param initialCapacity number of items held without resizing,
+	 *                        the array never shrinks below it except on trimToSize
+	 * @param policy          growth and shrink rule of the array
+	 */
+	public RandomizedQueue(int initialCapacity, ResizePolicy policy) {
+		if (initialCapacity < 1) throw new IllegalArgumentException("Invalid capacity");
+		if (policy == null) throw new NullPointerException("Policy is null");
+		this.policy = policy;
+		this.minCapacity = initialCapacity;
+		items = (Item[]) new Object[initialCapacity];
 	}
 	
 	public boolean isEmpty(){
@@ -24,15 +40,20 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 	
 	private void resize(int capacity){
 		Item[] copy = (Item[]) new Object[capacity];
-		for(int i = 0; i < size ; i++){
-			copy[i] = items[i];
-		}
+		System.arraycopy(items, 0, copy, 0, size);
 		items = copy;
 	}
 	
+	/**
+	 * Shrink the array to the number of items (at least 1)
+	 */
+	public void trimToSize(){
+		if (items.length > Math.max(size, 1)) resize(Math.max(size, 1));
+	}
+	
 	public void enqueue(Item item){
 		if (item == null) throw new NullPointerException("Cannon enqueue null element!");
-		if ( size == items.length) resize(2*items.length);
+		if ( size == items.length) resize(policy.grownCapacity(items.length, size + 1));
 		items[size++] = item;
 	}
 	
@@ -43,7 +64,8 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
 		if(ranIndex != (size - 1)) items[ranIndex] = items[size-1];
 		items[size-1] = null;
 		size--;
-		if(size > 0 && size == items.length/4) resize(items.length/2);
+		int capacity = policy.shrunkCapacity(size, items.length, minCapacity);
+		if(capacity != items.length) resize(capacity);
 		return item;
 	}
 
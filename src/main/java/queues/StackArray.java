@@ -3,39 +3,63 @@
  */
 package queues;
 
+import util.ResizePolicy;
+
 public class StackArray<Item> {
 	private Item[] items;
 	private int N = 0;
+	private final ResizePolicy policy;
+	private final int minCapacity;
 	
 	public StackArray(){
-		items = (Item[]) new Object[1];
-		printArrays();
+		this(1, ResizePolicy.DOUBLING);
+	}
+	
+	/**
+	 * @param initialCapacity number of items held without resizing,
+	 *                        the array never shrinks below it except on trimToSize
+	 * @param policy          growth and shrink rule of the array
+	 */
+	public StackArray(int initialCapacity, ResizePolicy policy){
+		if (initialCapacity < 1) throw new IllegalArgumentException("Invalid capacity");
+		if (policy == null) throw new NullPointerException("Policy is null");
+		this.policy = policy;
+		this.minCapacity = initialCapacity;
+		items = (Item[]) new Object[initialCapacity];
 	}
 	
 	public boolean isEmpty(){
 		return N == 0;
 	}
 
+	public int size(){
+		return N;
+	}
+
 	public void push(Item item){
-		if( N == items.length) resize(2*items.length);
+		if( N == items.length) resize(policy.grownCapacity(items.length, N + 1));
 		items[N++] = item;
-		printArrays();
 	}
 	public Item pop(){
 		Item item = items[--N];
 		items[N] = null;
-		if(N > 0 && N == items.length/4) resize(items.length/2);
-		printArrays();
+		int capacity = policy.shrunkCapacity(N, items.length, minCapacity);
+		if(capacity != items.length) resize(capacity);
 		return item;
 	}
 
 	private void resize(int capacity){
 		Item[] copy = (Item[]) new Object[capacity];
-		for(int i = 0; i < N ; i++){
-			copy[i] = items[i];
-		}
+		System.arraycopy(items, 0, copy, 0, N);
 		items = copy;
 	}
+	
+	/**
+	 * Shrink the array to the number of items (at least 1)
+	 */
+	public void trimToSize(){
+		if (items.length > Math.max(N, 1)) resize(Math.max(N, 1));
+	}
 	private void printArrays(){
 		System.out.print("\nCurrent Array: ");
 		 for(Item item : items){
@@ -49,8 +73,10 @@ public class StackArray<Item> {
 		stack.push("c");
 		stack.push("d");
 		stack.push("e");
+		stack.printArrays();
 		stack.pop();
 		stack.pop();
 		stack.pop();
+		stack.printArrays();
 	}
 }
@@ -1,7 +1,6 @@
 package selectedproblem;
 
-import com.google.common.collect.Lists;
-import heap.BinaryHeap;
+import heap.IntBinaryHeap;
 
 import java.io.FileReader;
 import java.util.*;
@@ -20,16 +19,29 @@ public class Discrete {
      *  </pre>
      */
     public static List<Integer> medianMaintenance(List<Integer> input) {
-        BinaryHeap<Integer> low = new BinaryHeap<>((i1, i2) -> Integer.compare(i1, i2) * -1);
-        BinaryHeap<Integer> high = new BinaryHeap<>();
+        int[] medians = medianMaintenance(input.stream().mapToInt(Integer::intValue).toArray());
+        List<Integer> output = new ArrayList<>(medians.length);
+        for (int median : medians) output.add(median);
+        return output;
+    }
+
+    /**
+     * Same as {@link #medianMaintenance(List)} on primitive ints, the two heaps
+     * store unboxed keys so maintaining the medians does not allocate per element
+     */
+    public static int[] medianMaintenance(int[] input) {
+        if (input.length == 0) return new int[0];
+        if (input.length == 1) return new int[]{input[0]};
+        // each heap holds at most half of the input plus one
+        IntBinaryHeap low = new IntBinaryHeap(input.length / 2 + 1, true);
+        IntBinaryHeap high = new IntBinaryHeap(input.length / 2 + 1, false);
         // invariant: |low.size - high.size| <= 1
-        if (input.isEmpty()) return Collections.emptyList();
-        if (input.size() == 1) return Lists.newArrayList(input.get(0));
-        List<Integer> output = Lists.newArrayList(input.get(0), Math.min(input.get(0), input.get(1)));
-        if (input.size() == 2) return output;
-        Iterator<Integer> iterator = input.iterator();
-        int a = iterator.next();
-        int b = iterator.next();
+        int[] output = new int[input.length];
+        output[0] = input[0];
+        output[1] = Math.min(input[0], input[1]);
+        if (input.length == 2) return output;
+        int a = input[0];
+        int b = input[1];
         if (b > a) {
             low.insert(a);
             high.insert(b);
@@ -37,8 +49,8 @@ public class Discrete {
             low.insert(b);
             high.insert(a);
         }
-        while (iterator.hasNext()) {
-            final int i = iterator.next();
+        for (int k = 2; k < input.length; k++) {
+            final int i = input[k];
             if (i < low.getMin()) {
                 if (low.size() > high.size()) high.insert(low.delMin());
                 low.insert(i);
@@ -50,8 +62,8 @@ public class Discrete {
                 else high.insert(i);
             }
             // extract
-            if (high.size() > low.size()) output.add(high.getMin());
-            else output.add(low.getMin());
+            if (high.size() > low.size()) output[k] = high.getMin();
+            else output[k] = low.getMin();
             assert Math.abs(low.size() - high.size()) <= 1;
             assert low.getMin() <= high.getMin();
         }
@@ -0,0 +1,90 @@
+package selectedproblem.percolation;
+
+import unionfind.ComponentUnionFind;
+
+/**
+ * Percolation with a single union find and no virtual sites:
+ * every component knows its lowest and highest row, so a site is full when
+ * its component reaches row 1, and the system percolates as soon as a
+ * component spans row 1 to row n. No backwash, unlike a virtual bottom site.
+ * The size of the largest open cluster is kept up to date as well.
+ */
+public class PercolationWithComponents implements Percolation {
+	private final ComponentUnionFind<Void> sites;
+	private final boolean[] siteStatus;
+	private final int gridSize;
+	private boolean percolates;
+	private int largestCluster;
+	private int openSites;
+
+	public PercolationWithComponents(int n) {
+		if(n <= 0) {
+			throw new IllegalArgumentException("n must be positive");
+		}
+		gridSize = n;
+		long[] rows = new long[n*n];
+		for(int i = 0; i < rows.length; i++) rows[i] = i / n + 1;
+		sites = new ComponentUnionFind<>(rows);
+		siteStatus = new boolean[n*n];
+	}
+
+	private void validate(int row, int col) throws IndexOutOfBoundsException {
+		if(row < 1 || row > gridSize || col < 1 || col > gridSize) {
+			throw new IndexOutOfBoundsException("Invalid input for coordinate of site in the grid");
+		}
+	}
+
+	private int mapToId(int row, int col) {
+		return (row-1)*gridSize + col - 1;
+	}
+
+	private void connect(int id, int row, int col) {
+		int other = mapToId(row, col);
+		if(siteStatus[other]) sites.union(id, other);
+	}
+
+	public void open(int row, int col) {
+		validate(row, col);
+		int id = mapToId(row, col);
+		if(siteStatus[id]) return;
+		siteStatus[id] = true;
+		openSites++;
+		if(col > 1) connect(id, row, col - 1);
+		if(row > 1) connect(id, row - 1, col);
+		if(col < gridSize) connect(id, row, col + 1);
+		if(row < gridSize) connect(id, row + 1, col);
+
+		if(sites.componentMin(id) == 1 && sites.componentMax(id) == gridSize) percolates = true;
+		largestCluster = Math.max(largestCluster, sites.componentSize(id));
+	}
+
+	public boolean isOpen(int row, int col) {
+		validate(row, col);
+		return siteStatus[mapToId(row, col)];
+	}
+
+	public boolean isFull(int row, int col) {
+		validate(row, col);
+		int id = mapToId(row, col);
+		return siteStatus[id] && sites.componentMin(id) == 1;
+	}
+
+	public boolean percolates() {
+		return percolates;
+	}
+
+	/** Number of sites of the largest open cluster */
+	public int largestCluster() {
+		return largestCluster;
+	}
+
+	public int numberOfOpenSites() {
+		return openSites;
+	}
+
+	/** Number of open clusters */
+	public int clusterCount() {
+		// closed sites are components of their own
+		return sites.getComponentCount() - (gridSize*gridSize - openSites);
+	}
+}
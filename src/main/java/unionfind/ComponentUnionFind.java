@@ -0,0 +1,213 @@
+package unionfind;
+
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Union Find that keeps aggregates of every set up to date, so per component
+ * analytics need no pass over all the elements.
+ * <p>
+ * Every element has a {@code long} value (its index by default). The root of
+ * every set holds the size, the min and max value of the set, and optionally
+ * an aggregate of a user supplied monoid; union combines the aggregates of both
+ * roots in O(1) (plus one call of the monoid).
+ * The members of every set form a circular linked list, two lists are spliced
+ * in O(1) by union, so a set is enumerated in O(size). The roots themselves
+ * form a doubly linked list, so the sets are enumerated in O(number of sets).
+ * <p>
+ * Union by size with path halving, as {@link PackedUnionFind}.
+ *
+ * @param <A> type of the monoid aggregate, Void if none
+ */
+public class ComponentUnionFind<A> implements DisjointSet {
+    private static final int NIL = -1;
+
+    private final int[] nodes;        // parent, or minus the size of the set at a root
+    private final int[] nextMember;   // circular list of the members of each set
+    private final long[] min;         // min value of the set of each root
+    private final long[] max;         // max value of the set of each root
+    private final Object[] aggregates;
+    private final BinaryOperator<A> combine;
+    private final int[] nextRoot;
+    private final int[] prevRoot;
+    private int firstRoot;
+    private int count;
+
+    // RI:  following nextMember from a root visits every member of its set once, and only them
+    //      min/max/aggregates at a root r are the aggregates of the values of the set of r
+    //      following nextRoot from firstRoot visits every root once, prevRoot is its reverse
+
+    /** Sets of the elements 0 ... componentNum-1, whose values are their indices */
+    public ComponentUnionFind(int componentNum) {
+        this(identity(componentNum), null, null);
+    }
+
+    public ComponentUnionFind(long[] values) {
+        this(values, null, null);
+    }
+
+    /**
+     * @param values  value of every element, aggregated in min and max
+     * @param initial aggregate of the set of a single element
+     * @param combine associative operation combining the aggregates of two sets
+     */
+    public ComponentUnionFind(long[] values, IntFunction<? extends A> initial, BinaryOperator<A> combine) {
+        if((initial == null) != (combine == null)) throw new IllegalArgumentException("Monoid needs both initial and combine");
+        final int n = values.length;
+        this.nodes = new int[n];
+        this.nextMember = new int[n];
+        this.min = values.clone();
+        this.max = values.clone();
+        this.combine = combine;
+        this.aggregates = combine == null ? null : new Object[n];
+        this.nextRoot = new int[n];
+        this.prevRoot = new int[n];
+        Arrays.fill(nodes, -1);
+        for(int i = 0; i < n; i++) {
+            nextMember[i] = i;
+            nextRoot[i] = i + 1 < n ? i + 1 : NIL;
+            prevRoot[i] = i - 1;
+            if(aggregates != null) aggregates[i] = initial.apply(i);
+        }
+        this.firstRoot = n > 0 ? 0 : NIL;
+        this.count = n;
+    }
+
+    private static long[] identity(int n) {
+        if(n < 0) throw new IllegalArgumentException("Invalid");
+        long[] values = new long[n];
+        for(int i = 0; i < n; i++) values[i] = i;
+        return values;
+    }
+
+    private void validateElement(int a) {
+        if(a < 0 || a >= nodes.length) throw new IllegalArgumentException();
+    }
+
+    /** Root of a, with path halving */
+    private int root(int a) {
+        int parent;
+        while((parent = nodes[a]) >= 0) {
+            int grandParent = nodes[parent];
+            if(grandParent < 0) return parent;
+            nodes[a] = grandParent;
+            a = grandParent;
+        }
+        return a;
+    }
+
+    /**
+     * Merge the sets of a and b, the monoid aggregate of the merged set is
+     * combine(aggregate of the set of a, aggregate of the set of b)
+     */
+    @Override
+    public boolean union(int a, int b) {
+        validateElement(a); validateElement(b);
+        final int aLeader = root(a);
+        final int bLeader = root(b);
+        if(aLeader == bLeader) return false;
+
+        final int winner = nodes[aLeader] <= nodes[bLeader] ? aLeader : bLeader;
+        final int loser = winner == aLeader ? bLeader : aLeader;
+
+        nodes[winner] += nodes[loser];
+        nodes[loser] = winner;
+        min[winner] = Math.min(min[winner], min[loser]);
+        max[winner] = Math.max(max[winner], max[loser]);
+        if(aggregates != null) {
+            // aggregates only holds values of type A
+            @SuppressWarnings("unchecked") final A left = (A) aggregates[aLeader], right = (A) aggregates[bLeader];
+            aggregates[winner] = combine.apply(left, right);
+            aggregates[loser] = null;
+        }
+
+        // splice the two circular member lists
+        int t = nextMember[winner];
+        nextMember[winner] = nextMember[loser];
+        nextMember[loser] = t;
+
+        // the loser is no longer a root
+        if(prevRoot[loser] != NIL) nextRoot[prevRoot[loser]] = nextRoot[loser];
+        else firstRoot = nextRoot[loser];
+        if(nextRoot[loser] != NIL) prevRoot[nextRoot[loser]] = prevRoot[loser];
+
+        count--;
+        return true;
+    }
+
+    @Override
+    public int find(int a) {
+        validateElement(a);
+        return root(a);
+    }
+
+    @Override
+    public boolean isConnected(int a, int b) {
+        validateElement(a); validateElement(b);
+        return root(a) == root(b);
+    }
+
+    /** Number of elements in the set of a, O(1) after find */
+    public int componentSize(int a) {
+        return -nodes[find(a)];
+    }
+
+    /** Smallest value in the set of a */
+    public long componentMin(int a) {
+        return min[find(a)];
+    }
+
+    /** Largest value in the set of a */
+    public long componentMax(int a) {
+        return max[find(a)];
+    }
+
+    /** Monoid aggregate of the set of a */
+    @SuppressWarnings("unchecked")  // aggregates only holds values of type A
+    public A aggregate(int a) {
+        if(aggregates == null) throw new UnsupportedOperationException("No monoid");
+        return (A) aggregates[find(a)];
+    }
+
+    /**
+     * Visit every member of the set of a
+     * Running time O(size of the set)
+     */
+    public void forEachMember(int a, IntConsumer action) {
+        final int start = find(a);
+        int i = start;
+        do {
+            action.accept(i);
+            i = nextMember[i];
+        } while(i != start);
+    }
+
+    /** Members of the set of a, in no particular order */
+    public int[] members(int a) {
+        int[] res = new int[componentSize(a)];
+        int[] k = {0};
+        forEachMember(a, i -> res[k[0]++] = i);
+        return res;
+    }
+
+    /**
+     * Visit the root of every set
+     * Running time O(number of sets)
+     */
+    public void forEachComponent(IntConsumer action) {
+        for(int r = firstRoot; r != NIL; r = nextRoot[r])
+            action.accept(r);
+    }
+
+    @Override
+    public int getComponentCount() {
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+}
@@ -0,0 +1,103 @@
+package unionfind;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free Union Find, safe to use from many threads at once
+ * (after Jayanti and Tarjan, "Concurrent Disjoint Set Union").
+ * <p>
+ * Parents live in an {@link AtomicIntegerArray}. union links a root under the other
+ * root with a CAS on the parent of the root, and retries from the new roots if
+ * another thread linked it first. Roots are ordered by a fixed pseudo random
+ * priority (a bijective hash of the element), the root of lower priority goes
+ * under the other, which keeps the trees shallow in expectation without storing ranks.
+ * find never waits: it compresses the path by splitting, every node visited
+ * is CASed to its grandparent, a failed CAS means another thread already moved it up.
+ * <p>
+ * The component count is exact once no union is in progress.
+ */
+public class ConcurrentUnionFind implements DisjointSet {
+    private final AtomicIntegerArray nodes;
+    private final int componentNum;
+    private final LongAdder unions = new LongAdder();
+
+    public ConcurrentUnionFind(int componentNum) {
+        if(componentNum < 0) throw new IllegalArgumentException("Invalid");
+        this.componentNum = componentNum;
+        this.nodes = new AtomicIntegerArray(componentNum);
+        for(int i = 0; i < componentNum; i++) nodes.set(i, i);
+    }
+
+    private void validateElement(int a) {
+        if(a < 0 || a >= componentNum) throw new IllegalArgumentException();
+    }
+
+    /** Linking priority, unique since the hash is a bijection of int */
+    private static int priority(int a) {
+        int h = a * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Root of a, with path splitting */
+    private int root(int a) {
+        while(true) {
+            int parent = nodes.get(a);
+            if(parent == a) return a;
+            int grandParent = nodes.get(parent);
+            if(parent != grandParent) nodes.compareAndSet(a, parent, grandParent);
+            a = parent;
+        }
+    }
+
+    @Override
+    public boolean union(int a, int b) {
+        validateElement(a); validateElement(b);
+        while(true) {
+            a = root(a);
+            b = root(b);
+            if(a == b) return false;
+            if(priority(a) > priority(b)) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            // a may have been linked since it was found to be a root, then retry
+            if(nodes.compareAndSet(a, a, b)) {
+                unions.increment();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int find(int a) {
+        validateElement(a);
+        return root(a);
+    }
+
+    /**
+     * True if a and b are in the same set at some point during the call
+     */
+    @Override
+    public boolean isConnected(int a, int b) {
+        validateElement(a); validateElement(b);
+        while(true) {
+            a = root(a);
+            b = root(b);
+            if(a == b) return true;
+            // a still being a root after b was found proves they were apart
+            if(nodes.get(a) == a) return false;
+        }
+    }
+
+    @Override
+    public int getComponentCount() {
+        return componentNum - (int) unions.sum();
+    }
+
+    @Override
+    public int size() {
+        return componentNum;
+    }
+}
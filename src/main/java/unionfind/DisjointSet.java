@@ -0,0 +1,34 @@
+package unionfind;
+
+/**
+ * Disjoint sets over the elements 0 ... n-1, each element starts in its own set
+ */
+public interface DisjointSet {
+
+    /**
+     * Merge the sets of a and b
+     *
+     * @return false if a and b were already in the same set
+     */
+    boolean union(int a, int b);
+
+    /**
+     * @return the representative of the set of a
+     */
+    int find(int a);
+
+    boolean isConnected(int a, int b);
+
+    int getComponentCount();
+
+    /** Number of elements */
+    int size();
+
+    /** How the roots of two sets are linked by union */
+    enum Linking {
+        /** the root of lower rank (upper bound of the height) goes under the other */
+        RANK,
+        /** the root of the smaller set goes under the other */
+        SIZE
+    }
+}
@@ -0,0 +1,112 @@
+package unionfind;
+
+import java.util.Arrays;
+
+import util.ResizePolicy;
+
+/**
+ * Union Find whose elements are created on demand by {@link #makeSet()},
+ * for inputs whose number of elements is not known up front.
+ * <p>
+ * Same single array layout as {@link PackedUnionFind} (union by size, path halving),
+ * the array doubles when full so makeSet is O(1) amortized.
+ */
+public class GrowableUnionFind implements DisjointSet {
+    private static final ResizePolicy POLICY = ResizePolicy.neverShrink(2);
+
+    private int[] nodes;
+    private int size;
+    private int count;
+
+    // RI:  nodes[i] >= 0 is the parent of i, nodes[r] < 0 for a root r, -nodes[r] is the size of its set
+    //      only nodes[0 ... size) is used
+
+    public GrowableUnionFind() {
+        this(0);
+    }
+
+    /**
+     * @param componentNum number of elements created right away, as 0 ... componentNum-1
+     */
+    public GrowableUnionFind(int componentNum) {
+        if(componentNum < 0) throw new IllegalArgumentException("Invalid");
+        this.nodes = new int[Math.max(componentNum, 16)];
+        Arrays.fill(nodes, 0, componentNum, -1);
+        this.size = componentNum;
+        this.count = componentNum;
+    }
+
+    /**
+     * Add a new element in its own set
+     * Running time O(1) amortized
+     *
+     * @return the new element, equal to the number of elements before the call
+     */
+    public int makeSet() {
+        if(size == nodes.length) nodes = Arrays.copyOf(nodes, POLICY.grownCapacity(nodes.length, size + 1));
+        nodes[size] = -1;
+        count++;
+        return size++;
+    }
+
+    private void validateElement(int a) {
+        if(a < 0 || a >= size) throw new IllegalArgumentException();
+    }
+
+    /** Root of a, with path halving */
+    private int root(int a) {
+        int parent;
+        while((parent = nodes[a]) >= 0) {
+            int grandParent = nodes[parent];
+            if(grandParent < 0) return parent;
+            nodes[a] = grandParent;
+            a = grandParent;
+        }
+        return a;
+    }
+
+    @Override
+    public boolean union(int a, int b) {
+        validateElement(a); validateElement(b);
+        int aLeader = root(a);
+        int bLeader = root(b);
+        if(aLeader == bLeader) return false;
+        // sizes are negated, aLeader becomes the root of the larger set
+        if(nodes[aLeader] > nodes[bLeader]) {
+            int t = aLeader;
+            aLeader = bLeader;
+            bLeader = t;
+        }
+        nodes[aLeader] += nodes[bLeader];
+        nodes[bLeader] = aLeader;
+        count--;
+        return true;
+    }
+
+    @Override
+    public int find(int a) {
+        validateElement(a);
+        return root(a);
+    }
+
+    @Override
+    public boolean isConnected(int a, int b) {
+        validateElement(a); validateElement(b);
+        return root(a) == root(b);
+    }
+
+    /** Number of elements in the set of a */
+    public int componentSize(int a) {
+        return -nodes[find(a)];
+    }
+
+    @Override
+    public int getComponentCount() {
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
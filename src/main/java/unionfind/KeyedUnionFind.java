@@ -0,0 +1,105 @@
+package unionfind;
+
+import java.util.Arrays;
+
+import util.LongIntHashMap;
+
+/**
+ * Union Find over arbitrary {@code long} keys, such as labels read from a stream.
+ * <p>
+ * A key gets a dense id the first time it is seen, through a primitive
+ * {@link LongIntHashMap}, and the sets are kept in a {@link GrowableUnionFind} over the ids.
+ * Nothing is boxed, and the number of keys need not be known up front.
+ */
+public class KeyedUnionFind {
+    private final LongIntHashMap ids;
+    private final GrowableUnionFind sets;
+    private long[] keys = new long[16];   // key of each id
+
+    public KeyedUnionFind() {
+        this(16);
+    }
+
+    /**
+     * @param expectedKeys number of keys held without resizing
+     */
+    public KeyedUnionFind(int expectedKeys) {
+        this.ids = new LongIntHashMap(expectedKeys, -1);
+        this.sets = new GrowableUnionFind();
+    }
+
+    /**
+     * Dense id of the key in 0 ... size()-1, the key is added in its own set if new
+     */
+    public int add(long key) {
+        int id = ids.get(key);
+        if(id >= 0) return id;
+        id = sets.makeSet();
+        ids.put(key, id);
+        if(id == keys.length) keys = Arrays.copyOf(keys, 2 * id);
+        keys[id] = key;
+        return id;
+    }
+
+    /**
+     * @return id of the key, or -1 if the key was never added
+     */
+    public int idOf(long key) {
+        return ids.get(key);
+    }
+
+    public long keyOf(int id) {
+        if(id < 0 || id >= sets.size()) throw new IllegalArgumentException();
+        return keys[id];
+    }
+
+    public boolean contains(long key) {
+        return ids.get(key) >= 0;
+    }
+
+    /**
+     * Merge the sets of both keys, adding the keys if new
+     *
+     * @return false if the keys were already in the same set
+     */
+    public boolean union(long a, long b) {
+        return sets.union(add(a), add(b));
+    }
+
+    /**
+     * @return the key representing the set of given key, adding the key if new
+     */
+    public long find(long key) {
+        return keys[sets.find(add(key))];
+    }
+
+    /**
+     * A key never added is only connected to itself
+     */
+    public boolean isConnected(long a, long b) {
+        if(a == b) return true;
+        int idA = ids.get(a);
+        int idB = ids.get(b);
+        return idA >= 0 && idB >= 0 && sets.isConnected(idA, idB);
+    }
+
+    /** Number of keys in the set of given key, 1 for a key never added */
+    public int componentSize(long key) {
+        int id = ids.get(key);
+        return id < 0 ? 1 : sets.componentSize(id);
+    }
+
+    public int getComponentCount() {
+        return sets.getComponentCount();
+    }
+
+    /** Number of keys added */
+    public int size() {
+        return sets.size();
+    }
+
+    /** Union find over the dense ids of the keys */
+    public GrowableUnionFind sets() {
+        return sets;
+    }
+}
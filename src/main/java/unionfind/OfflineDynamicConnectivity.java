@@ -0,0 +1,193 @@
+package unionfind;
+
+import java.util.Arrays;
+
+import util.LongIntHashMap;
+import util.ResizePolicy;
+
+/**
+ * Connectivity queries over a graph whose edges are both added and removed,
+ * answered offline: the operations are recorded first, then {@link #solve()} answers every query.
+ * <p>
+ * Time is the index of the queries. Every edge is present during an interval of
+ * queries, which is split over the O(log q) nodes of a segment tree over time that
+ * cover it. A depth first walk of the tree unites the edges of every node in a
+ * {@link RollbackUnionFind}, answers the query at every leaf, and rolls the node
+ * back on the way up. Running time O((m + q) log q log n) for m edge intervals and q queries,
+ * instead of rebuilding the union find for every query.
+ */
+public class OfflineDynamicConnectivity {
+    private static final ResizePolicy POLICY = ResizePolicy.neverShrink(2);
+    private static final int NONE = -1;
+
+    private final int componentNum;
+    // edges, an edge is present during queries [start, end), end is NONE while the edge is present
+    private int[] edgeA = new int[16], edgeB = new int[16], start = new int[16], end = new int[16];
+    private int[] previousCopy = new int[16];   // previous present edge of the same end points
+    private int edgeNum;
+    private final LongIntHashMap presentEdges = new LongIntHashMap(NONE);   // end points -> last present edge
+    // queries, queryA is NONE for a component count query
+    private int[] queryA = new int[16], queryB = new int[16];
+    private int queryNum;
+
+    public OfflineDynamicConnectivity(int componentNum) {
+        if(componentNum < 0) throw new IllegalArgumentException("Invalid");
+        this.componentNum = componentNum;
+    }
+
+    private void validateElement(int a) {
+        if(a < 0 || a >= componentNum) throw new IllegalArgumentException();
+    }
+
+    private static long key(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    /**
+     * Add an edge between a and b, the same edge may be added several times
+     */
+    public void link(int a, int b) {
+        validateElement(a); validateElement(b);
+        if(edgeNum == edgeA.length) {
+            int capacity = POLICY.grownCapacity(edgeA.length, edgeNum + 1);
+            edgeA = Arrays.copyOf(edgeA, capacity);
+            edgeB = Arrays.copyOf(edgeB, capacity);
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            previousCopy = Arrays.copyOf(previousCopy, capacity);
+        }
+        edgeA[edgeNum] = a;
+        edgeB[edgeNum] = b;
+        start[edgeNum] = queryNum;
+        end[edgeNum] = NONE;
+        previousCopy[edgeNum] = presentEdges.put(key(a, b), edgeNum);
+        edgeNum++;
+    }
+
+    /**
+     * Remove one edge between a and b
+     *
+     * @throws IllegalArgumentException if there is no edge between a and b
+     */
+    public void cut(int a, int b) {
+        validateElement(a); validateElement(b);
+        final long key = key(a, b);
+        final int edge = presentEdges.get(key);
+        if(edge == NONE) throw new IllegalArgumentException("No edge between " + a + " and " + b);
+        end[edge] = queryNum;
+        presentEdges.put(key, previousCopy[edge]);
+    }
+
+    private int addQuery(int a, int b) {
+        if(queryNum == queryA.length) {
+            int capacity = POLICY.grownCapacity(queryA.length, queryNum + 1);
+            queryA = Arrays.copyOf(queryA, capacity);
+            queryB = Arrays.copyOf(queryB, capacity);
+        }
+        queryA[queryNum] = a;
+        queryB[queryNum] = b;
+        return queryNum++;
+    }
+
+    /**
+     * Ask whether a and b are connected by the edges present now
+     *
+     * @return index of the query in the answers of solve, 1 if connected, 0 if not
+     */
+    public int connectedQuery(int a, int b) {
+        validateElement(a); validateElement(b);
+        return addQuery(a, b);
+    }
+
+    /**
+     * Ask the number of connected components of the edges present now
+     *
+     * @return index of the query in the answers of solve
+     */
+    public int componentCountQuery() {
+        return addQuery(NONE, NONE);
+    }
+
+    public int queryCount() {
+        return queryNum;
+    }
+
+    /**
+     * Answer every query recorded so far, more operations may be recorded afterwards
+     *
+     * @return answer of every query, by index
+     */
+    public int[] solve() {
+        final int[] answers = new int[queryNum];
+        if(queryNum == 0) return answers;
+
+        // edge intervals on the segment tree nodes, nodes are numbered from 1 as a heap
+        SegmentLists lists = new SegmentLists(4 * queryNum);
+        for(int e = 0; e < edgeNum; e++) {
+            int to = end[e] == NONE ? queryNum : end[e];
+            if(start[e] < to) lists.addInterval(1, 0, queryNum, start[e], to, e);
+        }
+        lists.build();
+
+        solve(new RollbackUnionFind(componentNum), lists, 1, 0, queryNum, answers);
+        return answers;
+    }
+
+    /** Answer the queries [from, to) of given node, with the edges of its ancestors united */
+    private void solve(RollbackUnionFind uf, SegmentLists lists, int node, int from, int to, int[] answers) {
+        final int snapshot = uf.snapshot();
+        for(int i = lists.first[node]; i < lists.first[node + 1]; i++) {
+            int e = lists.edges[i];
+            uf.union(edgeA[e], edgeB[e]);
+        }
+        if(to - from == 1) {
+            answers[from] = queryA[from] == NONE ? uf.getComponentCount()
+                    : uf.isConnected(queryA[from], queryB[from]) ? 1 : 0;
+        } else {
+            final int mid = (from + to) >>> 1;
+            solve(uf, lists, 2 * node, from, mid, answers);
+            solve(uf, lists, 2 * node + 1, mid, to, answers);
+        }
+        uf.rollback(snapshot);
+    }
+
+    /**
+     * Edges of every node of the segment tree, collected as (node, edge) pairs
+     * then grouped by node with a counting sort
+     */
+    private static class SegmentLists {
+        private int[] pairNodes = new int[16], pairEdges = new int[16];
+        private int pairNum;
+        private final int[] first;    // edges of node v are edges[first[v] ... first[v+1])
+        private int[] edges;
+
+        SegmentLists(int nodeNum) {
+            this.first = new int[nodeNum + 2];
+        }
+
+        /** Add the edge to the nodes covering [from, to) under given node of range [lo, hi) */
+        void addInterval(int node, int lo, int hi, int from, int to, int edge) {
+            if(from <= lo && hi <= to) {
+                if(pairNum == pairNodes.length) {
+                    int capacity = POLICY.grownCapacity(pairNodes.length, pairNum + 1);
+                    pairNodes = Arrays.copyOf(pairNodes, capacity);
+                    pairEdges = Arrays.copyOf(pairEdges, capacity);
+                }
+                pairNodes[pairNum] = node;
+                pairEdges[pairNum++] = edge;
+                return;
+            }
+            final int mid = (lo + hi) >>> 1;
+            if(from < mid) addInterval(2 * node, lo, mid, from, to, edge);
+            if(to > mid) addInterval(2 * node + 1, mid, hi, from, to, edge);
+        }
+
+        void build() {
+            for(int i = 0; i < pairNum; i++) first[pairNodes[i] + 1]++;
+            for(int v = 1; v < first.length; v++) first[v] += first[v - 1];
+            edges = new int[pairNum];
+            int[] next = Arrays.copyOf(first, first.length);
+            for(int i = 0; i < pairNum; i++) edges[next[pairNodes[i]]++] = pairEdges[i];
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package unionfind;
+
+import java.util.Arrays;
+
+import util.ResizePolicy;
+
+/**
+ * Union Find whose unions can be undone, most recent first.
+ * <p>
+ * Union by rank and no path compression, so every union changes the parent of a
+ * single root (and maybe the rank of the other) and find is O(log n) in the worst case.
+ * Every successful union pushes the linked root on an undo stack, {@link #snapshot()}
+ * is the height of the stack and {@link #rollback(int)} pops the stack down to it,
+ * restoring the sets as they were when the snapshot was taken.
+ */
+public class RollbackUnionFind implements DisjointSet {
+    private static final ResizePolicy POLICY = ResizePolicy.neverShrink(2);
+
+    private final int[] parents;
+    private final byte[] ranks;
+    private final int[] sizes;
+    private int[] history;      // linked roots, as ~root if the rank of its new parent grew
+    private int historySize;
+    private int count;
+
+    // RI:  parents[r] == r for a root r, the path from any element to its root is at most ranks[r] long
+    //      sizes[r] is the size of the set of a root r
+    //      history[0 ... historySize) holds the roots linked by every union not rolled back, oldest first
+    //      count == parents.length - historySize
+
+    public RollbackUnionFind(int componentNum) {
+        if(componentNum < 0) throw new IllegalArgumentException("Invalid");
+        this.parents = new int[componentNum];
+        this.ranks = new byte[componentNum];
+        this.sizes = new int[componentNum];
+        this.history = new int[16];
+        for(int i = 0; i < componentNum; i++) parents[i] = i;
+        Arrays.fill(sizes, 1);
+        this.count = componentNum;
+    }
+
+    private void validateElement(int a) {
+        if(a < 0 || a >= parents.length) throw new IllegalArgumentException();
+    }
+
+    private int root(int a) {
+        while(parents[a] != a) a = parents[a];
+        return a;
+    }
+
+    @Override
+    public boolean union(int a, int b) {
+        validateElement(a); validateElement(b);
+        int aLeader = root(a);
+        int bLeader = root(b);
+        if(aLeader == bLeader) return false;
+
+        if(ranks[aLeader] < ranks[bLeader]) {
+            int t = aLeader;
+            aLeader = bLeader;
+            bLeader = t;
+        }
+        final boolean grows = ranks[aLeader] == ranks[bLeader];
+        parents[bLeader] = aLeader;
+        sizes[aLeader] += sizes[bLeader];
+        if(grows) ranks[aLeader]++;
+
+        if(historySize == history.length) history = Arrays.copyOf(history, POLICY.grownCapacity(history.length, historySize + 1));
+        history[historySize++] = grows ? ~bLeader : bLeader;
+        count--;
+        return true;
+    }
+
+    /**
+     * State to give to rollback, to undo every union done after this call
+     */
+    public int snapshot() {
+        return historySize;
+    }
+
+    /**
+     * Undo the unions done since given snapshot, most recent first
+     * Running time O(number of unions undone)
+     *
+     * @throws IllegalArgumentException if the snapshot was already rolled back
+     */
+    public void rollback(int snapshot) {
+        if(snapshot < 0 || snapshot > historySize) throw new IllegalArgumentException("Invalid snapshot");
+        while(historySize > snapshot) {
+            int linked = history[--historySize];
+            final boolean grew = linked < 0;
+            if(grew) linked = ~linked;
+            final int parent = parents[linked];
+            if(grew) ranks[parent]--;
+            sizes[parent] -= sizes[linked];
+            parents[linked] = linked;
+            count++;
+        }
+        assert checkRep();
+    }
+
+    private boolean checkRep() {
+        return count == parents.length - historySize;
+    }
+
+    @Override
+    public int find(int a) {
+        validateElement(a);
+        return root(a);
+    }
+
+    @Override
+    public boolean isConnected(int a, int b) {
+        validateElement(a); validateElement(b);
+        return root(a) == root(b);
+    }
+
+    /** Number of elements in the set of a */
+    public int componentSize(int a) {
+        return sizes[find(a)];
+    }
+
+    @Override
+    public int getComponentCount() {
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return parents.length;
+    }
+}
@@ -2,71 +2,106 @@ package unionfind;
 
 /**
  * Lazy Union Find Data Structure
- * implemented with Union by Rank and Path Compression
+ * implemented with Union by Rank (or by Size) and Path Halving.
+ * <p>
+ * find is iterative: every node on the path to the root is linked to its grandparent,
+ * so the path halves in length and no recursion depends on the height of the tree.
  */
-public class UnionFind {
+public class UnionFind implements DisjointSet {
     private final int[] nodes;
-    private final int[] ranks;
+    private final int[] ranks;  // rank, or size of the set, of each root
+    private final Linking linking;
     private int count;
 
     public UnionFind(int componentNum) {
+        this(componentNum, Linking.RANK);
+    }
+
+    public UnionFind(int componentNum, Linking linking) {
         if(componentNum < 0) throw new IllegalArgumentException("Invalid");
+        if(linking == null) throw new NullPointerException("Linking is null");
         this.nodes = new int[componentNum];
         this.ranks = new int[componentNum];
+        this.linking = linking;
+        final int initial = linking == Linking.RANK ? 0 : 1;
         for(int i = 0; i < componentNum; i++) {
             this.nodes[i] = i;
-            this.ranks[i] = 1;
+            this.ranks[i] = initial;
         }
         this.count = componentNum;
     }
 
+    /**
+     * Single set of n elements where the parent of i is i + 1, a tree of height n - 1 that
+     * union never builds, to test find on deep trees
+     */
+    static UnionFind chain(int n, Linking linking) {
+        UnionFind uf = new UnionFind(n, linking);
+        for(int i = 0; i + 1 < n; i++) uf.nodes[i] = i + 1;
+        if(n > 0) uf.ranks[n - 1] = linking == Linking.RANK ? n - 1 : n;
+        uf.count = Math.min(n, 1);
+        return uf;
+    }
+
     private void validateElement(int a) {
         if(a < 0 || a >= nodes.length) throw new IllegalArgumentException();
     }
 
+    @Override
     public boolean union(int a, int b) {
         validateElement(a); validateElement(b);
-        int aLeader = findRec(a);
-        int bLeader = findRec(b);
+        int aLeader = root(a);
+        int bLeader = root(b);
         if(aLeader == bLeader) return false;
 
         final int rankA = ranks[aLeader];
         final int rankB = ranks[bLeader];
+        // aLeader becomes the root of the merged set
         if(rankA < rankB) {
-            ranks[aLeader] = rankA + 1;
-            nodes[bLeader] = aLeader;
-        } else {
-            ranks[bLeader] = rankB + 1;
-            nodes[aLeader] = bLeader;
+            int t = aLeader;
+            aLeader = bLeader;
+            bLeader = t;
         }
+        nodes[bLeader] = aLeader;
+        if(linking == Linking.SIZE) ranks[aLeader] = rankA + rankB;
+        else if(rankA == rankB) ranks[aLeader] = rankA + 1;
         count --;
         return true;
     }
 
+    @Override
     public int find(int a) {
         validateElement(a);
-        return findRec(a);
+        return root(a);
     }
 
+    @Override
     public boolean isConnected(int a, int b) {
         validateElement(a);
         validateElement(b);
 
-        return findRec(a) == findRec(b);
+        return root(a) == root(b);
     }
 
-    private int findRec(int a) {
-        int leader = nodes[a];
-        if(leader == a) return leader;
-        else {
-            int trueLeader = findRec(leader);
-            nodes[a] = trueLeader;
-            return trueLeader;
+    /** Root of a, with path halving */
+    private int root(int a) {
+        int parent;
+        while((parent = nodes[a]) != a) {
+            int grandParent = nodes[parent];
+            nodes[a] = grandParent;
+            a = grandParent;
         }
+        return a;
     }
 
+    @Override
     public int getComponentCount() {
         return count;
     }
 
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+
 }
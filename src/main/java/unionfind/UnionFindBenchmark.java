@@ -0,0 +1,262 @@
+package unionfind;
+
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmarks of the union find implementations, run with {@code main}.
+ * <ul>
+ *     <li>kmax: the union/find sequence of KMaxSpacingClustering (Kruskal over edges sorted by cost),
+ *     on maxSpacingKClustering.txt and on a random graph of the same shape scaled up</li>
+ *     <li>hamming: the unions of BinaryPathTree.solveProblem (labels at Hamming distance at most 2),
+ *     on random labels</li>
+ *     <li>concurrent: random unions from several threads sharing a ConcurrentUnionFind</li>
+ *     <li>scenarios: component count of a random graph under what-if scenarios removing a few edges each,
+ *     rebuilt per scenario against OfflineDynamicConnectivity</li>
+ * </ul>
+ * Pairs are generated before the measure, only the union find operations are timed.
+ */
+public class UnionFindBenchmark {
+
+    private static Map<String, IntFunction<DisjointSet>> implementations() {
+        Map<String, IntFunction<DisjointSet>> res = new LinkedHashMap<>();
+        res.put("UnionFind rank", UnionFind::new);
+        res.put("UnionFind size", n -> new UnionFind(n, DisjointSet.Linking.SIZE));
+        res.put("PackedUnionFind size", PackedUnionFind::new);
+        res.put("PackedUnionFind rank", n -> new PackedUnionFind(n, DisjointSet.Linking.RANK));
+        res.put("ConcurrentUnionFind", ConcurrentUnionFind::new);
+        return res;
+    }
+
+    /**
+     * Kruskal: isConnected then union on every edge, until k components are left
+     *
+     * @return number of find operations
+     */
+    private static long kruskal(DisjointSet set, int[] a, int[] b, int k) {
+        long finds = 0;
+        for (int i = 0; i < a.length && set.getComponentCount() > k; i++) {
+            finds += 2;
+            if (!set.isConnected(a[i], b[i])) {
+                set.union(a[i], b[i]);
+                finds += 2;
+            }
+        }
+        return finds;
+    }
+
+    /**
+     * @return number of find operations
+     */
+    private static long unionAll(DisjointSet set, int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) set.union(a[i], b[i]);
+        return 2L * a.length;
+    }
+
+    private interface Workload {
+        long run(DisjointSet set);
+    }
+
+    private static void measure(String title, int n, int rounds, Workload workload) {
+        System.out.println(title);
+        for (Map.Entry<String, IntFunction<DisjointSet>> impl : implementations().entrySet()) {
+            long check = 0;
+            long finds = 0;
+            long time = 0;
+            for (int r = -1; r < rounds; r++) {
+                DisjointSet set = impl.getValue().apply(n);
+                long start = System.nanoTime();
+                finds = workload.run(set);
+                // first round is warm up
+                if (r >= 0) time += System.nanoTime() - start;
+                check += set.getComponentCount();
+            }
+            System.out.printf("  %-24s %8.2f ms %8.2f ns/find  [%d]%n",
+                    impl.getKey(), time / 1e6 / rounds, time / (double) rounds / finds, check);
+        }
+    }
+
+    public static void kMaxSpacing(String filePath, int nodeNum, int edgeNum) throws Exception {
+        Scanner in = new Scanner(new FileReader(filePath));
+        int n = in.nextInt();
+        long[] edges = new long[124750];
+        int m = 0;
+        while (in.hasNextInt()) {
+            int a = in.nextInt() - 1, b = in.nextInt() - 1, cost = in.nextInt();
+            if (m == edges.length) edges = Arrays.copyOf(edges, 2 * m);
+            edges[m++] = (long) cost << 40 | (long) a << 20 | b;
+        }
+        int[][] pairs = sortedPairs(Arrays.copyOf(edges, m), 20);
+        measure(String.format("KMaxSpacingClustering %s, %,d nodes, %,d edges, k = 4", filePath, n, m),
+                n, 200, set -> kruskal(set, pairs[0], pairs[1], 4));
+
+        Random ran = new Random(nodeNum);
+        long[] random = new long[edgeNum];
+        for (int i = 0; i < edgeNum; i++)
+            random[i] = (long) ran.nextInt(1 << 20) << 54 | (long) ran.nextInt(nodeNum) << 27 | ran.nextInt(nodeNum);
+        int[][] randomPairs = sortedPairs(random, 27);
+        measure(String.format("KMaxSpacingClustering random graph, %,d nodes, %,d edges, k = 4", nodeNum, edgeNum),
+                nodeNum, 3, set -> kruskal(set, randomPairs[0], randomPairs[1], 4));
+    }
+
+    /** Sort edges packed as cost | a | b, with bits per node, into two arrays of end points */
+    private static int[][] sortedPairs(long[] edges, int bits) {
+        Arrays.sort(edges);
+        long mask = (1L << bits) - 1;
+        int[] a = new int[edges.length];
+        int[] b = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            a[i] = (int) (edges[i] >>> bits & mask);
+            b[i] = (int) (edges[i] & mask);
+        }
+        return new int[][]{a, b};
+    }
+
+    /**
+     * Union every pair of labels at Hamming distance at most 2, like BinaryPathTree.solveProblem
+     */
+    public static void hamming(int labelNum, int bits) {
+        Random ran = new Random(labelNum);
+        int[] labels = new int[labelNum];
+        int[] firstOf = new int[1 << bits];   // first node with a label, plus one
+        for (int i = 0; i < labelNum; i++) {
+            labels[i] = ran.nextInt(1 << bits);
+            if (firstOf[labels[i]] == 0) firstOf[labels[i]] = i + 1;
+        }
+        int[] a = new int[16];
+        int[] b = new int[16];
+        int m = 0;
+        for (int i = 0; i < labelNum; i++) {
+            int label = labels[i];
+            for (int x = -1; x < bits; x++)
+                for (int y = x + 1; y <= bits; y++) {
+                    // x == -1: no flip, y == bits: a single flip
+                    int flipped = label ^ (x < 0 ? 0 : 1 << x) ^ (y == bits ? 0 : 1 << y);
+                    int friend = firstOf[flipped] - 1;
+                    if (friend < 0 || friend == i) continue;
+                    if (m == a.length) {
+                        a = Arrays.copyOf(a, 2 * m);
+                        b = Arrays.copyOf(b, 2 * m);
+                    }
+                    a[m] = i;
+                    b[m++] = friend;
+                }
+        }
+        final int[] pa = Arrays.copyOf(a, m), pb = Arrays.copyOf(b, m);
+        measure(String.format("BinaryPathTree.solveProblem random labels, %,d labels of %d bits, %,d pairs", labelNum, bits, m),
+                labelNum, 5, set -> unionAll(set, pa, pb));
+    }
+
+    /**
+     * n random unions on n elements from 1, 2, 4 ... maxThreads threads sharing a
+     * ConcurrentUnionFind, each thread taking a contiguous slice of the pairs
+     */
+    public static void concurrentUnions(int n, int maxThreads) throws InterruptedException {
+        Random ran = new Random(n);
+        int[] a = ran.ints(n, 0, n).toArray();
+        int[] b = ran.ints(n, 0, n).toArray();
+        System.out.printf("%,d random unions on %,d elements (%d cores)%n", n, n, Runtime.getRuntime().availableProcessors());
+        measure("  sequential", n, 3, set -> unionAll(set, a, b));
+        for (int threadNum = 1; threadNum <= maxThreads; threadNum *= 2) {
+            long time = 0;
+            int count = 0;
+            for (int r = -1; r < 3; r++) {
+                ConcurrentUnionFind set = new ConcurrentUnionFind(n);
+                Thread[] threads = new Thread[threadNum];
+                for (int t = 0; t < threadNum; t++) {
+                    final int from = (int) ((long) n * t / threadNum), to = (int) ((long) n * (t + 1) / threadNum);
+                    threads[t] = new Thread(() -> {
+                        for (int i = from; i < to; i++) set.union(a[i], b[i]);
+                    });
+                }
+                long start = System.nanoTime();
+                for (Thread thread : threads) thread.start();
+                for (Thread thread : threads) thread.join();
+                if (r >= 0) time += System.nanoTime() - start;
+                count = set.getComponentCount();
+            }
+            System.out.printf("  ConcurrentUnionFind %2d threads %8.2f ms %8.2f M unions/s  [%d]%n",
+                    threadNum, time / 1e6 / 3, n / (time / 3 / 1e3), count);
+        }
+    }
+
+    /**
+     * Component count of a random graph of n nodes and m edges, in q scenarios each removing
+     * r random edges: a PackedUnionFind rebuilt from all the other edges per scenario,
+     * against a single OfflineDynamicConnectivity
+     */
+    public static void scenarios(int n, int m, int q, int r) {
+        Random ran = new Random(q);
+        int[] a = ran.ints(m, 0, n).toArray();
+        int[] b = ran.ints(m, 0, n).toArray();
+        int[][] removed = new int[q][];
+        for (int s = 0; s < q; s++) removed[s] = ran.ints(r, 0, m).distinct().toArray();
+        System.out.printf("%,d nodes, %,d edges, %,d scenarios removing %d edges%n", n, m, q, r);
+
+        for (int round = -1; round < 3; round++) {
+            long start = System.nanoTime();
+            long check = 0;
+            boolean[] cut = new boolean[m];
+            for (int[] scenario : removed) {
+                for (int e : scenario) cut[e] = true;
+                PackedUnionFind set = new PackedUnionFind(n);
+                for (int e = 0; e < m; e++) if (!cut[e]) set.union(a[e], b[e]);
+                check += set.getComponentCount();
+                for (int e : scenario) cut[e] = false;
+            }
+            long rebuild = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            OfflineDynamicConnectivity connectivity = new OfflineDynamicConnectivity(n);
+            for (int e = 0; e < m; e++) connectivity.link(a[e], b[e]);
+            for (int[] scenario : removed) {
+                for (int e : scenario) connectivity.cut(a[e], b[e]);
+                connectivity.componentCountQuery();
+                for (int e : scenario) connectivity.link(a[e], b[e]);
+            }
+            long offlineCheck = 0;
+            for (int count : connectivity.solve()) offlineCheck += count;
+            long offline = System.nanoTime() - start;
+            // first round is warm up
+            if (round >= 0)
+                System.out.printf("  rebuild %8.2f ms [%d]   offline %8.2f ms [%d]%n",
+                        rebuild / 1e6, check, offline / 1e6, offlineCheck);
+        }
+    }
+
+    /**
+     * Usage: UnionFindBenchmark [kmax [nodes [edges]] | hamming [labels [bits]] | concurrent [unions [threads]]
+     *                           | scenarios [nodes [edges [scenarios [removed]]]]]
+     */
+    public static void main(String[] args) throws Exception {
+        String benchmark = args.length > 0 ? args[0] : "kmax";
+        switch (benchmark) {
+            case "kmax":
+                kMaxSpacing("./testData/graph/maxSpacingKClustering.txt",
+                        args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 1_000_000,
+                        args.length > 2 ? Integer.parseInt(args[2].replace("_", "")) : 10_000_000);
+                break;
+            case "hamming":
+                hamming(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 2_000_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 24);
+                break;
+            case "concurrent":
+                concurrentUnions(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 10_000_000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors());
+                break;
+            case "scenarios":
+                scenarios(args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 100_000,
+                        args.length > 2 ? Integer.parseInt(args[2].replace("_", "")) : 200_000,
+                        args.length > 3 ? Integer.parseInt(args[3].replace("_", "")) : 1_000,
+                        args.length > 4 ? Integer.parseInt(args[4]) : 10);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark " + benchmark);
+        }
+    }
+}
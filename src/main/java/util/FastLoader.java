@@ -0,0 +1,242 @@
+package util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Loader of text files of integers, such as edge lists, adjacency lists and bit labels,
+ * into primitive arrays.
+ * <p>
+ * The file is memory mapped and the ASCII digits are turned into ints straight from the
+ * {@link MappedByteBuffer}, without String, Scanner nor boxing. Every maximal run of digits,
+ * with an optional leading '-', is an integer; any other byte separates integers
+ * (spaces, tabs, commas ...). Lines without integers are skipped.
+ * <p>
+ * Large files are cut in chunks at line boundaries, parsed in parallel and concatenated in order.
+ */
+public final class FastLoader {
+    /** Files larger than this are parsed in parallel by default */
+    private static final long PARALLEL_THRESHOLD = 1 << 22;
+    /** Largest chunk, a mapping is at most 2 GB */
+    private static final long MAX_CHUNK = 1 << 30;
+
+    private FastLoader() {
+    }
+
+    /**
+     * Integers of a file by line: the integers of line i are
+     * values[lineStarts[i] ... lineStarts[i+1]), as a CSR graph
+     */
+    public static final class Table {
+        private final int[] values;
+        private final int[] lineStarts;
+
+        Table(int[] values, int[] lineStarts) {
+            this.values = values;
+            this.lineStarts = lineStarts;
+        }
+
+        public int lineCount() {
+            return lineStarts.length - 1;
+        }
+
+        public int lineLength(int line) {
+            return lineStarts[line + 1] - lineStarts[line];
+        }
+
+        /** k-th integer of the line */
+        public int get(int line, int k) {
+            if(k < 0 || k >= lineLength(line)) throw new IndexOutOfBoundsException("No integer " + k + " on line " + line);
+            return values[lineStarts[line] + k];
+        }
+
+        /** Integers of every line, one after the other */
+        public int[] values() {
+            return values;
+        }
+
+        /** Index in values of the first integer of every line, plus the number of integers */
+        public int[] lineStarts() {
+            return lineStarts;
+        }
+
+        /**
+         * Integers of the lines from given line on, of the given number of integers per line,
+         * one column per integer: columns[k][i] is the k-th integer of the i-th line
+         *
+         * @throws IllegalArgumentException if a line holds fewer integers
+         */
+        public int[][] columns(int fromLine, int width) {
+            final int n = lineCount() - fromLine;
+            int[][] columns = new int[width][Math.max(0, n)];
+            for(int i = 0; i < n; i++) {
+                final int line = fromLine + i;
+                if(lineLength(line) < width) throw new IllegalArgumentException("Line " + line + " holds " + lineLength(line) + " integers");
+                for(int k = 0; k < width; k++) columns[k][i] = values[lineStarts[line] + k];
+            }
+            return columns;
+        }
+
+        /**
+         * Lines from given line on, whose integers are bits (0 or 1), packed in longs
+         * with the first bit of the line most significant
+         */
+        public long[] bitRows(int fromLine, int bits) {
+            if(bits < 1 || bits > 64) throw new IllegalArgumentException("Invalid number of bits");
+            final int n = Math.max(0, lineCount() - fromLine);
+            long[] rows = new long[n];
+            for(int i = 0; i < n; i++) {
+                final int line = fromLine + i;
+                if(lineLength(line) != bits) throw new IllegalArgumentException("Line " + line + " holds " + lineLength(line) + " bits");
+                long row = 0;
+                for(int k = lineStarts[line]; k < lineStarts[line + 1]; k++) {
+                    if((values[k] & ~1) != 0) throw new IllegalArgumentException("Not a bit on line " + line);
+                    row = row << 1 | values[k];
+                }
+                rows[i] = row;
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Integers of the file by line, parsed in parallel if the file is large
+     */
+    public static Table readTable(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            return readTable(channel, size > PARALLEL_THRESHOLD ? Runtime.getRuntime().availableProcessors() : 1);
+        }
+    }
+
+    /**
+     * Integers of the file by line
+     *
+     * @param parallelism number of chunks parsed in parallel, 1 parses the file sequentially
+     */
+    public static Table readTable(String filePath, int parallelism) throws IOException {
+        if(parallelism < 1) throw new IllegalArgumentException("Invalid parallelism");
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return readTable(channel, parallelism);
+        }
+    }
+
+    /** Every integer of the file, in order */
+    public static int[] readInts(String filePath) throws IOException {
+        return readTable(filePath).values();
+    }
+
+    private static Table readTable(FileChannel channel, int parallelism) throws IOException {
+        final long size = channel.size();
+        final int chunkNum = (int) Math.max(parallelism, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+        // chunk c is [bounds[c], bounds[c+1]), every bound but the first is just after a '\n'
+        final long[] bounds = new long[chunkNum + 1];
+        bounds[chunkNum] = size;
+        for(int c = 1; c < chunkNum; c++)
+            bounds[c] = Math.max(bounds[c - 1], lineStartAfter(channel, size * c / chunkNum, size));
+
+        final Chunk[] chunks = new Chunk[chunkNum];
+        IntStream stream = IntStream.range(0, chunkNum);
+        (chunkNum > 1 ? stream.parallel() : stream).forEach(c -> {
+            try {
+                chunks[c] = parse(channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]), bounds[c]);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        if(chunkNum == 1) return new Table(Arrays.copyOf(chunks[0].values, chunks[0].valueNum),
+                Arrays.copyOf(chunks[0].lineStarts, chunks[0].lineNum + 1));
+        long valueNum = 0, lineNum = 0;
+        for(Chunk chunk : chunks) {
+            valueNum += chunk.valueNum;
+            lineNum += chunk.lineNum;
+        }
+        if(valueNum > Integer.MAX_VALUE - 8 || lineNum > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("File too large");
+        int[] values = new int[(int) valueNum];
+        int[] lineStarts = new int[(int) lineNum + 1];
+        int v = 0, l = 0;
+        for(Chunk chunk : chunks) {
+            System.arraycopy(chunk.values, 0, values, v, chunk.valueNum);
+            for(int i = 0; i < chunk.lineNum; i++) lineStarts[l++] = v + chunk.lineStarts[i];
+            v += chunk.valueNum;
+        }
+        lineStarts[l] = v;
+        return new Table(values, lineStarts);
+    }
+
+    /** Position just after the first '\n' at or after given position, or size */
+    private static long lineStartAfter(FileChannel channel, long position, long size) throws IOException {
+        final int window = 1 << 16;
+        for(long from = position; from < size; from += window) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(window, size - from));
+            for(int i = 0; i < buffer.limit(); i++)
+                if(buffer.get(i) == '\n') return from + i + 1;
+        }
+        return size;
+    }
+
+    /** Integers of a chunk of whole lines, with line starts relative to the chunk */
+    private static final class Chunk {
+        int[] values = new int[1024];
+        int valueNum;
+        int[] lineStarts = new int[64];
+        int lineNum;
+
+        void add(int value) {
+            if(valueNum == values.length) values = Arrays.copyOf(values, 2 * valueNum);
+            values[valueNum++] = value;
+        }
+
+        /** Close the current line, if it holds integers */
+        void endLine(int lineStart) {
+            if(valueNum == lineStart) return;
+            if(lineNum + 1 >= lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, 2 * lineStarts.length);
+            lineStarts[lineNum++] = lineStart;
+            lineStarts[lineNum] = valueNum;
+        }
+    }
+
+    private static Chunk parse(MappedByteBuffer buffer, long offset) {
+        final Chunk chunk = new Chunk();
+        final int limit = buffer.limit();
+        int lineStart = 0;
+        int i = 0;
+        while(i < limit) {
+            byte b = buffer.get(i);
+            if(b == '\n') {
+                chunk.endLine(lineStart);
+                lineStart = chunk.valueNum;
+                i++;
+                continue;
+            }
+            final boolean negative = b == '-' && i + 1 < limit && isDigit(buffer.get(i + 1));
+            if(!negative && !isDigit(b)) {
+                i++;
+                continue;
+            }
+            if(negative) i++;
+            long value = 0;
+            while(i < limit && isDigit(b = buffer.get(i))) {
+                value = value * 10 + (b - '0');
+                if(value > 1L + Integer.MAX_VALUE) throw new NumberFormatException("Integer too large at byte " + (offset + i));
+                i++;
+            }
+            if(negative) value = -value;
+            if(value > Integer.MAX_VALUE) throw new NumberFormatException("Integer too large at byte " + (offset + i));
+            chunk.add((int) value);
+        }
+        chunk.endLine(lineStart);
+        return chunk;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
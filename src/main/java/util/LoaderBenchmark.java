@@ -0,0 +1,75 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Benchmark of the parsing of an edge list shaped like SCC.txt (875,714 nodes, 5,105,043 edges,
+ * a line "tail head" per edge), run with {@code main}: Scanner with String.split and Integer.valueOf,
+ * as the entry points used to parse their input, against FastLoader sequential and in parallel.
+ * The file is generated first, only the parsing is timed.
+ */
+public class LoaderBenchmark {
+
+    private interface Parser {
+        long parse(String filePath) throws IOException;
+    }
+
+    private static long scanner(String filePath) throws IOException {
+        long check = 0;
+        try (Scanner in = new Scanner(new FileReader(filePath))) {
+            while (in.hasNextLine()) {
+                String[] edge = in.nextLine().trim().split("\\s+");
+                check += Integer.valueOf(edge[0]) + Integer.valueOf(edge[1]);
+            }
+        }
+        return check;
+    }
+
+    private static long fastLoader(String filePath, int parallelism) throws IOException {
+        long check = 0;
+        for (int value : FastLoader.readTable(filePath, parallelism).values()) check += value;
+        return check;
+    }
+
+    private static void run(String name, Parser parser, String filePath, int rounds) throws IOException {
+        long check = parser.parse(filePath);  // warm up
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < rounds; r++) {
+            long time = System.nanoTime();
+            check = parser.parse(filePath);
+            best = Math.min(best, System.nanoTime() - time);
+        }
+        System.out.printf("  %-28s %9.1f ms  [%d]%n", name, best / 1e6, check);
+    }
+
+    /**
+     * Usage: LoaderBenchmark [nodes [edges [rounds]]]
+     */
+    public static void main(String[] args) throws IOException {
+        final int nodeNum = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 875_714;
+        final int edgeNum = args.length > 1 ? Integer.parseInt(args[1].replace("_", "")) : 5_105_043;
+        final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        File file = File.createTempFile("edges", ".txt");
+        file.deleteOnExit();
+        Random ran = new Random(nodeNum);
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            for (int e = 0; e < edgeNum; e++) out.print((1 + ran.nextInt(nodeNum)) + " " + (1 + ran.nextInt(nodeNum)) + " \n");
+        }
+        final String filePath = file.getPath();
+        System.out.printf("%,d edges on %,d nodes, %.1f MB, %d cores%n", edgeNum, nodeNum, file.length() / 1048576.0,
+                Runtime.getRuntime().availableProcessors());
+
+        run("Scanner + split", LoaderBenchmark::scanner, filePath, rounds);
+        for (int parallelism = 1; parallelism <= Math.max(4, Runtime.getRuntime().availableProcessors()); parallelism *= 2) {
+            final int p = parallelism;
+            run("FastLoader " + p + " chunks", path -> fastLoader(path, p), filePath, rounds);
+        }
+    }
+}
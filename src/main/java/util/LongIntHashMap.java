@@ -0,0 +1,144 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from {@code long} keys to {@code int} values, without boxing.
+ * <p>
+ * Open addressing with linear probing in two parallel arrays, whose capacity is
+ * a power of two kept at least twice the number of keys. Key 0 marks a free slot
+ * in the key array, so the entry of key 0 itself is stored apart.
+ * Keys are scrambled by a multiplicative hash, so consecutive keys do not
+ * cluster in the table.
+ */
+public class LongIntHashMap {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;         // 64 - log2(capacity)
+    private int size;          // number of keys, key 0 included
+    private boolean hasZeroKey;
+    private int zeroValue;
+    private final int missingValue;
+
+    // RI:  keys.length == values.length == mask + 1, a power of two
+    //      every key k != 0 is found by probing from slot(k) without crossing a free slot
+    //      2 * (size - (hasZeroKey ? 1 : 0)) <= keys.length
+
+    /**
+     * @param missingValue value returned by get for a key not in the map
+     */
+    public LongIntHashMap(int missingValue) {
+        this(16, missingValue);
+    }
+
+    /**
+     * @param expectedSize number of keys the map holds without resizing
+     * @param missingValue value returned by get for a key not in the map
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Invalid size");
+        int capacity = Integer.highestOneBit(Math.max(2 * expectedSize, 2) - 1) << 1;
+        if (capacity <= 0 || capacity > MAX_CAPACITY) capacity = MAX_CAPACITY;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        this.missingValue = missingValue;
+    }
+
+    /** Top bits of the key times the golden ratio (Fibonacci hashing) */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int missingValue() {
+        return missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZeroKey;
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask)
+            if (keys[i] == key) return true;
+        return false;
+    }
+
+    /**
+     * @return value of the key, or the missing value if the key is not in the map
+     */
+    public int get(long key) {
+        if (key == 0) return hasZeroKey ? zeroValue : missingValue;
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask)
+            if (keys[i] == key) return values[i];
+        return missingValue;
+    }
+
+    /**
+     * @return previous value of the key, or the missing value if the key was not in the map
+     */
+    public int put(long key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : missingValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+        int i = slot(key);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (2 * (size - (hasZeroKey ? 1 : 0)) > keys.length) rehash(2 * keys.length);
+        return missingValue;
+    }
+
+    /**
+     * Value of the key, after mapping it to given value if it was not in the map
+     */
+    public int putIfAbsent(long key, int value) {
+        if (containsKey(key)) return get(key);
+        put(key, value);
+        return value;
+    }
+
+    private void rehash(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) throw new IllegalStateException("Map is full");
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = slot(oldKeys[j]);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+}
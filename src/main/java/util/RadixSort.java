@@ -0,0 +1,54 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * LSD radix sort of {@code long} keys, for keys packing a sort key in their high bits
+ * and a payload (such as an index) in their low bits.
+ * <p>
+ * Keys are sorted as signed longs on their bits [lowBit, 64) only, so a key {@code (long) cost << 32 | index}
+ * is sorted by cost in 2 passes of 16 bits instead of 4. The sort is stable: keys equal on the sorted bits keep
+ * their order. A pass whose digit is the same for every key is skipped.
+ */
+public final class RadixSort {
+    private static final int SMALL = 1 << 12;
+
+    private RadixSort() {
+    }
+
+    /** Sort the keys on all of their bits */
+    public static void sort(long[] keys) {
+        sort(keys, 0);
+    }
+
+    /**
+     * Sort the keys on their bits [lowBit, 64), stable
+     * Running time O(n (64 - lowBit) / 16), plus an array of n longs
+     */
+    public static void sort(long[] keys, int lowBit) {
+        if(lowBit < 0 || lowBit >= 64) throw new IllegalArgumentException("Invalid low bit");
+        final int n = keys.length;
+        if(n < 2) return;
+        // small arrays take 8 bits digits, the counts of 16 bits digits would outweigh the keys
+        final int digitBits = n < SMALL ? 8 : 16;
+        final int[] count = new int[(1 << digitBits) + 1];
+        long[] from = keys, to = new long[n];
+        for(int shift = lowBit; shift < 64; shift += digitBits) {
+            final int mask = (1 << Math.min(digitBits, 64 - shift)) - 1;
+            Arrays.fill(count, 0);
+            // the sign bit is flipped so that negative keys come first
+            for(long key : from) count[digit(key, shift, mask) + 1]++;
+            if(count[digit(from[0], shift, mask) + 1] == n) continue;
+            for(int d = 0; d < mask + 1; d++) count[d + 1] += count[d];
+            for(long key : from) to[count[digit(key, shift, mask)]++] = key;
+            long[] t = from;
+            from = to;
+            to = t;
+        }
+        if(from != keys) System.arraycopy(from, 0, keys, 0, n);
+    }
+
+    private static int digit(long key, int shift, int mask) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> shift) & mask;
+    }
+}
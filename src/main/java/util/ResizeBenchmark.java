@@ -0,0 +1,132 @@
+package util;
+
+import heap.BinaryHeap;
+import queues.DequeArray;
+import queues.RandomizedQueue;
+import queues.StackArray;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Sawtooth benchmark of the array backed heap and queues, run with {@code main}:
+ * every cycle fills a collection to n elements and drains it again.
+ * With the default policies every cycle copies the array at each growth and shrink step;
+ * pre-sized or never shrinking collections copy nothing after the first cycle.
+ * Reports time, allocated bytes (dominated by the array copies, values are pre-boxed)
+ * and garbage collections during the measured cycles.
+ */
+public class ResizeBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Sawtooth {
+        /** Fill to n elements, drain, return a checksum */
+        long cycle(Integer[] values);
+    }
+
+    private static long allocatedBytes() {
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    private static long gcMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0, gc.getCollectionTime());
+        return time;
+    }
+
+    private static void run(String name, Sawtooth sawtooth, Integer[] values, int cycles) {
+        long check = sawtooth.cycle(values);  // warm up, sizes the pre-sized collections
+        long bytes = allocatedBytes();
+        long count = gcCount();
+        long gcTime = gcMillis();
+        long time = System.nanoTime();
+        for (int c = 0; c < cycles; c++) check += sawtooth.cycle(values);
+        time = System.nanoTime() - time;
+        System.out.printf("  %-36s %8.1f ms/cycle %12.1f KB/cycle %5d GCs %6d ms GC  [%d]%n",
+                name, time / 1e6 / cycles, (allocatedBytes() - bytes) / 1024.0 / cycles,
+                gcCount() - count, gcMillis() - gcTime, check);
+    }
+
+    private static Sawtooth heap(BinaryHeap<Integer> heap) {
+        return values -> {
+            long sum = 0;
+            for (Integer v : values) heap.insert(v);
+            while (!heap.isEmpty()) sum += heap.delMin();
+            return sum;
+        };
+    }
+
+    private static Sawtooth stack(StackArray<Integer> stack) {
+        return values -> {
+            long sum = 0;
+            for (Integer v : values) stack.push(v);
+            while (!stack.isEmpty()) sum += stack.pop();
+            return sum;
+        };
+    }
+
+    private static Sawtooth randomizedQueue(RandomizedQueue<Integer> queue) {
+        return values -> {
+            long sum = 0;
+            for (Integer v : values) queue.enqueue(v);
+            while (!queue.isEmpty()) sum += queue.dequeue();
+            return sum;
+        };
+    }
+
+    private static Sawtooth deque(DequeArray<Integer> deque) {
+        return values -> {
+            long sum = 0;
+            for (Integer v : values) deque.addLast(v);
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            return sum;
+        };
+    }
+
+    private static void compare(String name, IntFunction<Sawtooth> presized,
+                                Sawtooth byDefault, Sawtooth neverShrink, Integer[] values, int cycles) {
+        System.out.println(name);
+        run("default", byDefault, values, cycles);
+        run("never shrink", neverShrink, values, cycles);
+        run("initial capacity n", presized.apply(values.length), values, cycles);
+    }
+
+    /**
+     * Usage: ResizeBenchmark [n [cycles]]
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 1_000_000;
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Integer[] values = new Random(n).ints(n, 0, 1 << 20).boxed().toArray(Integer[]::new);
+        System.out.printf("Sawtooth: fill to %,d elements and drain, %d cycles%n", n, cycles);
+
+        compare("BinaryHeap",
+                cap -> heap(new BinaryHeap<>(null, 2, false, cap, ResizePolicy.QUADRUPLE)),
+                heap(new BinaryHeap<>()),
+                heap(new BinaryHeap<>(null, 2, false, 1, ResizePolicy.neverShrink(4))), values, cycles);
+        compare("StackArray",
+                cap -> stack(new StackArray<>(cap, ResizePolicy.DOUBLING)),
+                stack(new StackArray<>()),
+                stack(new StackArray<>(1, ResizePolicy.neverShrink(2))), values, cycles);
+        compare("RandomizedQueue",
+                cap -> randomizedQueue(new RandomizedQueue<>(cap, ResizePolicy.DOUBLING)),
+                randomizedQueue(new RandomizedQueue<>()),
+                randomizedQueue(new RandomizedQueue<>(1, ResizePolicy.neverShrink(2))), values, cycles);
+        compare("DequeArray",
+                cap -> deque(new DequeArray<>(cap, ResizePolicy.DOUBLING)),
+                deque(new DequeArray<>()),
+                deque(new DequeArray<>(1, ResizePolicy.neverShrink(2))), values, cycles);
+    }
+}
@@ -0,0 +1,73 @@
+package util;
+
+/**
+ * Growth and shrink rule of an array backed collection.
+ * <p>
+ * A full array grows by a constant factor. An array whose size drops to
+ * 1/shrinkDivisor of its capacity shrinks to twice its size (never below the
+ * minimum capacity of the collection). With a shrink divisor greater than 2,
+ * the array is half full after every resize, so an oscillating size cannot
+ * trigger a copy on every operation.
+ * A shrink divisor of 0 disables shrinking: the array only gets smaller on
+ * an explicit trimToSize of the collection.
+ */
+public final class ResizePolicy {
+
+    /** Grow x4, shrink at 1/4, the default of the heaps */
+    public static final ResizePolicy QUADRUPLE = new ResizePolicy(4, 4);
+
+    /** Grow x2, shrink at 1/4, the default of the queues */
+    public static final ResizePolicy DOUBLING = new ResizePolicy(2, 4);
+
+    // some VMs reserve header words in an array
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final int growthFactor;
+    private final int shrinkDivisor;
+
+    /**
+     * @param growthFactor  capacity multiplier when the array is full, at least 2
+     * @param shrinkDivisor shrink when size <= capacity / shrinkDivisor, greater than 2, or 0 to never shrink
+     */
+    public ResizePolicy(int growthFactor, int shrinkDivisor) {
+        if (growthFactor < 2) throw new IllegalArgumentException("Growth factor must be at least 2");
+        if (shrinkDivisor != 0 && shrinkDivisor <= 2)
+            throw new IllegalArgumentException("Shrink divisor must be greater than 2, or 0 to never shrink");
+        this.growthFactor = growthFactor;
+        this.shrinkDivisor = shrinkDivisor;
+    }
+
+    public static ResizePolicy neverShrink(int growthFactor) {
+        return new ResizePolicy(growthFactor, 0);
+    }
+
+    public boolean shrinks() {
+        return shrinkDivisor != 0;
+    }
+
+    /**
+     * @return capacity of an array of given capacity that must hold required elements,
+     *         the same capacity if it is large enough
+     */
+    public int grownCapacity(int capacity, int required) {
+        if (required < 0 || required > MAX_CAPACITY) throw new OutOfMemoryError("Required array size too large");
+        if (required <= capacity) return capacity;
+        long grown = (long) Math.max(capacity, 1) * growthFactor;
+        return (int) Math.max(required, Math.min(grown, MAX_CAPACITY));
+    }
+
+    /**
+     * @return capacity of an array of given capacity holding size elements,
+     *         the same capacity if it should not shrink
+     */
+    public int shrunkCapacity(int size, int capacity, int minCapacity) {
+        if (shrinkDivisor == 0 || capacity <= minCapacity || size > capacity / shrinkDivisor) return capacity;
+        return Math.max(Math.max(minCapacity, 1), 2 * size);
+    }
+
+    @Override
+    public String toString() {
+        return shrinks() ? "grow x" + growthFactor + ", shrink at 1/" + shrinkDivisor
+                         : "grow x" + growthFactor + ", never shrink";
+    }
+}
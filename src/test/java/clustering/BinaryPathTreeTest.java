@@ -54,4 +54,24 @@ class BinaryPathTreeTest {
             assertNull(p2.findValue(path));
     }
 
-}
\ No newline at end of file
+    @Test
+    void buildSearchTree_pathsLongerThanAKey() {
+        BinaryPathTree<Integer> tree = new BinaryPathTree<>();
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < 200; i++) path.append(i % 3 == 0 ? '1' : '0');
+        List<String> paths = Arrays.asList(path.substring(0, BinaryPathTree.MAX_PATH_LENGTH),
+                path.substring(0, BinaryPathTree.MAX_PATH_LENGTH + 1), path.substring(0, 100), path.toString());
+        for (int i = 0; i < paths.size(); i++) tree.buildSearchTree(new Package<>(paths.get(i), i));
+        assertEquals(paths.size(), tree.size());
+        for (int i = 0; i < paths.size(); i++) {
+            assertEquals(i, tree.findValue(paths.get(i)).intValue());
+            assertEquals(i, tree.findValue(paths.get(i).getBytes()).intValue());
+        }
+        assertNull(tree.findValue(path.substring(0, BinaryPathTree.MAX_PATH_LENGTH - 1)));
+        assertNull(tree.findValue(path.substring(0, BinaryPathTree.MAX_PATH_LENGTH + 2)));
+        assertNull(tree.findValue(path.substring(0, 199)));
+        tree.buildSearchTree(new Package<>(path.toString(), 9));
+        assertEquals(9, tree.findValue(path.toString()).intValue());
+        assertEquals(paths.size(), tree.size());
+    }
+}
@@ -0,0 +1,78 @@
+package clustering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTrieTest {
+
+    @Test
+    void put_matchesHashMap() {
+        Random ran = new Random(17);
+        for(int bits : new int[]{1, 5, 24, 63, 64}) {
+            BinaryTrie trie = new BinaryTrie(bits);
+            Map<Long, Integer> expected = new HashMap<>();
+            final long mask = bits == 64 ? -1L : (1L << bits) - 1;
+            for(int i = 0; i < 5000; i++) {
+                // few distinct keys for narrow tries, so keys are also overwritten
+                long key = ran.nextLong() & mask & (ran.nextBoolean() ? 0xFFL : -1L);
+                Integer previous = expected.put(key, i);
+                assertEquals(previous == null ? BinaryTrie.MISSING : previous, trie.put(key, i));
+                long query = ran.nextLong() & mask;
+                assertEquals(expected.getOrDefault(query, BinaryTrie.MISSING).intValue(), trie.get(query));
+            }
+            assertEquals(expected.size(), trie.size());
+            for(Map.Entry<Long, Integer> entry : expected.entrySet())
+                assertEquals((int) entry.getValue(), trie.get(entry.getKey()));
+
+            // every prefix length, on the prefixes of the keys and random ones
+            for(int q = 0; q < 200; q++) {
+                long key = q % 2 == 0 ? new ArrayList<>(expected.keySet()).get(ran.nextInt(expected.size())) : ran.nextLong() & mask;
+                int length = ran.nextInt(bits + 1);
+                long prefix = length == 0 ? 0 : key >>> (bits - length);
+                long count = expected.keySet().stream()
+                        .filter(k -> length == 0 || k >>> (bits - length) == prefix).count();
+                assertEquals(count, trie.countWithPrefix(prefix, length), bits + " bits, prefix of " + length);
+            }
+        }
+    }
+
+    @Test
+    void fromSorted_sameAsPut() {
+        Random ran = new Random(19);
+        long[] keys = new long[3000];
+        for(int i = 0; i < keys.length; i++) keys[i] = ran.nextInt(4) == 0 && i > 0 ? keys[i - 1] : ran.nextLong() >>> 20;
+        Arrays.sort(keys);
+        BinaryTrie sorted = BinaryTrie.fromSorted(keys, 44);
+        BinaryTrie inserted = new BinaryTrie(44);
+        for(int i = keys.length - 1; i >= 0; i--) inserted.put(keys[i], i);
+        assertEquals(inserted.size(), sorted.size());
+
+        List<Long> visited = new ArrayList<>();
+        sorted.forEach((key, value) -> {
+            visited.add(key);
+            // first index of the key
+            assertEquals(value, inserted.get(key));
+            assertTrue(value == 0 || keys[value - 1] != key);
+        });
+        assertArrayEquals(Arrays.stream(keys).distinct().toArray(), visited.stream().mapToLong(Long::longValue).toArray());
+        for(int length = 0; length <= 44; length += 4) {
+            long prefix = length == 0 ? 0 : keys[1000] >>> (44 - length);
+            assertEquals(inserted.countWithPrefix(prefix, length), sorted.countWithPrefix(prefix, length));
+        }
+
+        // unsigned order of 64 bits keys
+        BinaryTrie signed = BinaryTrie.fromSorted(new long[]{1, Long.MAX_VALUE, Long.MIN_VALUE, -1}, 64);
+        assertEquals(2, signed.get(Long.MIN_VALUE));
+        assertEquals(2, signed.countWithPrefix(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> BinaryTrie.fromSorted(new long[]{3, 2}, 8));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryTrie(8).put(256, 0));
+    }
+}
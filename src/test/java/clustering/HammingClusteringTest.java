@@ -0,0 +1,127 @@
+package clustering;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import unionfind.UnionFind;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HammingClusteringTest {
+
+    /** Clusters of spacing at least given spacing, over every pair of nodes */
+    private static int bruteForce(long[] labels, int spacing) {
+        UnionFind uf = new UnionFind(labels.length);
+        for(int i = 0; i < labels.length; i++)
+            for(int j = i + 1; j < labels.length; j++)
+                if(Long.bitCount(labels[i] ^ labels[j]) < spacing) uf.union(i, j);
+        return uf.getComponentCount();
+    }
+
+    @Test
+    void masks_allWeights() {
+        long[] masks = HammingClustering.masks(24, 2);
+        assertEquals(24 + 276, masks.length);
+        for(int i = 0; i < masks.length; i++) {
+            assertEquals(i < 24 ? 1 : 2, Long.bitCount(masks[i]));
+            assertEquals(0, masks[i] >>> 24);
+            for(int j = 0; j < i; j++) assertNotEquals(masks[j], masks[i]);
+        }
+        assertEquals(64, HammingClustering.masks(64, 1).length);
+    }
+
+    @Test
+    void clusterNum_matchesBruteForce() {
+        Random ran = new Random(3);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for(int bits : new int[]{3, 10, 14, 40, 64}) {
+            long[] labels = new long[3000];
+            for(int i = 0; i < labels.length; i++) {
+                // labels close to a few centers, so there are clusters of every size
+                long center = ran.nextInt(8) * 0x9E3779B97F4A7C15L;
+                labels[i] = center ^ 1L << ran.nextInt(bits) ^ 1L << ran.nextInt(bits) ^ (ran.nextInt(4) == 0 ? ran.nextLong() : 0);
+                if(bits < 64) labels[i] &= (1L << bits) - 1;
+            }
+            HammingClustering clustering = new HammingClustering(labels, bits);
+            for(int spacing = 1; spacing <= 4; spacing++) {
+                int expected = bruteForce(labels, spacing);
+                assertEquals(expected, clustering.clusterNum(spacing), bits + " bits, spacing " + spacing);
+                assertEquals(expected, clustering.clusterNum(spacing, pool), bits + " bits, spacing " + spacing);
+            }
+        }
+    }
+
+    @Test
+    void read_matchesSolveProblem() throws Exception {
+        File file = File.createTempFile("hamming", ".txt");
+        file.deleteOnExit();
+        Random ran = new Random(5);
+        final int n = 3000, bits = 12;
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println(n + " " + bits);
+            for(int i = 0; i < n; i++) {
+                StringBuilder line = new StringBuilder();
+                int label = ran.nextInt(1 << bits) | ran.nextInt(1 << bits);
+                for(int b = bits - 1; b >= 0; b--) line.append(label >>> b & 1).append(' ');
+                out.println(line);
+            }
+        }
+        HammingClustering clustering = HammingClustering.read(file.getPath());
+        assertEquals(n, clustering.nodeNum());
+        assertEquals(BinaryPathTree.solveProblem(file.getPath()), clustering.clusterNum(3));
+    }
+
+    @Test
+    void multiIndexHashing_radiusQuery() {
+        Random ran = new Random(9);
+        long[] labels = new long[4000];
+        for(int i = 0; i < labels.length; i++) {
+            // fingerprints of a few hundred documents, each one seen with a few bits changed
+            long document = new Random(ran.nextInt(300)).nextLong();
+            for(int flips = ran.nextInt(6); flips > 0; flips--) document ^= 1L << ran.nextInt(64);
+            labels[i] = document;
+        }
+        MultiIndexHashing index = new MultiIndexHashing(labels, 64, 8);
+        for(int q = 0; q < 200; q++) {
+            long query = labels[ran.nextInt(labels.length)] ^ 1L << ran.nextInt(64);
+            for(int radius = 0; radius <= 8; radius++) {
+                final int r = radius;
+                int[] found = index.radiusQuery(query, r);
+                Arrays.sort(found);
+                int[] expected = IntStream.range(0, labels.length)
+                        .filter(i -> Long.bitCount(labels[i] ^ query) <= r).toArray();
+                assertArrayEquals(expected, found, "radius " + r);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.radiusQuery(0, 9));
+    }
+
+    @Test
+    void maxSpacing_matchesKruskal() {
+        Random ran = new Random(13);
+        for(int bits : new int[]{16, 64}) {
+            long[] labels = new long[1200];
+            for(int i = 0; i < labels.length; i++) {
+                long center = new Random(ran.nextInt(40)).nextLong();
+                for(int flips = ran.nextInt(8); flips > 0; flips--) center ^= 1L << ran.nextInt(bits);
+                labels[i] = bits < 64 ? center & (1L << bits) - 1 : center;
+            }
+            HammingClustering clustering = new HammingClustering(labels, bits);
+            // multi-index search for the 64 bits labels
+            assertEquals(bruteForce(labels, 7), clustering.clusterNum(7), bits + " bits");
+            for(int k : new int[]{2, 5, 40, 100, 1000}) {
+                int expected = 0;
+                while(bruteForce(labels, expected + 1) >= k) expected++;
+                int spacing = clustering.maxSpacing(k, 10);
+                if(expected <= 10) assertEquals(expected, spacing, bits + " bits, k = " + k);
+                else assertEquals(11, spacing);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package clustering;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import unionfind.UnionFind;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KruskalClusteringTest {
+
+    /**
+     * Max spacing of a k-clustering by the textbook Kruskal: edges sorted by cost, then isConnected and union,
+     * or null if there is no edge between the k clusters
+     */
+    private static Integer textbook(int n, int[] src, int[] dst, int[] cost, int k) {
+        Integer[] order = new Integer[src.length];
+        for(int e = 0; e < order.length; e++) order[e] = e;
+        Arrays.sort(order, (e, f) -> Integer.compare(cost[e], cost[f]));
+        UnionFind uf = new UnionFind(n);
+        for(int e : order) {
+            if(uf.isConnected(src[e], dst[e])) continue;
+            if(uf.getComponentCount() == k) return cost[e];
+            uf.union(src[e], dst[e]);
+        }
+        return null;
+    }
+
+    @Test
+    void maxSpacing_matchesTextbook() {
+        Random ran = new Random(7);
+        for(int round = 0; round < 50; round++) {
+            int n = 1 + ran.nextInt(200), m = ran.nextInt(5 * n);
+            int[] src = new int[m], dst = new int[m], cost = new int[m];
+            for(int e = 0; e < m; e++) {
+                src[e] = ran.nextInt(n);
+                dst[e] = ran.nextInt(n);
+                // negative costs and many ties
+                cost[e] = round % 2 == 0 ? ran.nextInt(20) - 10 : ran.nextInt();
+            }
+            KruskalClustering kruskal = new KruskalClustering(n, src, dst, cost);
+            Dendrogram dendrogram = kruskal.dendrogram();
+            for(int k = 1; k <= n; k++) {
+                Integer expected = textbook(n, src, dst, cost, k);
+                if(expected == null) {
+                    final int clusters = k;
+                    assertThrows(UnsupportedOperationException.class, () -> kruskal.maxSpacing(clusters));
+                } else {
+                    assertEquals(expected.intValue(), kruskal.maxSpacing(k));
+                    assertEquals(expected.intValue(), dendrogram.spacing(k));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortedEdges_radixAndParallelAgree() {
+        Random ran = new Random(11);
+        int m = 100_000;
+        int[] src = new int[m], dst = new int[m], cost = new int[m];
+        for(int e = 0; e < m; e++) cost[e] = e % 3 == 0 ? ran.nextInt(100) : ran.nextInt();
+        KruskalClustering kruskal = new KruskalClustering(1, src, dst, cost);
+        int[] order = kruskal.sortEdges(false);
+        assertArrayEquals(order, kruskal.sortEdges(true));
+        for(int i = 1; i < m; i++) {
+            int e = order[i - 1], f = order[i];
+            assertTrue(cost[e] < cost[f] || cost[e] == cost[f] && e < f);
+        }
+    }
+
+    @Test
+    void dendrogram_merges() {
+        // two triangles 0-1-2 and 3-4-5 joined by 2-3 at cost 10, node 6 alone
+        int[] src = {0, 1, 0, 3, 4, 3, 2};
+        int[] dst = {1, 2, 2, 4, 5, 5, 3};
+        int[] cost = {1, 2, 3, 1, 5, 4, 10};
+        Dendrogram dendrogram = new KruskalClustering(7, src, dst, cost).dendrogram();
+        assertEquals(5, dendrogram.mergeCount());
+        assertEquals(2, dendrogram.rootCount());
+        int[] heights = new int[5], sizes = new int[5];
+        for(int i = 0; i < 5; i++) {
+            heights[i] = dendrogram.height(i);
+            sizes[i] = dendrogram.size(i);
+        }
+        assertArrayEquals(new int[]{1, 1, 2, 4, 10}, heights);
+        assertArrayEquals(new int[]{2, 2, 3, 3, 6}, sizes);
+        // clusters 7 = {0, 1}, 8 = {3, 4}, 9 = 7 + {2}, 10 = 8 + {5}, 11 = 9 + 10
+        int[][] children = {{0, 1}, {3, 4}, {2, 7}, {5, 8}, {9, 10}};
+        for(int i = 0; i < 5; i++) {
+            int left = dendrogram.left(i), right = dendrogram.right(i);
+            assertArrayEquals(children[i], new int[]{Math.min(left, right), Math.max(left, right)});
+        }
+
+        assertArrayEquals(new int[]{0, 0, 0, 1, 1, 1, 2}, dendrogram.cut(3));
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0, 1}, dendrogram.cut(2));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6}, dendrogram.cut(7));
+        assertEquals(10, dendrogram.spacing(3));
+        assertThrows(UnsupportedOperationException.class, () -> dendrogram.spacing(2));
+        assertThrows(IllegalArgumentException.class, () -> dendrogram.cut(1));
+    }
+
+    @Test
+    void graph_clustersMatchDendrogramCut() {
+        Random ran = new Random(13);
+        for(int round = 0; round < 20; round++) {
+            int n = 1 + ran.nextInt(100), m = ran.nextInt(4 * n);
+            KMaxSpacingClustering.Graph<Integer> g = new KMaxSpacingClustering.Graph<>();
+            for(int v = 0; v < n; v++) g.addNode(v);
+            for(int e = 0; e < m; e++) g.addEdge(ran.nextInt(n), ran.nextInt(n), ran.nextInt(10));
+            List<KMaxSpacingClustering.Graph.Edge<Integer>> edges = new ArrayList<>(g.edges);
+            Dendrogram dendrogram = g.dendrogram();
+            for(int k = Math.max(1, dendrogram.rootCount()); k <= n; k++) {
+                int[] cut = dendrogram.cut(k);
+                List<List<Integer>> clusters = g.clusters(k);
+                assertEquals(k, clusters.size());
+                for(List<Integer> cluster : clusters)
+                    for(int v : cluster) assertEquals(cut[cluster.get(0)], cut[v]);
+                assertEquals(n, clusters.stream().mapToInt(List::size).sum());
+            }
+            // clusters does not reorder the edges of the graph
+            assertEquals(edges, g.edges);
+        }
+    }
+
+    @Test
+    void graph_sameAsFile() throws Exception {
+        assertEquals(106, KMaxSpacingClustering.maxSpacingKCluster("./testData/graph/maxSpacingKClustering.txt", 4));
+    }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+import heap.IndexedLongHeap;
+import heap.PairingHeap;
+import org.junit.jupiter.api.Test;
+import util.FastLoader;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrGraphTest {
+
+    @Test
+    void build_slotsByNode() {
+        // 0 -> 1, 0 -> 2, 2 -> 0, 1 -> 2
+        int[] src = {0, 0, 2, 1}, dst = {1, 2, 0, 2}, weights = {5, 6, 7, 8};
+        CsrGraph g = CsrGraph.directed(3, src, dst, weights);
+        assertArrayEquals(new int[]{0, 2, 3, 4}, g.offsets());
+        assertArrayEquals(new int[]{1, 2, 2, 0}, g.targets());
+        assertArrayEquals(new int[]{5, 6, 8, 7}, g.weights());
+        assertArrayEquals(new int[]{0, 1, 3, 2}, g.edgeIds());
+        assertEquals(3, g.firstSlot(2));
+        assertEquals(4, g.endSlot(2));
+        assertEquals(0, g.target(3));
+        assertEquals(7, g.weight(3));
+        assertEquals(2, g.edgeId(3));
+
+        CsrGraph reverse = g.transpose();
+        assertArrayEquals(new int[]{0, 1, 2, 4}, reverse.offsets());
+        assertArrayEquals(new int[]{2, 0, 0, 1}, reverse.targets());
+        assertArrayEquals(new int[]{7, 5, 6, 8}, reverse.weights());
+        assertSame(g, reverse.transpose());
+
+        CsrGraph undirected = CsrGraph.undirected(3, src, dst);
+        assertEquals(4, undirected.edgeNum());
+        assertEquals(8, undirected.targets().length);
+        assertEquals(3, undirected.outDegree(0));
+        assertSame(undirected, undirected.transpose());
+        assertFalse(undirected.isWeighted());
+        assertEquals(1, undirected.weight(0));
+
+        assertThrows(IllegalArgumentException.class, () -> CsrGraph.directed(2, src, dst));
+        assertThrows(IllegalArgumentException.class, () -> CsrGraph.directed(3, src, new int[]{1}));
+    }
+
+    @Test
+    void dijkstra_dijkstraData() throws Exception {
+        FastLoader.Table in = FastLoader.readTable("./testData/graph/dijkstraData.txt");
+        int[] src = new int[in.values().length], dst = new int[src.length], weights = new int[src.length];
+        int m = 0;
+        for (int line = 0; line < in.lineCount(); line++)
+            for (int k = 1; k + 1 < in.lineLength(line); k += 2) {
+                src[m] = in.get(line, 0) - 1;
+                dst[m] = in.get(line, k) - 1;
+                weights[m++] = in.get(line, k + 1);
+            }
+        CsrGraph g = CsrGraph.directed(200, Arrays.copyOf(src, m), Arrays.copyOf(dst, m), Arrays.copyOf(weights, m));
+        long[] expected = {2599, 2610, 2947, 2052, 2367, 2399, 2029, 2442, 2505, 3068};
+        int[] targets = {7, 37, 59, 82, 99, 115, 133, 165, 188, 197};
+        for (long[] distances : new long[][]{StronglyConnectedComponent.computeShortestPath(g, 0, IndexedLongHeap::new),
+                StronglyConnectedComponent.computeShortestPath(g, 0, PairingHeap::new)})
+            for (int i = 0; i < targets.length; i++) assertEquals(expected[i], distances[targets[i] - 1]);
+    }
+
+    @Test
+    void dijkstra_unreachableAndUnweighted() {
+        CsrGraph g = CsrGraph.directed(4, new int[]{0, 1}, new int[]{1, 2});
+        assertArrayEquals(new long[]{0, 1, 2, Long.MAX_VALUE}, StronglyConnectedComponent.computeShortestPath(g, 0, IndexedLongHeap::new));
+    }
+
+    @Test
+    void prim_minSpanningTree() throws Exception {
+        FastLoader.Table in = FastLoader.readTable("./testData/graph/minSpanningTree.txt");
+        int[][] edges = in.columns(1, 3);
+        for (int e = 0; e < edges[0].length; e++) {
+            edges[0][e]--;
+            edges[1][e]--;
+        }
+        int n = in.get(0, 0);
+        CsrGraph g = CsrGraph.undirected(n, edges[0], edges[1], edges[2]);
+        for (int[] tree : new int[][]{MinimumSpanningTree.computeMinimumSpanningTree(g, IndexedLongHeap::new),
+                MinimumSpanningTree.computeMinimumSpanningTree(g, PairingHeap::new)}) {
+            assertEquals(n - 1, tree.length);
+            long cost = 0;
+            for (int e : tree) cost += edges[2][e];
+            assertEquals(-3612829, cost);
+        }
+    }
+
+    @Test
+    void prim_forest() {
+        // two components: 0 - 1 - 2 and 3 - 4
+        int[] src = {0, 1, 0, 3}, dst = {1, 2, 2, 4}, weights = {1, 2, 5, -1};
+        int[] tree = MinimumSpanningTree.computeMinimumSpanningTree(CsrGraph.undirected(5, src, dst, weights), IndexedLongHeap::new);
+        Arrays.sort(tree);
+        assertArrayEquals(new int[]{0, 1, 3}, tree);
+    }
+
+    @Test
+    void minCut_twoCliques() {
+        // two cliques of 10 nodes joined by 3 edges
+        List<int[]> edges = new ArrayList<>();
+        for (int c = 0; c < 2; c++)
+            for (int i = 0; i < 10; i++)
+                for (int j = i + 1; j < 10; j++) edges.add(new int[]{10 * c + i, 10 * c + j});
+        edges.add(new int[]{0, 10});
+        edges.add(new int[]{1, 11});
+        edges.add(new int[]{2, 12});
+        int[] src = edges.stream().mapToInt(e -> e[0]).toArray(), dst = edges.stream().mapToInt(e -> e[1]).toArray();
+        CsrGraph g = CsrGraph.undirected(20, src, dst);
+        assertEquals(3, RandomContraction.minCut(g, 200, new Random(1)));
+        assertEquals(0, RandomContraction.minCut(CsrGraph.undirected(3, new int[]{0}, new int[]{1}), 1, new Random(1)));
+    }
+}
@@ -0,0 +1,130 @@
+package graph;
+
+import heap.IndexedLongHeap;
+import heap.PairingHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointToPointEngineTest {
+
+    /** Length of the path, by the shortest edge between consecutive nodes */
+    private static long pathLength(int[] path, int[] src, int[] dst, int[] weights) {
+        long length = 0;
+        for (int i = 1; i < path.length; i++) {
+            long best = Long.MAX_VALUE;
+            for (int e = 0; e < src.length; e++)
+                if (src[e] == path[i - 1] && dst[e] == path[i]) best = Math.min(best, weights[e]);
+            assertNotEquals(Long.MAX_VALUE, best, "no edge " + path[i - 1] + " -> " + path[i]);
+            length += best;
+        }
+        return length;
+    }
+
+    private static void assertRoute(long expected, int source, int target, PointToPointEngine.Route route,
+                                    int[] src, int[] dst, int[] weights) {
+        assertEquals(expected, route.distance());
+        if (expected == PointToPointEngine.UNREACHABLE) {
+            assertFalse(route.isReachable());
+            assertEquals(0, route.path().length);
+            return;
+        }
+        int[] path = route.path();
+        assertEquals(source, path[0]);
+        assertEquals(target, path[path.length - 1]);
+        assertEquals(expected, pathLength(path, src, dst, weights));
+    }
+
+    @Test
+    void queries_matchDijkstra() {
+        Random ran = new Random(9);
+        for (int round = 0; round < 10; round++) {
+            int n = 20 + ran.nextInt(300), m = ran.nextInt(4 * n);
+            int[] src = new int[m], dst = new int[m], weights = new int[m];
+            for (int e = 0; e < m; e++) {
+                src[e] = ran.nextInt(n);
+                dst[e] = ran.nextInt(n);
+                weights[e] = ran.nextInt(50);
+            }
+            CsrGraph g = CsrGraph.directed(n, src, dst, weights);
+            ShortestPathEngine full = new ShortestPathEngine(g);
+            PointToPointEngine engine = new PointToPointEngine(g, round % 2 == 0 ? IndexedLongHeap::new : PairingHeap::new);
+            PointToPointEngine.Landmarks landmarks = new PointToPointEngine.Landmarks(g, 0, n / 2, n - 1);
+            for (int query = 0; query < 40; query++) {
+                int source = ran.nextInt(n), target = query % 10 == 0 ? source : ran.nextInt(n);
+                full.run(source);
+                long expected = full.distance(target);
+                ShortestPathEngine toTarget = new ShortestPathEngine(g.transpose());
+                toTarget.run(target);
+                // admissible but not consistent: half the exact distance on every other node
+                PointToPointEngine.Heuristic inconsistent = (v, t) ->
+                        v % 2 == 0 || toTarget.distance(v) == ShortestPathEngine.UNREACHABLE ? 0 : toTarget.distance(v) / 2;
+
+                assertRoute(expected, source, target, engine.bidirectional(source, target), src, dst, weights);
+                assertRoute(expected, source, target, engine.aStar(source, target, (v, t) -> 0), src, dst, weights);
+                assertRoute(expected, source, target, engine.aStar(source, target, landmarks), src, dst, weights);
+                assertRoute(expected, source, target, engine.aStar(source, target, inconsistent), src, dst, weights);
+            }
+        }
+    }
+
+    @Test
+    void landmarks_admissible() {
+        Random ran = new Random(10);
+        int n = 200, m = 800;
+        int[] src = new int[m], dst = new int[m], weights = new int[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = ran.nextInt(n);
+            dst[e] = ran.nextInt(n);
+            weights[e] = 1 + ran.nextInt(50);
+        }
+        CsrGraph g = CsrGraph.directed(n, src, dst, weights);
+        PointToPointEngine.Landmarks landmarks = new PointToPointEngine.Landmarks(g, 3, 50, 150);
+        ShortestPathEngine full = new ShortestPathEngine(g);
+        for (int v = 0; v < n; v++) {
+            full.run(v);
+            for (int t = 0; t < n; t++) {
+                long estimate = landmarks.estimate(v, t);
+                if (full.distance(t) == ShortestPathEngine.UNREACHABLE) continue;
+                assertTrue(estimate <= full.distance(t), v + " -> " + t);
+            }
+        }
+    }
+
+    @Test
+    void pointToPoint_settlesFewerNodes() {
+        // a 60 x 60 grid, both ways, with unit lengths
+        int side = 60, n = side * side;
+        List<int[]> edges = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            if (v % side + 1 < side) {
+                edges.add(new int[]{v, v + 1});
+                edges.add(new int[]{v + 1, v});
+            }
+            if (v + side < n) {
+                edges.add(new int[]{v, v + side});
+                edges.add(new int[]{v + side, v});
+            }
+        }
+        int[] src = edges.stream().mapToInt(e -> e[0]).toArray(), dst = edges.stream().mapToInt(e -> e[1]).toArray();
+        CsrGraph g = CsrGraph.directed(n, src, dst);
+        int source = 30 * side + 10, target = 30 * side + 50;
+        ShortestPathEngine full = new ShortestPathEngine(g);
+        full.run(source, target);
+        PointToPointEngine engine = new PointToPointEngine(g);
+        PointToPointEngine.Route bidirectional = engine.bidirectional(source, target);
+        PointToPointEngine.Route manhattan = engine.aStar(source, target,
+                (v, t) -> Math.abs(v % side - t % side) + Math.abs(v / side - t / side));
+        assertEquals(40, bidirectional.distance());
+        assertEquals(41, bidirectional.path().length);
+        assertEquals(40, manhattan.distance());
+        assertTrue(bidirectional.settledCount() < full.settledCount() * 3 / 4,
+                bidirectional.settledCount() + " vs " + full.settledCount());
+        assertTrue(manhattan.settledCount() < full.settledCount() / 4,
+                manhattan.settledCount() + " vs " + full.settledCount());
+        assertEquals(PointToPointEngine.UNREACHABLE,
+                new PointToPointEngine(CsrGraph.directed(2, new int[0], new int[0])).bidirectional(0, 1).distance());
+    }
+}
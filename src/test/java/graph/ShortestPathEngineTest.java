@@ -0,0 +1,116 @@
+package graph;
+
+import heap.IndexedLongHeap;
+import heap.PairingHeap;
+import heap.RadixHeap;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathEngineTest {
+
+    private static CsrGraph randomGraph(Random ran, int n, int m, int[] src, int[] dst, int[] weights) {
+        for (int e = 0; e < m; e++) {
+            src[e] = ran.nextInt(n);
+            dst[e] = ran.nextInt(n);
+            weights[e] = ran.nextInt(100);
+        }
+        return CsrGraph.directed(n, src, dst, weights);
+    }
+
+    /** Distances by Bellman-Ford */
+    private static long[] bellmanFord(int n, int[] src, int[] dst, int[] weights, int source) {
+        long[] distances = new long[n];
+        Arrays.fill(distances, ShortestPathEngine.UNREACHABLE);
+        distances[source] = 0;
+        for (int round = 0; round < n; round++)
+            for (int e = 0; e < src.length; e++)
+                if (distances[src[e]] != ShortestPathEngine.UNREACHABLE)
+                    distances[dst[e]] = Math.min(distances[dst[e]], distances[src[e]] + weights[e]);
+        return distances;
+    }
+
+    /** Length of the path, by the shortest edge between consecutive nodes */
+    private static long pathLength(int[] path, int[] src, int[] dst, int[] weights) {
+        long length = 0;
+        for (int i = 1; i < path.length; i++) {
+            long best = Long.MAX_VALUE;
+            for (int e = 0; e < src.length; e++)
+                if (src[e] == path[i - 1] && dst[e] == path[i]) best = Math.min(best, weights[e]);
+            assertNotEquals(Long.MAX_VALUE, best, "no edge " + path[i - 1] + " -> " + path[i]);
+            length += best;
+        }
+        return length;
+    }
+
+    @Test
+    void run_repeatedQueries() {
+        Random ran = new Random(4);
+        int n = 150, m = 600;
+        int[] src = new int[m], dst = new int[m], weights = new int[m];
+        CsrGraph g = randomGraph(ran, n, m, src, dst, weights);
+        for (ShortestPathEngine engine : new ShortestPathEngine[]{new ShortestPathEngine(g),
+                new ShortestPathEngine(g, PairingHeap::new), new ShortestPathEngine(g, RadixHeap::new)}) {
+            for (int query = 0; query < 30; query++) {
+                int source = ran.nextInt(n);
+                engine.run(source);
+                long[] expected = bellmanFord(n, src, dst, weights, source);
+                assertArrayEquals(expected, engine.distances());
+                for (int v = 0; v < n; v++) {
+                    int[] path = engine.path(v);
+                    if (expected[v] == ShortestPathEngine.UNREACHABLE) {
+                        assertEquals(0, path.length);
+                        assertEquals(-1, engine.parent(v));
+                        continue;
+                    }
+                    assertEquals(source, path[0]);
+                    assertEquals(v, path[path.length - 1]);
+                    assertEquals(expected[v], pathLength(path, src, dst, weights));
+                }
+            }
+        }
+    }
+
+    @Test
+    void run_earlyExit() {
+        Random ran = new Random(5);
+        int n = 2000, m = 8000;
+        int[] src = new int[m], dst = new int[m], weights = new int[m];
+        CsrGraph g = randomGraph(ran, n, m, src, dst, weights);
+        ShortestPathEngine engine = new ShortestPathEngine(g);
+        ShortestPathEngine full = new ShortestPathEngine(g);
+        for (int query = 0; query < 50; query++) {
+            int source = ran.nextInt(n);
+            int[] targets = {ran.nextInt(n), ran.nextInt(n), ran.nextInt(n)};
+            full.run(source);
+            int reachable = 0;
+            Set<Integer> distinct = new HashSet<>();
+            for (int target : targets)
+                if (distinct.add(target) && full.distance(target) != ShortestPathEngine.UNREACHABLE) reachable++;
+
+            assertEquals(reachable, engine.run(source, targets));
+            for (int target : targets) {
+                assertEquals(full.distance(target), engine.distance(target));
+                if (full.distance(target) != ShortestPathEngine.UNREACHABLE) assertTrue(engine.isSettled(target));
+            }
+            assertTrue(engine.settledCount() <= full.settledCount());
+        }
+        // the source itself, settled first
+        engine.run(7, 7);
+        assertEquals(1, engine.settledCount());
+        assertEquals(0, engine.distance(7));
+        assertArrayEquals(new int[]{7}, engine.path(7));
+    }
+
+    @Test
+    void run_invalid() {
+        CsrGraph g = CsrGraph.directed(3, new int[]{0, 1}, new int[]{1, 2}, new int[]{1, -1});
+        ShortestPathEngine engine = new ShortestPathEngine(g, IndexedLongHeap::new);
+        assertThrows(IllegalArgumentException.class, () -> engine.run(3));
+        assertThrows(IllegalArgumentException.class, () -> engine.run(0));
+        engine.run(2);
+        assertArrayEquals(new long[]{ShortestPathEngine.UNREACHABLE, ShortestPathEngine.UNREACHABLE, 0}, engine.distances());
+    }
+}
@@ -0,0 +1,139 @@
+package graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StronglyConnectedComponentTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final List<Function<CsrGraph, SccResult>> ALGORITHMS =
+            Arrays.asList(StronglyConnectedComponent::tarjan, StronglyConnectedComponent::kosaraju,
+                    g -> ParallelScc.compute(g, POOL));
+
+    /** Leader of the component of every node, from the reachability of every pair of nodes */
+    private static int[] bruteForce(int n, int[] src, int[] dst) {
+        boolean[][] reach = new boolean[n][n];
+        for (int v = 0; v < n; v++) reach[v][v] = true;
+        for (int e = 0; e < src.length; e++) reach[src[e]][dst[e]] = true;
+        for (int k = 0; k < n; k++)
+            for (int i = 0; i < n; i++)
+                if (reach[i][k]) for (int j = 0; j < n; j++) reach[i][j] |= reach[k][j];
+        int[] leaders = new int[n];
+        for (int v = 0; v < n; v++) {
+            int u = 0;
+            while (!(reach[u][v] && reach[v][u])) u++;
+            leaders[v] = u;
+        }
+        return leaders;
+    }
+
+    @Test
+    void scc_matchesBruteForce() {
+        Random ran = new Random(2);
+        for (int round = 0; round < 100; round++) {
+            int n = 1 + ran.nextInt(60), m = ran.nextInt(3 * n);
+            int[] src = new int[m], dst = new int[m];
+            for (int e = 0; e < m; e++) {
+                src[e] = ran.nextInt(n);
+                dst[e] = ran.nextInt(n);
+            }
+            CsrGraph g = CsrGraph.directed(n, src, dst);
+            int[] expected = bruteForce(n, src, dst);
+            for (Function<CsrGraph, SccResult> algorithm : ALGORITHMS) {
+                SccResult scc = algorithm.apply(g);
+                assertArrayEquals(expected, scc.leaderOfNodes());
+                int total = 0;
+                for (int c = 0; c < scc.componentCount(); c++) {
+                    total += scc.size(c);
+                    assertEquals(c, scc.componentOf(scc.leader(c)));
+                }
+                assertEquals(n, total);
+            }
+        }
+    }
+
+    @Test
+    void scc_deepPath() {
+        // a path and a cycle of a million nodes each, too deep for a recursive DFS
+        int n = 1_000_000;
+        int[] src = new int[2 * n - 1], dst = new int[2 * n - 1];
+        for (int v = 0; v < n; v++) {
+            src[v] = n + v;
+            dst[v] = n + (v + 1) % n;
+            if (v + 1 < n) {
+                src[n + v] = v;
+                dst[n + v] = v + 1;
+            }
+        }
+        CsrGraph g = CsrGraph.directed(2 * n, src, dst);
+        for (Function<CsrGraph, SccResult> algorithm : ALGORITHMS) {
+            SccResult scc = algorithm.apply(g);
+            assertEquals(n + 1, scc.componentCount());
+            assertEquals(n, scc.size(scc.componentOf(n)));
+            assertEquals(1, scc.size(scc.componentOf(0)));
+        }
+    }
+
+    @Test
+    void parallel_largeRandomGraphs() {
+        // random graphs large enough for forward-backward searches: a giant component, DAG parts to trim,
+        // and cycles of 2 ... 50 nodes
+        Random ran = new Random(8);
+        for (int round = 0; round < 4; round++) {
+            int n = 50_000, m = (1 + round) * n / 2;
+            List<int[]> edges = new ArrayList<>();
+            for (int e = 0; e < m; e++) edges.add(new int[]{ran.nextInt(n), ran.nextInt(n)});
+            for (int v = 0; v + 50 < n; v += 1 + ran.nextInt(50)) {
+                int length = 2 + ran.nextInt(49);
+                for (int k = 0; k < length; k++) edges.add(new int[]{v + k, v + (k + 1) % length});
+            }
+            int[] src = edges.stream().mapToInt(e -> e[0]).toArray(), dst = edges.stream().mapToInt(e -> e[1]).toArray();
+            CsrGraph g = CsrGraph.directed(n, src, dst);
+            SccResult expected = StronglyConnectedComponent.tarjan(g);
+            for (int r = 0; r < 3; r++) {
+                SccResult actual = ParallelScc.compute(g, POOL);
+                assertEquals(expected.componentCount(), actual.componentCount());
+                assertArrayEquals(expected.leaderOfNodes(), actual.leaderOfNodes());
+            }
+        }
+    }
+
+    @Test
+    void graph_leaderSizes() {
+        StronglyConnectedComponent.Graph<String> g = new StronglyConnectedComponent.Graph<>();
+        for (String node : new String[]{"a", "b", "c", "d"}) g.addNode(node);
+        g.addEdge("a", "b");
+        g.addEdge("b", "a");
+        g.addEdge("b", "c");
+        g.addEdge("c", "d");
+        g.addEdge("d", "c");
+        Map<String, Integer> sizes = new HashMap<>();
+        g.computeForStronglyConnectedComponent().forEach((leader, size) -> sizes.put(leader.toString(), size));
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 2);
+        expected.put("c", 2);
+        assertEquals(expected, sizes);
+        sizes.clear();
+        g.computeForStronglyConnectedComponent(POOL).forEach((leader, size) -> sizes.put(leader.toString(), size));
+        assertEquals(expected, sizes);
+    }
+
+    @Test
+    void graph_addExistingNode_keepsItsEdges() {
+        StronglyConnectedComponent.Graph<String> g = new StronglyConnectedComponent.Graph<>();
+        g.addNode("a");
+        g.addNode("b");
+        g.addEdge("a", "b", 3);
+        g.addNode("a");
+        Map<String, Double> expected = new HashMap<>();
+        expected.put("a", 0.0);
+        expected.put("b", 3.0);
+        assertEquals(expected, g.computeShortestPath("a"));
+        assertEquals(2, g.computeForStronglyConnectedComponent().size());
+    }
+}
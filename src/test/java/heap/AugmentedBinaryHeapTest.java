@@ -13,7 +13,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class AugmentedBinaryHeapTest {
 
     private static class AugmentedInt extends AugmentedBinaryHeap.AbstractElement {
-        private final int value;
+        private int value;
 
         public AugmentedInt(int value) {
             this.value = value;
@@ -84,4 +84,40 @@ class AugmentedBinaryHeapTest {
         assertTrue(abh.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void decreaseKey_increaseKey_randomUpdates() {
+        decreaseKey_increaseKey_randomUpdates(new AugmentedBinaryHeap<>(Comparator.comparingInt(i -> i.getValue())));
+        decreaseKey_increaseKey_randomUpdates(new AugmentedBinaryHeap<>(Comparator.comparingInt(i -> i.getValue()), 4, true));
+        decreaseKey_increaseKey_randomUpdates(new AugmentedBinaryHeap<>(Comparator.comparingInt(i -> i.getValue()), 8, false));
+    }
+
+    private void decreaseKey_increaseKey_randomUpdates(AugmentedBinaryHeap<AugmentedInt> abh) {
+        Random ran = new Random(7);
+        List<AugmentedInt> ints = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            AugmentedInt num = new AugmentedInt(ran.nextInt(10000));
+            ints.add(num);
+            abh.insert(num);
+        }
+        for (int i = 0; i < 2000; i++) {
+            AugmentedInt num = ints.get(ran.nextInt(ints.size()));
+            int old = num.value;
+            num.value = ran.nextInt(10000);
+            if (i % 3 == 0) abh.update(num);
+            else if (num.value < old) abh.decreaseKey(num);
+            else abh.increaseKey(num);
+        }
+        List<Integer> expected = ints.stream().map(AugmentedInt::getValue).sorted().collect(Collectors.toList());
+        for (int v : expected)
+            assertEquals(v, abh.delMin().getValue());
+        assertTrue(abh.isEmpty());
+    }
+
+    @Test
+    void decreaseKey_elementNotInHeap() {
+        AugmentedBinaryHeap<AugmentedInt> abh = new AugmentedBinaryHeap<>(Comparator.comparingInt(i -> i.getValue()));
+        abh.insert(new AugmentedInt(1));
+        assertThrows(IllegalArgumentException.class, () -> abh.decreaseKey(new AugmentedInt(1)));
+    }
+
+}
@@ -4,6 +4,7 @@ import edu.princeton.cs.algs4.In;
 import heap.BinaryHeap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import util.ResizePolicy;
 
 import java.util.*;
 import java.util.stream.IntStream;
@@ -106,4 +107,118 @@ class BinaryHeapTest {
         for(int i : ints)
             assertTrue(heap.delMin() == i);
     }
-}
\ No newline at end of file
+
+    @Test
+    void delMin_dAryLayouts() {
+        for (int arity : new int[]{2, 4, 8}) {
+            for (boolean aligned : new boolean[]{false, true}) {
+                BinaryHeap<Integer> heap = new BinaryHeap<>(null, arity, aligned);
+                List<Integer> ints = new ArrayList<>();
+                Random ran = new Random(arity);
+                for (int i = 0; i < 5000; i++) {
+                    int v = ran.nextInt(1000);
+                    ints.add(v);
+                    heap.insert(v);
+                }
+                Collections.sort(ints);
+                for (int i : ints)
+                    assertEquals(i, (int) heap.delMin());
+                assertTrue(heap.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void constructor_invalidArity() {
+        assertThrows(IllegalArgumentException.class, () -> new BinaryHeap<Integer>(null, 3, false));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryHeap<Integer>(null, 1, false));
+    }
+
+    @Test
+    void insertAll_smallAndLargeBatches() {
+        for (int arity : new int[]{2, 4, 8}) {
+            BinaryHeap<Integer> heap = new BinaryHeap<>(null, arity, arity == 4);
+            List<Integer> expected = new ArrayList<>();
+            Random ran = new Random(arity);
+            // batch sizes: smaller, equal and larger than the heap
+            for (int batch : new int[]{1, 5, 1000, 3, 2000, 7000, 17, 1}) {
+                List<Integer> values = new ArrayList<>();
+                for (int i = 0; i < batch; i++) values.add(ran.nextInt(5000));
+                heap.insertAll(values);
+                expected.addAll(values);
+                assertEquals(expected.size(), heap.size());
+                assertEquals(Collections.min(expected), heap.getMin());
+            }
+            Collections.sort(expected);
+            for (int i : expected) assertEquals(i, (int) heap.delMin());
+        }
+    }
+
+    @Test
+    void insertAll_arrayRange() {
+        Integer[] values = {9, 4, 7, 1, 8, 2, 6};
+        binaryHeap.insert(5);
+        binaryHeap.insert(3);
+        binaryHeap.insertAll(values, 1, 6);
+        int[] expected = {1, 2, 3, 4, 5, 7, 8};
+        for (int i : expected) assertEquals(i, (int) binaryHeap.delMin());
+        assertTrue(binaryHeap.isEmpty());
+    }
+
+    @Test
+    void drainTo_smallestInOrder() {
+        Random ran = new Random(1);
+        List<Integer> ints = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) ints.add(ran.nextInt());
+        binaryHeap.insertAll(ints);
+        Collections.sort(ints);
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(100, binaryHeap.drainTo(drained, 100));
+        assertEquals(ints.subList(0, 100), drained);
+        assertEquals(900, binaryHeap.size());
+
+        drained.clear();
+        assertEquals(900, binaryHeap.drainTo(drained, 5000));
+        assertEquals(ints.subList(100, 1000), drained);
+        assertTrue(binaryHeap.isEmpty());
+        binaryHeap.insert(3);
+        assertEquals(3, (int) binaryHeap.getMin());
+    }
+
+    @Test
+    void resizePolicy_sawtoothAndTrim() {
+        List<BinaryHeap<Integer>> heaps = Arrays.asList(
+                new BinaryHeap<>(null, 4, true, 1000, ResizePolicy.neverShrink(2)),
+                new BinaryHeap<>(null, 2, false, 1, new ResizePolicy(3, 8)),
+                new BinaryHeap<>(null, 8, false, 16, ResizePolicy.QUADRUPLE));
+        for (BinaryHeap<Integer> heap : heaps) {
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            Random ran = new Random(3);
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 3000; i++) {
+                    int v = ran.nextInt(10000);
+                    heap.insert(v);
+                    expected.add(v);
+                }
+                for (int i = 0; i < 2900; i++)
+                    assertEquals(expected.poll(), heap.delMin());
+                heap.trimToSize();
+                assertEquals(expected.size(), heap.size());
+                assertEquals(expected.peek(), heap.getMin());
+            }
+            while (!heap.isEmpty())
+                assertEquals(expected.poll(), heap.delMin());
+            heap.trimToSize();
+            heap.insert(7);
+            assertEquals(7, (int) heap.getMin());
+        }
+    }
+
+    @Test
+    void constructor_invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BinaryHeap<Integer>(null, 2, false, 0, ResizePolicy.QUADRUPLE));
+        assertThrows(IllegalArgumentException.class, () -> new ResizePolicy(1, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ResizePolicy(2, 2));
+    }
+}
@@ -0,0 +1,63 @@
+package heap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentMultiQueueTest {
+
+    @Test
+    void singleQueue_exactOrder() {
+        ConcurrentMultiQueue<Integer> queue = new ConcurrentMultiQueue<>(1, null);
+        List<Integer> ints = new ArrayList<>();
+        Random ran = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            int v = ran.nextInt();
+            ints.add(v);
+            queue.insert(v);
+        }
+        Collections.sort(ints);
+        for (int i : ints) assertEquals(i, (int) queue.delMin());
+        assertThrows(NoSuchElementException.class, queue::delMin);
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_noLostElement() throws Exception {
+        final int threads = 8;
+        final int perThread = 20000;
+        ConcurrentMultiQueue<Integer> queue = new ConcurrentMultiQueue<>(2 * threads, null);
+        List<List<Integer>> taken = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            final List<Integer> mine = new ArrayList<>();
+            taken.add(mine);
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    queue.insert(thread * perThread + i);
+                    if (i % 2 == 0) {
+                        Integer min = queue.pollMin();
+                        if (min != null) mine.add(min);
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+
+        List<Integer> all = new ArrayList<>();
+        taken.forEach(all::addAll);
+        assertEquals(threads * perThread - all.size(), queue.size());
+        while (!queue.isEmpty()) all.add(queue.delMin());
+        assertNull(queue.pollMin());
+        Collections.sort(all);
+        assertEquals(threads * perThread, all.size());
+        for (int i = 0; i < all.size(); i++) assertEquals(i, (int) all.get(i));
+    }
+}
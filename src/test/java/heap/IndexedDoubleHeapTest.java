@@ -0,0 +1,74 @@
+package heap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedDoubleHeapTest {
+
+    @Test
+    void delMin_afterRandomKeyChanges() {
+        final int n = 1000;
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(n);
+        double[] keys = new double[n];
+        Random ran = new Random(11);
+        for (int i = 0; i < n; i++) {
+            keys[i] = ran.nextDouble();
+            heap.insert(i, keys[i]);
+        }
+        for (int r = 0; r < 5000; r++) {
+            int i = ran.nextInt(n);
+            double key = ran.nextDouble();
+            if (key < keys[i]) heap.decreaseKey(i, key);
+            else heap.increaseKey(i, key);
+            keys[i] = key;
+        }
+        double[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        for (double key : sorted) {
+            int i = heap.delMin();
+            assertEquals(key, keys[i]);
+            assertFalse(heap.contains(i));
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void delete_thenReinsert() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(10);
+        for (int i = 0; i < 10; i++) heap.insert(i, 10 - i);
+        heap.delete(0);
+        heap.delete(9);
+        assertEquals(8, heap.size());
+        assertEquals(8, heap.minIndex());
+        heap.insert(9, 0.5);
+        assertEquals(9, heap.delMin());
+        assertEquals(8, heap.delMin());
+    }
+
+    @Test
+    void decreaseKey_invalidArguments() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(3);
+        heap.insert(1, 5.0);
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 6.0));
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 1.0));
+        assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(2, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(3, 1.0));
+    }
+
+    @Test
+    void clear_reuse() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(5);
+        heap.insert(2, 1.0);
+        heap.insert(4, 2.0);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(2));
+        heap.insert(2, 3.0);
+        assertEquals(3.0, heap.minKey());
+    }
+}
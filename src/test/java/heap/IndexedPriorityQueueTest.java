@@ -0,0 +1,141 @@
+package heap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedPriorityQueueTest {
+
+    private static final List<IntFunction<IndexedPriorityQueue>> QUEUES =
+            Arrays.asList(IndexedLongHeap::new, PairingHeap::new, RadixHeap::new);
+
+    /**
+     * Dijkstra like workload: keys inserted or decreased are never below the last minimum
+     */
+    private void monotoneWorkload(IndexedPriorityQueue queue, int n, long seed) {
+        Random ran = new Random(seed);
+        long[] keys = new long[n];
+        // reference ordered by (key, index)
+        TreeSet<long[]> expected = new TreeSet<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        long last = 0;
+        for (int step = 0; step < 20 * n; step++) {
+            int i = ran.nextInt(n);
+            if (!queue.contains(i)) {
+                keys[i] = last + ran.nextInt(1000);
+                queue.insert(i, keys[i]);
+                expected.add(new long[]{keys[i], i});
+            } else if (ran.nextBoolean() && keys[i] > last) {
+                long key = last + ran.nextInt((int) Math.min(Integer.MAX_VALUE, keys[i] - last + 1));
+                expected.remove(new long[]{keys[i], i});
+                keys[i] = key;
+                queue.decreaseKey(i, key);
+                expected.add(new long[]{keys[i], i});
+            } else {
+                long minKey = expected.first()[0];
+                assertEquals(minKey, queue.minKey());
+                int min = queue.delMin();
+                assertEquals(minKey, keys[min]);
+                assertTrue(expected.remove(new long[]{keys[min], min}));
+                last = minKey;
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+        while (!queue.isEmpty()) {
+            long minKey = expected.pollFirst()[0];
+            assertEquals(minKey, keys[queue.delMin()]);
+        }
+        assertTrue(expected.isEmpty());
+    }
+
+    @Test
+    void monotoneWorkload_allQueues() {
+        for (IntFunction<IndexedPriorityQueue> factory : QUEUES) {
+            monotoneWorkload(factory.apply(200), 200, 1);
+            IndexedPriorityQueue queue = factory.apply(1000);
+            monotoneWorkload(queue, 1000, 2);
+            queue.clear();
+            monotoneWorkload(queue, 1000, 3);
+        }
+    }
+
+    @Test
+    void decreaseKey_greaterKey() {
+        for (IntFunction<IndexedPriorityQueue> factory : QUEUES) {
+            IndexedPriorityQueue queue = factory.apply(4);
+            queue.insert(2, 10);
+            assertThrows(IllegalArgumentException.class, () -> queue.decreaseKey(2, 11));
+            assertThrows(IllegalArgumentException.class, () -> queue.insert(2, 1));
+        }
+    }
+
+    @Test
+    void radixHeap_rejectsKeyBelowLastMinimum() {
+        RadixHeap heap = new RadixHeap(4);
+        heap.insert(0, 5);
+        heap.insert(1, 8);
+        assertEquals(0, heap.delMin());
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(2, 4));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 4));
+        heap.insert(2, 5);
+        assertEquals(2, heap.delMin());
+    }
+
+    @Test
+    void radixHeap_negativeKeys() {
+        RadixHeap heap = new RadixHeap(4);
+        heap.insert(0, 7);
+        heap.insert(1, -3);
+        heap.insert(2, Long.MIN_VALUE);
+        heap.insert(3, -1);
+        assertEquals(2, heap.delMin());
+        assertEquals(1, heap.delMin());
+        assertEquals(3, heap.delMin());
+        assertEquals(0, heap.delMin());
+    }
+
+    @Test
+    void pairingHeap_meldAndDelete() {
+        PairingHeap a = new PairingHeap(10);
+        PairingHeap b = new PairingHeap(10);
+        for (int i = 0; i < 10; i++) {
+            if (i % 2 == 0) a.insert(i, 100 - i);
+            else b.insert(i, 100 - i);
+        }
+        a.meld(b);
+        assertTrue(b.isEmpty());
+        assertFalse(b.contains(1));
+        assertEquals(10, a.size());
+        a.delete(9);
+        a.delete(4);
+        int[] expected = {8, 7, 6, 5, 3, 2, 1, 0};
+        for (int i : expected) assertEquals(i, a.delMin());
+        assertTrue(a.isEmpty());
+    }
+
+    @Test
+    void pairingHeap_meldSharedIndex_leavesBothHeaps() {
+        PairingHeap a = new PairingHeap(10);
+        PairingHeap b = new PairingHeap(10);
+        a.insert(0, 5);
+        a.insert(1, 3);
+        b.insert(2, 4);
+        b.insert(3, 1);
+        b.insert(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> a.meld(b));
+        assertEquals(2, a.size());
+        assertEquals(3, b.size());
+        assertFalse(a.contains(2));
+        assertTrue(b.contains(3));
+        assertEquals(1, a.delMin());
+        assertEquals(0, a.delMin());
+        assertEquals(3, b.delMin());
+        assertEquals(1, b.delMin());
+        assertEquals(2, b.delMin());
+    }
+}
@@ -0,0 +1,69 @@
+package heap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBinaryHeapTest {
+
+    IntBinaryHeap binaryHeap;
+
+    @BeforeEach
+    void init() {
+        binaryHeap = new IntBinaryHeap();
+    }
+
+    @Test
+    void insert_decreasingUniqueSequence() {
+        for (int i = 1000; i > 0; i--) {
+            binaryHeap.insert(i);
+            assertEquals(1000 - i + 1, binaryHeap.size());
+            assertEquals(i, binaryHeap.getMin());
+        }
+    }
+
+    @Test
+    void delMin_randomSequence() {
+        int[] ints = new Random(10).ints(1000).toArray();
+        for (int i : ints) binaryHeap.insert(i);
+        Arrays.sort(ints);
+        for (int i : ints) assertEquals(i, binaryHeap.delMin());
+        assertTrue(binaryHeap.isEmpty());
+    }
+
+    @Test
+    void delMin_emptyHeap() {
+        assertThrows(NoSuchElementException.class, () -> binaryHeap.delMin());
+    }
+
+    @Test
+    void heapify_maxHeap() {
+        int[] ints = new Random().ints(10000).toArray();
+        IntBinaryHeap heap = IntBinaryHeap.heapify(ints, true);
+        Arrays.sort(ints);
+        for (int i = ints.length - 1; i >= 0; i--)
+            assertEquals(ints[i], heap.delMin());
+    }
+
+    @Test
+    void preSizedHeap_interleavedOperations() {
+        IntBinaryHeap heap = new IntBinaryHeap(16, false);
+        Random ran = new Random(3);
+        java.util.PriorityQueue<Integer> expected = new java.util.PriorityQueue<>();
+        for (int i = 0; i < 10000; i++) {
+            if (expected.isEmpty() || ran.nextInt(3) > 0) {
+                int v = ran.nextInt(100);
+                heap.insert(v);
+                expected.add(v);
+            } else {
+                assertEquals((int) expected.poll(), heap.delMin());
+            }
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package heap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void smallestAndLargest_randomStream() {
+        Random ran = new Random(1);
+        for (int k : new int[]{1, 5, 100, 5000}) {
+            int[] stream = ran.ints(20000, 0, 3000).toArray();
+            List<Integer> sorted = Arrays.stream(stream).sorted().boxed().collect(Collectors.toList());
+
+            TopK<Integer> smallest = TopK.smallest(k);
+            TopK<Integer> largest = TopK.largest(k);
+            IntTopK intSmallest = IntTopK.smallest(k);
+            IntTopK intLargest = IntTopK.largest(k);
+            for (int v : stream) {
+                smallest.offer(v);
+                largest.offer(v);
+                intSmallest.offer(v);
+                intLargest.offer(v);
+            }
+            List<Integer> expectedLargest = new ArrayList<>(sorted.subList(sorted.size() - k, sorted.size()));
+            Collections.reverse(expectedLargest);
+
+            assertEquals(sorted.subList(0, k), smallest.toSortedList());
+            assertEquals(expectedLargest, largest.toSortedList());
+            assertArrayEquals(sorted.subList(0, k).stream().mapToInt(i -> i).toArray(), intSmallest.toSortedArray());
+            assertArrayEquals(expectedLargest.stream().mapToInt(i -> i).toArray(), intLargest.toSortedArray());
+            assertEquals(sorted.get(k - 1), smallest.threshold());
+            assertEquals(sorted.get(k - 1).intValue(), intSmallest.threshold());
+        }
+    }
+
+    @Test
+    void offer_rejectsWhenFull() {
+        TopK<Integer> top = TopK.smallest(3);
+        assertTrue(top.offer(5));
+        assertTrue(top.offer(1));
+        assertTrue(top.offer(9));
+        assertFalse(top.offer(9));
+        assertFalse(top.offer(12));
+        assertTrue(top.offer(2));
+        assertEquals(Arrays.asList(1, 2, 5), top.toSortedList());
+        assertEquals(3, top.size());
+
+        IntTopK intTop = IntTopK.largest(2);
+        intTop.offerAll(new int[]{4, 8, 1});
+        assertFalse(intTop.offer(4));
+        assertArrayEquals(new int[]{8, 4}, intTop.toSortedArray());
+    }
+
+    @Test
+    void merge_perThreadSelectors() {
+        Random ran = new Random(2);
+        int[] stream = ran.ints(100000).toArray();
+        int[] expected = Arrays.stream(stream).sorted().limit(50).toArray();
+
+        IntTopK merged = IntTopK.smallest(50);
+        TopK<Integer> mergedBoxed = TopK.smallest(50);
+        for (int part = 0; part < 4; part++) {
+            IntTopK selector = IntTopK.smallest(50);
+            TopK<Integer> boxed = TopK.smallest(50);
+            for (int i = part; i < stream.length; i += 4) {
+                selector.offer(stream[i]);
+                boxed.offer(stream[i]);
+            }
+            merged.merge(selector);
+            mergedBoxed.merge(boxed);
+        }
+        assertArrayEquals(expected, merged.toSortedArray());
+        assertArrayEquals(expected, mergedBoxed.toSortedList().stream().mapToInt(i -> i).toArray());
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(IntTopK.largest(50)));
+        assertThrows(IllegalArgumentException.class, () -> mergedBoxed.merge(TopK.largest(50)));
+        TopK<Integer> largest = TopK.largest(50);
+        largest.merge(TopK.largest(50));
+        assertTrue(largest.isEmpty());
+
+        List<Integer> collected = IntStream.of(stream).boxed().parallel().collect(TopK.collector(50, null));
+        assertArrayEquals(expected, collected.stream().mapToInt(i -> i).toArray());
+    }
+}
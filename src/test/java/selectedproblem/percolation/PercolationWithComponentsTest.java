@@ -0,0 +1,89 @@
+package selectedproblem.percolation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PercolationWithComponentsTest {
+
+    /**
+     * Cluster label of every site by flood fill, -1 for closed sites
+     *
+     * @return number of clusters
+     */
+    private static int floodFill(boolean[][] open, int[][] labels) {
+        final int n = open.length;
+        int[][] moves = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+        for (int[] row : labels) Arrays.fill(row, -1);
+        int count = 0;
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (!open[r][c] || labels[r][c] >= 0) continue;
+                labels[r][c] = count;
+                queue.add(new int[]{r, c});
+                while (!queue.isEmpty()) {
+                    int[] site = queue.poll();
+                    for (int[] move : moves) {
+                        int nr = site[0] + move[0], nc = site[1] + move[1];
+                        if (nr < 0 || nr >= n || nc < 0 || nc >= n || !open[nr][nc] || labels[nr][nc] >= 0) continue;
+                        labels[nr][nc] = count;
+                        queue.add(new int[]{nr, nc});
+                    }
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void randomOpenings_matchFloodFill() {
+        Random ran = new Random(5);
+        for (int round = 0; round < 30; round++) {
+            final int n = 1 + ran.nextInt(15);
+            PercolationWithComponents percolation = new PercolationWithComponents(n);
+            boolean[][] open = new boolean[n][n];
+            int[][] labels = new int[n][n];
+            int opened = 0;
+            for (int step = 0; step < n * n; step++) {
+                int r = ran.nextInt(n), c = ran.nextInt(n);
+                if (!open[r][c]) opened++;
+                open[r][c] = true;
+                percolation.open(r + 1, c + 1);
+
+                int clusters = floodFill(open, labels);
+                boolean[] topClusters = new boolean[clusters];
+                int[] sizes = new int[clusters];
+                for (int col = 0; col < n; col++) if (labels[0][col] >= 0) topClusters[labels[0][col]] = true;
+                boolean percolates = false;
+                for (int col = 0; col < n; col++) percolates |= labels[n - 1][col] >= 0 && topClusters[labels[n - 1][col]];
+                int largest = 0;
+                for (int row = 0; row < n; row++) {
+                    for (int col = 0; col < n; col++) {
+                        int label = labels[row][col];
+                        assertEquals(label >= 0, percolation.isOpen(row + 1, col + 1));
+                        assertEquals(label >= 0 && topClusters[label], percolation.isFull(row + 1, col + 1));
+                        if (label >= 0) largest = Math.max(largest, ++sizes[label]);
+                    }
+                }
+                assertEquals(percolates, percolation.percolates());
+                assertEquals(clusters, percolation.clusterCount());
+                assertEquals(largest, percolation.largestCluster());
+                assertEquals(opened, percolation.numberOfOpenSites());
+            }
+        }
+    }
+
+    @Test
+    void invalidSite_throws() {
+        PercolationWithComponents percolation = new PercolationWithComponents(3);
+        assertThrows(IndexOutOfBoundsException.class, () -> percolation.open(0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> percolation.isFull(1, 4));
+        assertThrows(IllegalArgumentException.class, () -> new PercolationWithComponents(0));
+    }
+}
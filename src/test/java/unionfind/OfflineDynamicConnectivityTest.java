@@ -0,0 +1,78 @@
+package unionfind;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfflineDynamicConnectivityTest {
+
+    @Test
+    void rollbackUnionFind_snapshots() {
+        final int n = 2000;
+        RollbackUnionFind uf = new RollbackUnionFind(n);
+        Random ran = new Random(7);
+        int[] snapshots = new int[4];
+        int[][] roots = new int[4][n];
+        int[] counts = new int[4];
+        for(int s = 0; s < 4; s++) {
+            snapshots[s] = uf.snapshot();
+            counts[s] = uf.getComponentCount();
+            for(int i = 0; i < n; i++) roots[s][i] = uf.find(i);
+            for(int i = 0; i < n / 3; i++) {
+                int a = ran.nextInt(n), b = ran.nextInt(n);
+                boolean connected = uf.isConnected(a, b);
+                assertEquals(!connected, uf.union(a, b));
+                assertTrue(uf.isConnected(a, b));
+            }
+        }
+        for(int s = 3; s >= 0; s--) {
+            uf.rollback(snapshots[s]);
+            assertEquals(counts[s], uf.getComponentCount());
+            for(int i = 0; i < n; i++) assertEquals(roots[s][i], uf.find(i));
+        }
+        assertEquals(n, uf.getComponentCount());
+        assertEquals(1, uf.componentSize(0));
+        assertThrows(IllegalArgumentException.class, () -> uf.rollback(1));
+    }
+
+    @Test
+    void solve_matchesRebuildPerQuery() {
+        final int n = 60;
+        Random ran = new Random(11);
+        OfflineDynamicConnectivity connectivity = new OfflineDynamicConnectivity(n);
+        List<int[]> present = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for(int step = 0; step < 3000; step++) {
+            int op = ran.nextInt(4);
+            if(op == 0 || present.isEmpty()) {
+                int[] edge = {ran.nextInt(n), ran.nextInt(n)};
+                connectivity.link(edge[0], edge[1]);
+                present.add(edge);
+            } else if(op == 1) {
+                int[] edge = present.remove(ran.nextInt(present.size()));
+                // either orientation names the same edge
+                if(ran.nextBoolean()) connectivity.cut(edge[0], edge[1]);
+                else connectivity.cut(edge[1], edge[0]);
+            } else {
+                UnionFind rebuilt = new UnionFind(n);
+                for(int[] edge : present) rebuilt.union(edge[0], edge[1]);
+                if(op == 2) {
+                    int a = ran.nextInt(n), b = ran.nextInt(n);
+                    assertEquals(expected.size(), connectivity.connectedQuery(a, b));
+                    expected.add(rebuilt.isConnected(a, b) ? 1 : 0);
+                } else {
+                    assertEquals(expected.size(), connectivity.componentCountQuery());
+                    expected.add(rebuilt.getComponentCount());
+                }
+            }
+        }
+        int[] answers = connectivity.solve();
+        assertEquals(expected.size(), answers.length);
+        for(int q = 0; q < answers.length; q++) assertEquals((int) expected.get(q), answers[q], "query " + q);
+        assertThrows(IllegalArgumentException.class, () -> new OfflineDynamicConnectivity(3).cut(0, 1));
+    }
+}
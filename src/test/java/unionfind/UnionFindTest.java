@@ -2,7 +2,10 @@ package unionfind;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -88,4 +91,188 @@ class UnionFindTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    private static List<DisjointSet> allImplementations(int n) {
+        return Arrays.asList(new UnionFind(n), new UnionFind(n, DisjointSet.Linking.SIZE),
+                new PackedUnionFind(n), new PackedUnionFind(n, DisjointSet.Linking.RANK),
+                new ConcurrentUnionFind(n), new GrowableUnionFind(n), new ComponentUnionFind<Void>(n),
+                new RollbackUnionFind(n));
+    }
+
+    @Test
+    void allImplementations_agree() {
+        final int n = 5000;
+        List<DisjointSet> sets = allImplementations(n);
+        Random ran = new Random(1);
+        for(int i = 0; i < 4 * n; i++) {
+            int a = ran.nextInt(n);
+            int b = ran.nextInt(n);
+            boolean connected = sets.get(0).isConnected(a, b);
+            boolean merged = sets.get(0).union(a, b);
+            assertEquals(!connected, merged);
+            for(DisjointSet set : sets.subList(1, sets.size())) {
+                assertEquals(connected, set.isConnected(a, b));
+                assertEquals(merged, set.union(a, b));
+                assertEquals(sets.get(0).getComponentCount(), set.getComponentCount());
+                assertEquals(n, set.size());
+            }
+        }
+    }
+
+    @Test
+    void union_sequentialElements_singleComponent() {
+        final int n = 2_000_000;
+        for(DisjointSet set : allImplementations(n)) {
+            // every union links the single growing set with a new element
+            for(int i = 1; i < n; i++) set.union(i, i - 1);
+            assertEquals(1, set.getComponentCount());
+            int root = set.find(0);
+            for(int i = n - 1; i >= 0; i--) assertEquals(root, set.find(i));
+        }
+    }
+
+    @Test
+    void find_deepChainNoStackOverflow() {
+        final int n = 2_000_000;
+        for(DisjointSet.Linking linking : DisjointSet.Linking.values()) {
+            for(DisjointSet set : Arrays.asList(UnionFind.chain(n, linking), PackedUnionFind.chain(n, linking))) {
+                // the first find walks the whole chain, halving it
+                assertEquals(n - 1, set.find(0));
+                for(int i = 0; i < n; i++) assertEquals(n - 1, set.find(i));
+                assertEquals(1, set.getComponentCount());
+                assertFalse(set.union(0, n / 2));
+            }
+        }
+        PackedUnionFind packed = PackedUnionFind.chain(n, DisjointSet.Linking.SIZE);
+        assertEquals(n, packed.componentSize(0));
+    }
+
+    @Test
+    void packedUnionFind_componentSize() {
+        PackedUnionFind uf = new PackedUnionFind(10);
+        uf.union(1, 2);
+        uf.union(3, 2);
+        uf.union(7, 8);
+        assertEquals(3, uf.componentSize(1));
+        assertEquals(2, uf.componentSize(8));
+        assertEquals(1, uf.componentSize(0));
+        assertEquals(7, uf.getComponentCount());
+        assertThrows(UnsupportedOperationException.class,
+                () -> new PackedUnionFind(3, DisjointSet.Linking.RANK).componentSize(0));
+        assertThrows(IllegalArgumentException.class, () -> uf.find(10));
+    }
+
+    @Test
+    void concurrentUnionFind_manyThreads() throws InterruptedException {
+        final int n = 200_000;
+        final int threadNum = 4;
+        Random ran = new Random(3);
+        int[] a = ran.ints(n, 0, n).toArray();
+        int[] b = ran.ints(n, 0, n).toArray();
+        UnionFind expected = new UnionFind(n);
+        for(int i = 0; i < n; i++) expected.union(a[i], b[i]);
+
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        AtomicInteger merged = new AtomicInteger();
+        Thread[] threads = new Thread[threadNum];
+        for(int t = 0; t < threadNum; t++) {
+            final int first = t;
+            // every thread unites all pairs, in a different order
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < n; i++) {
+                    int j = (first * (n / threadNum) + i) % n;
+                    if(uf.union(a[j], b[j])) merged.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads) thread.join();
+
+        assertEquals(expected.getComponentCount(), uf.getComponentCount());
+        assertEquals(n - expected.getComponentCount(), merged.get());
+        for(int i = 0; i < n; i++) {
+            assertTrue(uf.isConnected(a[i], b[i]));
+            assertEquals(expected.isConnected(i, a[i]), uf.isConnected(i, a[i]));
+        }
+    }
+
+    @Test
+    void growableUnionFind_makeSet() {
+        GrowableUnionFind uf = new GrowableUnionFind();
+        assertEquals(0, uf.size());
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(i, uf.makeSet());
+            if(i % 2 == 1) uf.union(i, i - 1);
+        }
+        assertEquals(1000, uf.size());
+        assertEquals(500, uf.getComponentCount());
+        assertEquals(2, uf.componentSize(999));
+        assertTrue(uf.isConnected(998, 999));
+        assertFalse(uf.isConnected(997, 998));
+        assertThrows(IllegalArgumentException.class, () -> uf.find(1000));
+    }
+
+    @Test
+    void keyedUnionFind_sparseKeys() {
+        KeyedUnionFind uf = new KeyedUnionFind();
+        UnionFind expected = new UnionFind(2000);
+        Random ran = new Random(4);
+        long[] keys = new long[2000];
+        for(int i = 0; i < keys.length; i++) keys[i] = i == 0 ? 0 : ran.nextLong();
+        for(int i = 0; i < 3000; i++) {
+            int a = ran.nextInt(keys.length);
+            int b = ran.nextInt(keys.length);
+            assertEquals(expected.union(a, b), uf.union(keys[a], keys[b]));
+        }
+        for(int i = 0; i < keys.length; i++) {
+            int a = ran.nextInt(keys.length);
+            boolean seen = uf.contains(keys[i]) && uf.contains(keys[a]);
+            assertEquals(seen && expected.isConnected(i, a) || i == a, uf.isConnected(keys[i], keys[a]));
+            if(uf.contains(keys[i])) assertEquals(keys[i], uf.keyOf(uf.idOf(keys[i])));
+        }
+        assertEquals(uf.size() - (expected.size() - expected.getComponentCount()), uf.getComponentCount());
+        assertEquals(-1, uf.idOf(12345L));
+        assertFalse(uf.isConnected(keys[1], 12345L));
+        assertEquals(12345L, uf.find(12345L));
+    }
+
+    @Test
+    void componentUnionFind_aggregatesAndMembers() {
+        final int n = 3000;
+        Random ran = new Random(5);
+        long[] values = new long[n];
+        for(int i = 0; i < n; i++) values[i] = ran.nextInt(1_000_000) - 500_000;
+        ComponentUnionFind<Long> uf = new ComponentUnionFind<>(values, i -> values[i], Long::sum);
+        UnionFind expected = new UnionFind(n);
+        for(int step = 0; step < 2000; step++) {
+            int a = ran.nextInt(n);
+            int b = ran.nextInt(n);
+            assertEquals(expected.union(a, b), uf.union(a, b));
+        }
+
+        int[] components = {0};
+        uf.forEachComponent(root -> {
+            components[0]++;
+            assertEquals(root, uf.find(root));
+            int size = 0;
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum = 0;
+            for(int i = 0; i < n; i++) {
+                if(!expected.isConnected(i, root)) continue;
+                size++;
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+                sum += values[i];
+            }
+            assertEquals(size, uf.componentSize(root));
+            assertEquals(min, uf.componentMin(root));
+            assertEquals(max, uf.componentMax(root));
+            assertEquals(sum, (long) uf.aggregate(root));
+            int[] members = uf.members(root);
+            assertEquals(size, members.length);
+            for(int member : members) assertTrue(expected.isConnected(member, root));
+        });
+        assertEquals(expected.getComponentCount(), components[0]);
+        assertEquals(expected.getComponentCount(), uf.getComponentCount());
+        assertThrows(UnsupportedOperationException.class, () -> new ComponentUnionFind<Void>(3).aggregate(0));
+    }
+}
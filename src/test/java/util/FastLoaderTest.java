@@ -0,0 +1,56 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastLoaderTest {
+
+    private static File write(String content) throws IOException {
+        File file = File.createTempFile("loader", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.print(content);
+        }
+        return file;
+    }
+
+    @Test
+    void readTable_separatorsAndLines() throws IOException {
+        File file = write("3 24\r\n1\t80,982\t163,8164\t\r\n\n  \n-7 2147483647 -2147483648\n12\n0 1 1 0");
+        FastLoader.Table table = FastLoader.readTable(file.getPath(), 1);
+        assertEquals(5, table.lineCount());
+        assertArrayEquals(new int[]{3, 24, 1, 80, 982, 163, 8164, -7, Integer.MAX_VALUE, Integer.MIN_VALUE, 12, 0, 1, 1, 0}, table.values());
+        assertEquals(5, table.lineLength(1));
+        assertEquals(8164, table.get(1, 4));
+        assertEquals(0b0110, table.bitRows(4, 4)[0]);
+        assertArrayEquals(new int[][]{{-7, 12, 0}}, table.columns(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.columns(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> table.bitRows(0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(3, 1));
+        assertThrows(NumberFormatException.class, () -> FastLoader.readInts(write("1 2147483648").getPath()));
+        assertEquals(0, FastLoader.readTable(write("").getPath()).lineCount());
+    }
+
+    @Test
+    void readTable_parallelChunksMatchSequential() throws IOException {
+        Random ran = new Random(23);
+        StringBuilder content = new StringBuilder();
+        for(int line = 0; line < 20000; line++) {
+            for(int k = ran.nextInt(6); k >= 0; k--) content.append(ran.nextInt() >> ran.nextInt(31)).append(k % 2 == 0 ? ' ' : ',');
+            content.append(ran.nextInt(8) == 0 ? "\n\n" : "\n");
+        }
+        String path = write(content.toString()).getPath();
+        FastLoader.Table sequential = FastLoader.readTable(path, 1);
+        for(int parallelism : new int[]{2, 7, 64}) {
+            FastLoader.Table parallel = FastLoader.readTable(path, parallelism);
+            assertArrayEquals(sequential.values(), parallel.values());
+            assertArrayEquals(sequential.lineStarts(), parallel.lineStarts());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGet_sameAsHashMap() {
+        LongIntHashMap map = new LongIntHashMap(-1);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random ran = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            // small keys collide often, key 0 included
+            long key = ran.nextBoolean() ? ran.nextInt(1000) : ran.nextLong();
+            int value = ran.nextInt(1 << 20);
+            Integer previous = expected.put(key, value);
+            assertEquals(previous == null ? -1 : previous, map.put(key, value));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            assertTrue(map.containsKey(e.getKey()));
+            assertEquals((int) e.getValue(), map.get(e.getKey()));
+        }
+        for (int i = 0; i < 1000; i++) {
+            long key = ran.nextLong();
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void zeroKeyAndClear() {
+        LongIntHashMap map = new LongIntHashMap(0, Integer.MIN_VALUE);
+        assertEquals(Integer.MIN_VALUE, map.get(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(7, map.putIfAbsent(0, 7));
+        assertEquals(7, map.putIfAbsent(0, 8));
+        assertEquals(7, map.put(0, 9));
+        assertEquals(9, map.get(0));
+        map.put(-5, 1);
+        assertEquals(2, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(-5));
+    }
+}
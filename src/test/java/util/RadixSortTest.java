@@ -0,0 +1,44 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixSortTest {
+
+    @Test
+    void sort_likeArraysSort() {
+        Random ran = new Random(5);
+        for(int n : new int[]{0, 1, 2, 100, 4095, 4096, 50_000}) {
+            long[] keys = ran.longs(n).toArray();
+            for(int i = 0; i < n; i += 3) keys[i] = ran.nextInt(10) - 5;
+            long[] expected = keys.clone();
+            Arrays.sort(expected);
+            RadixSort.sort(keys);
+            assertArrayEquals(expected, keys, "n = " + n);
+        }
+    }
+
+    @Test
+    void sort_highBitsStable() {
+        Random ran = new Random(6);
+        for(int n : new int[]{1000, 20_000}) {
+            long[] keys = new long[n];
+            // a few distinct costs, the low bits in decreasing order
+            for(int i = 0; i < n; i++) keys[i] = (long) (ran.nextInt(7) - 3) << 32 | (n - i);
+            RadixSort.sort(keys, 32);
+            for(int i = 1; i < n; i++) {
+                int cost = (int) (keys[i] >> 32), previousCost = (int) (keys[i - 1] >> 32);
+                assertTrue(previousCost < cost || previousCost == cost && (int) keys[i - 1] > (int) keys[i]);
+            }
+        }
+    }
+
+    @Test
+    void sort_invalidLowBit() {
+        assertThrows(IllegalArgumentException.class, () -> RadixSort.sort(new long[1], 64));
+    }
+}